@@ -0,0 +1,78 @@
+package kata.tennis.benchmarks;
+
+import java.util.SplittableRandom;
+
+import kata.tennis.services.impl.PackedTennisGameState;
+
+/**
+ * Reproducible generator of game histories: the same seed and profile always
+ * produce the same sequence of histories.
+ * <p>
+ * Every game is played point by point through {@link PackedTennisGameState}
+ * until it is won, so a history is invalid only when the profile asks for
+ * points after the end of the game.
+ * </p>
+ */
+public class GameHistoryGenerator {
+    // identifiers exercising the partner and ordering rules, and non ASCII ones
+    private static final String ODD_PLAYER_IDS = "Z0a9z~éΩ€";
+    private static final int MAX_INVALID_POINTS = 3;
+
+    private final SplittableRandom random;
+    private final GameHistoryProfile profile;
+
+    public GameHistoryGenerator(long seed, GameHistoryProfile profile) {
+        this.random = new SplittableRandom(seed);
+        this.profile = profile;
+    }
+
+    /**
+     * @return the next generated history.
+     */
+    public String next() {
+        char player1Id = 'A';
+        char player2Id = 'B';
+        if (random.nextDouble() < profile.oddPlayersProbability()) {
+            player1Id = ODD_PLAYER_IDS.charAt(random.nextInt(ODD_PLAYER_IDS.length()));
+            do {
+                player2Id = ODD_PLAYER_IDS.charAt(random.nextInt(ODD_PLAYER_IDS.length()));
+            } while (player2Id == player1Id);
+        }
+        StringBuilder history = new StringBuilder();
+        long state = PackedTennisGameState.initial(player1Id, player2Id);
+        if (random.nextDouble() < profile.deuceLoopProbability()) {
+            // three points each in any order reach DEUCE without ending the game
+            int player1Points = 3;
+            int player2Points = 3;
+            while (player1Points + player2Points > 0) {
+                boolean player1Wins = random.nextInt(player1Points + player2Points) < player1Points;
+                state = play(state, history, player1Wins ? player1Id : player2Id);
+                if (player1Wins) {
+                    player1Points--;
+                } else {
+                    player2Points--;
+                }
+            }
+            for (int cycle = 0; cycle < profile.deuceLoopCycles(); cycle++) {
+                boolean player1First = random.nextBoolean();
+                state = play(state, history, player1First ? player1Id : player2Id);
+                state = play(state, history, player1First ? player2Id : player1Id);
+            }
+        }
+        while (!PackedTennisGameState.isFinished(state)) {
+            state = play(state, history,
+                    random.nextDouble() < profile.player1PointProbability() ? player1Id : player2Id);
+        }
+        if (random.nextDouble() < profile.invalidPointProbability()) {
+            for (int point = random.nextInt(MAX_INVALID_POINTS) + 1; point > 0; point--) {
+                history.append(random.nextBoolean() ? player1Id : player2Id);
+            }
+        }
+        return history.toString();
+    }
+
+    private static long play(long state, StringBuilder history, char winnerId) {
+        history.append(winnerId);
+        return PackedTennisGameState.next(state, winnerId);
+    }
+}
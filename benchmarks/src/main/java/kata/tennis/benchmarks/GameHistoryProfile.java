@@ -0,0 +1,56 @@
+package kata.tennis.benchmarks;
+
+/**
+ * Shape of the histories produced by a {@link GameHistoryGenerator}.
+ *
+ * @param player1PointProbability the probability the first player wins a point.
+ * @param deuceLoopProbability    the probability a game goes through a forced
+ *                                deuce loop.
+ * @param deuceLoopCycles         the number of advantages traded in a forced
+ *                                deuce loop.
+ * @param invalidPointProbability the probability points are played after the
+ *                                end of a game, making its history invalid.
+ * @param oddPlayersProbability   the probability a game is played by players
+ *                                with unusual identifiers instead of {@code A}
+ *                                and {@code B}.
+ */
+public record GameHistoryProfile(
+        double player1PointProbability,
+        double deuceLoopProbability,
+        int deuceLoopCycles,
+        double invalidPointProbability,
+        double oddPlayersProbability) {
+
+    /**
+     * Balanced valid games between {@code A} and {@code B}, a few of them going
+     * through a short deuce loop.
+     */
+    public static GameHistoryProfile realistic() {
+        return new GameHistoryProfile(0.5, 0.05, 10, 0, 0);
+    }
+
+    /**
+     * Games stressing the edge cases: long deuce loops, points played after the
+     * end of the game and unusual player identifiers.
+     */
+    public static GameHistoryProfile adversarial() {
+        return new GameHistoryProfile(0.5, 0.3, 1_000, 0.1, 0.3);
+    }
+
+    /**
+     * Parses a profile from its command line form: {@code realistic} or
+     * {@code adversarial}.
+     *
+     * @param profile the profile to parse.
+     * @return the parsed profile.
+     * @throws IllegalArgumentException if the profile is not supported.
+     */
+    public static GameHistoryProfile parse(String profile) throws IllegalArgumentException {
+        return switch (profile) {
+            case "realistic" -> realistic();
+            case "adversarial" -> adversarial();
+            default -> throw new IllegalArgumentException(String.format(
+                    "'%s' not supported, should be one of realistic or adversarial", profile));
+        };
+    }
+}
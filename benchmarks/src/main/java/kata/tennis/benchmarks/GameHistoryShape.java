@@ -0,0 +1,44 @@
+package kata.tennis.benchmarks;
+
+/**
+ * Shapes of the game histories the benchmarks are run against.
+ */
+public enum GameHistoryShape {
+    /**
+     * A player wins every point: the shortest possible game.
+     */
+    STRAIGHT_WIN {
+        @Override
+        public String history() {
+            return "AAAA";
+        }
+    },
+    /**
+     * Both players reach DEUCE then trade a hundred advantages before the game
+     * is won.
+     */
+    DEUCE_BATTLE {
+        @Override
+        public String history() {
+            return "AAABBB" + "AB".repeat(100) + "AA";
+        }
+    },
+    /**
+     * Every point is won by either player with the same probability, until the
+     * game is won. The history is the same from run to run.
+     */
+    RANDOM {
+        @Override
+        public String history() {
+            return new GameHistoryGenerator(SEED, new GameHistoryProfile(0.5, 0, 0, 0, 0)).next();
+        }
+    };
+
+    private static final long SEED = 42;
+
+    /**
+     * @return a valid history of this shape, between players {@code A} and
+     *         {@code B}.
+     */
+    public abstract String history();
+}
@@ -0,0 +1,50 @@
+package kata.tennis.benchmarks;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import kata.tennis.GameRunner;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.impl.TennisGameStreamOutputSinkImpl;
+
+/**
+ * Measures the end to end printing of the scores of a history of the given
+ * shape, from the history to the bytes written to a discarding stream.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameRunnerBenchmark {
+    @Param({ "STRAIGHT_WIN", "DEUCE_BATTLE", "RANDOM" })
+    public GameHistoryShape shape;
+
+    private GameRunner gameRunner;
+    private String history;
+
+    @Setup
+    public void setUp() {
+        gameRunner = new GameRunner(new TennisGameStreamOutputSinkImpl(OutputStream.nullOutputStream(),
+                TennisGameOutputFlushPolicy.perGame()));
+        history = shape.history();
+    }
+
+    @Benchmark
+    public void printGameScoresFromHistory() {
+        gameRunner.printGameScoresFromHistory(history);
+    }
+}
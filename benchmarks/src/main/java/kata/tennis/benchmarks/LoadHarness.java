@@ -0,0 +1,256 @@
+package kata.tennis.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import kata.tennis.GameRunner;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.impl.TennisGameHistoryPrinterServiceImpl;
+import kata.tennis.services.impl.TennisGameHistoryProcessorServiceImpl;
+import kata.tennis.services.impl.TennisGameStreamOutputSinkImpl;
+
+/**
+ * Macro benchmark pushing generated histories through the processor, the
+ * printer and the end to end {@link GameRunner}, one stage after the other.
+ * <p>
+ * Histories are generated by batches which are not measured. Every stage
+ * reports its points and games per second, the p50, p99 and p999 latencies of
+ * a game and the bytes allocated per game by the measuring thread, and is
+ * compared with a stored baseline. Output goes to a discarding stream so that
+ * only the kata is measured.
+ * </p>
+ * <p>
+ * Options: {@code --games <count>} (1000000 by default, at most
+ * {@code Integer.MAX_VALUE - 8}), {@code --seed <seed>},
+ * {@code --profile realistic|adversarial}, {@code --baseline <file>} to compare
+ * with, {@code --save-baseline <file>} to store the results and
+ * {@code --tolerance <percent>} (10 by default). The exit status is 1 when a
+ * stage regressed beyond the tolerance: lower throughput, higher p99 latency
+ * or more bytes allocated per game.
+ * </p>
+ */
+public final class LoadHarness {
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] STAGES = { "processor", "printer", "runner" };
+    // every latency is kept to compute exact percentiles, in an array
+    private static final long MAX_GAMES = Integer.MAX_VALUE - 8;
+
+    private final TennisGameHistoryProcessorService tennisGameHistoryProcessorService =
+            new TennisGameHistoryProcessorServiceImpl();
+    private final TennisGameHistoryPrinterService tennisGameHistoryPrinterService =
+            new TennisGameHistoryPrinterServiceImpl(new TennisGameStreamOutputSinkImpl(
+                    OutputStream.nullOutputStream(), TennisGameOutputFlushPolicy.perGame()), StandardCharsets.UTF_8);
+    private final GameRunner gameRunner = new GameRunner(new TennisGameStreamOutputSinkImpl(
+            OutputStream.nullOutputStream(), TennisGameOutputFlushPolicy.perGame()));
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Results of a stage.
+     *
+     * @param errors the number of games rejected, by exception type.
+     */
+    record StageResult(
+            String stage,
+            long games,
+            long points,
+            long elapsedNanos,
+            long p50Nanos,
+            long p99Nanos,
+            long p999Nanos,
+            long allocatedBytes,
+            Map<String, Long> errors) {
+        double gamesPerSecond() {
+            return games * 1e9 / elapsedNanos;
+        }
+
+        double pointsPerSecond() {
+            return points * 1e9 / elapsedNanos;
+        }
+
+        double bytesPerGame() {
+            return (double) allocatedBytes / games;
+        }
+    }
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        long games = 1_000_000;
+        long seed = 42;
+        String profileName = "realistic";
+        Path baseline = null;
+        Path saveBaseline = null;
+        double tolerance = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> games = Long.parseLong(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--profile" -> profileName = args[++i];
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--save-baseline" -> saveBaseline = Path.of(args[++i]);
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                default -> throw new IllegalArgumentException(String.format("'%s' not supported", args[i]));
+            }
+        }
+
+        if (games <= 0 || games > MAX_GAMES) {
+            throw new IllegalArgumentException(String.format("%d games not supported, should be between 1 and %d",
+                    games, MAX_GAMES));
+        }
+        GameHistoryProfile profile = GameHistoryProfile.parse(profileName);
+        LoadHarness harness = new LoadHarness();
+        // warms every stage up with different histories than the measured ones
+        for (String stage : STAGES) {
+            harness.run(stage, Math.min(games, 100_000), seed + 1, profile);
+        }
+        List<StageResult> results = new ArrayList<>();
+        for (String stage : STAGES) {
+            StageResult result = harness.run(stage, games, seed, profile);
+            results.add(result);
+            System.out.printf("%-9s %12.0f points/s %10.0f games/s  p50 %8d ns  p99 %8d ns  p999 %8d ns"
+                    + "  %8.1f B/game  errors %s%n",
+                    result.stage(), result.pointsPerSecond(), result.gamesPerSecond(), result.p50Nanos(),
+                    result.p99Nanos(), result.p999Nanos(), result.bytesPerGame(), result.errors());
+        }
+
+        boolean regressed = false;
+        if (baseline != null) {
+            Properties baselineResults = load(baseline);
+            if (!profileName.equals(baselineResults.getProperty("profile"))) {
+                System.out.printf("baseline recorded with the %s profile%n", baselineResults.getProperty("profile"));
+            }
+            regressed = compare(results, baselineResults, tolerance);
+        }
+        if (saveBaseline != null) {
+            save(results, profileName, saveBaseline);
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    private StageResult run(String stage, long games, long seed, GameHistoryProfile profile) {
+        GameHistoryGenerator generator = new GameHistoryGenerator(seed, profile);
+        long[] latencies = new long[(int) games];
+        Map<String, Long> errors = new TreeMap<>();
+        String[] histories = new String[BATCH_SIZE];
+        List<List<TennisGameState>> states = new ArrayList<>(BATCH_SIZE);
+        long points = 0;
+        long elapsedNanos = 0;
+        long allocatedBytes = 0;
+        long threadId = Thread.currentThread().getId();
+        for (long game = 0; game < games; game += BATCH_SIZE) {
+            int batchSize = (int) Math.min(BATCH_SIZE, games - game);
+            states.clear();
+            for (int i = 0; i < batchSize; i++) {
+                histories[i] = generator.next();
+                points += histories[i].length();
+                if (stage.equals("printer")) {
+                    try {
+                        states.add(tennisGameHistoryProcessorService.generateGameStatesFromHistory(histories[i]));
+                    } catch (IllegalArgumentException e) {
+                        states.add(List.of());
+                        errors.merge(e.getClass().getSimpleName(), 1L, Long::sum);
+                    }
+                }
+            }
+            long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < batchSize; i++) {
+                long start = System.nanoTime();
+                try {
+                    switch (stage) {
+                        case "processor" -> tennisGameHistoryProcessorService.generateGameStatesFromHistory(
+                                histories[i]);
+                        case "printer" -> tennisGameHistoryPrinterService.printScoreFromGameStates(states.get(i));
+                        default -> gameRunner.printGameScoresFromHistory(histories[i]);
+                    }
+                } catch (IllegalArgumentException e) {
+                    errors.merge(e.getClass().getSimpleName(), 1L, Long::sum);
+                }
+                long latency = System.nanoTime() - start;
+                latencies[(int) game + i] = latency;
+                elapsedNanos += latency;
+            }
+            allocatedBytes += threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+        Arrays.sort(latencies);
+        return new StageResult(stage, games, points, elapsedNanos, percentile(latencies, 0.5),
+                percentile(latencies, 0.99), percentile(latencies, 0.999), allocatedBytes, errors);
+    }
+
+    private static long percentile(long[] sortedLatencies, double percentile) {
+        return sortedLatencies[(int) Math.min(sortedLatencies.length - 1,
+                Math.ceil(percentile * sortedLatencies.length) - 1)];
+    }
+
+    /**
+     * Prints the change of every metric from the baseline.
+     *
+     * @return whether a stage is slower, has a higher p99 latency or allocates
+     *         more, beyond the tolerance.
+     */
+    private static boolean compare(List<StageResult> results, Properties baseline, double tolerance) {
+        boolean regressed = false;
+        for (StageResult result : results) {
+            String stage = result.stage();
+            if (!baseline.containsKey(stage + ".gamesPerSecond")) {
+                System.out.printf("%-9s not in baseline%n", stage);
+                continue;
+            }
+            double throughput = change(result.gamesPerSecond(), baseline, stage + ".gamesPerSecond");
+            double p99 = change(result.p99Nanos(), baseline, stage + ".p99Nanos");
+            double allocation = change(result.bytesPerGame(), baseline, stage + ".bytesPerGame");
+            boolean stageRegressed = throughput < -tolerance || p99 > tolerance || allocation > tolerance;
+            regressed |= stageRegressed;
+            System.out.printf("%-9s games/s %+7.1f %%  p99 %+7.1f %%  B/game %+7.1f %%  %s%n",
+                    stage, throughput, p99, allocation, stageRegressed ? "REGRESSION" : "ok");
+        }
+        return regressed;
+    }
+
+    private static double change(double value, Properties baseline, String key) {
+        double reference = Double.parseDouble(baseline.getProperty(key));
+        return reference == 0 ? (value == 0 ? 0 : 100) : (value - reference) * 100 / reference;
+    }
+
+    private static Properties load(Path baseline) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(baseline)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void save(List<StageResult> results, String profileName, Path baseline) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("profile", profileName);
+        for (StageResult result : results) {
+            properties.setProperty(result.stage() + ".gamesPerSecond", String.valueOf(result.gamesPerSecond()));
+            properties.setProperty(result.stage() + ".pointsPerSecond", String.valueOf(result.pointsPerSecond()));
+            properties.setProperty(result.stage() + ".p50Nanos", String.valueOf(result.p50Nanos()));
+            properties.setProperty(result.stage() + ".p99Nanos", String.valueOf(result.p99Nanos()));
+            properties.setProperty(result.stage() + ".p999Nanos", String.valueOf(result.p999Nanos()));
+            properties.setProperty(result.stage() + ".bytesPerGame", String.valueOf(result.bytesPerGame()));
+        }
+        try (Writer writer = Files.newBufferedWriter(baseline)) {
+            properties.store(writer, "tennis-kata load harness baseline");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package kata.tennis.benchmarks;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.impl.TennisGameHistoryPrinterServiceImpl;
+import kata.tennis.services.impl.TennisGameHistoryProcessorServiceImpl;
+import kata.tennis.services.impl.TennisGameStreamOutputSinkImpl;
+
+/**
+ * Measures the rendering of the states of a history of the given shape, written
+ * through a buffered sink to a discarding stream so that only the printer is
+ * measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TennisGameHistoryPrinterBenchmark {
+    @Param({ "STRAIGHT_WIN", "DEUCE_BATTLE", "RANDOM" })
+    public GameHistoryShape shape;
+
+    private TennisGameHistoryPrinterService tennisGameHistoryPrinterService;
+    private List<TennisGameState> states;
+
+    @Setup
+    public void setUp() {
+        tennisGameHistoryPrinterService = new TennisGameHistoryPrinterServiceImpl(
+                new TennisGameStreamOutputSinkImpl(OutputStream.nullOutputStream(),
+                        TennisGameOutputFlushPolicy.perGame()),
+                StandardCharsets.UTF_8);
+        states = new TennisGameHistoryProcessorServiceImpl().generateGameStatesFromHistory(shape.history());
+    }
+
+    @Benchmark
+    public void printScoreFromGameStates() {
+        tennisGameHistoryPrinterService.printScoreFromGameStates(states);
+    }
+}
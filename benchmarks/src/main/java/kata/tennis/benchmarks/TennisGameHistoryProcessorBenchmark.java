@@ -0,0 +1,54 @@
+package kata.tennis.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.impl.TennisGameHistoryProcessorServiceImpl;
+
+/**
+ * Measures the processing of a whole history of the given shape.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TennisGameHistoryProcessorBenchmark {
+    @Param({ "STRAIGHT_WIN", "DEUCE_BATTLE", "RANDOM" })
+    public GameHistoryShape shape;
+
+    private final TennisGameHistoryProcessorService tennisGameHistoryProcessorService =
+            new TennisGameHistoryProcessorServiceImpl();
+    private String history;
+
+    @Setup
+    public void setUp() {
+        history = shape.history();
+    }
+
+    @Benchmark
+    public List<TennisGameState> generateGameStatesFromHistory() {
+        return tennisGameHistoryProcessorService.generateGameStatesFromHistory(history);
+    }
+
+    @Benchmark
+    public TennisGameOutcome evaluateGameHistory() {
+        return tennisGameHistoryProcessorService.evaluateGameHistory(history);
+    }
+}
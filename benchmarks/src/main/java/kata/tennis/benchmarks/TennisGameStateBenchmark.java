@@ -0,0 +1,70 @@
+package kata.tennis.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.impl.TennisGameHistoryProcessorServiceImpl;
+import kata.tennis.services.impl.TennisGameStatePoolServiceImpl;
+import kata.tennis.services.impl.TennisGameStateServiceImpl;
+
+/**
+ * Measures a single game state transition, replaying the points of a history
+ * of the given shape one at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TennisGameStateBenchmark {
+    @Param({ "STRAIGHT_WIN", "DEUCE_BATTLE", "RANDOM" })
+    public GameHistoryShape shape;
+
+    @Param({ "RULES", "POOL" })
+    public String implementation;
+
+    private TennisGameStateService tennisGameStateService;
+    private TennisGameState[] lastGameStates;
+    private char[] winnerIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tennisGameStateService = implementation.equals("RULES") ? new TennisGameStateServiceImpl()
+                : new TennisGameStatePoolServiceImpl();
+        String history = shape.history();
+        List<TennisGameState> states = new TennisGameHistoryProcessorServiceImpl(tennisGameStateService)
+                .generateGameStatesFromHistory(history);
+        lastGameStates = new TennisGameState[history.length()];
+        winnerIds = history.toCharArray();
+        lastGameStates[0] = new TennisGameState(null, new TennisPlayer('A', TennisScore.ZERO),
+                new TennisPlayer('B', TennisScore.ZERO));
+        for (int point = 1; point < history.length(); point++) {
+            lastGameStates[point] = states.get(point - 1);
+        }
+    }
+
+    @Benchmark
+    public TennisGameState getNextGameState() {
+        int point = next;
+        next = point + 1 == winnerIds.length ? 0 : point + 1;
+        return tennisGameStateService.getNextGameState(lastGameStates[point], winnerIds[point]);
+    }
+}
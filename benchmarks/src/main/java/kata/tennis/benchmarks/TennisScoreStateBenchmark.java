@@ -0,0 +1,68 @@
+package kata.tennis.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisScoreState;
+import kata.tennis.services.TennisScoreStateService;
+import kata.tennis.services.impl.TennisScoreStateServiceImpl;
+import kata.tennis.services.impl.TennisScoreStateTableServiceImpl;
+
+/**
+ * Measures the resolution of the next score state, cycling over every score
+ * state supported by the rules.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TennisScoreStateBenchmark {
+    @Param({ "RULES", "TABLE" })
+    public String implementation;
+
+    private TennisScoreStateService tennisScoreStateService;
+    private TennisScoreState[] scoreStates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tennisScoreStateService = implementation.equals("RULES") ? new TennisScoreStateServiceImpl()
+                : new TennisScoreStateTableServiceImpl();
+        List<TennisScoreState> supported = new ArrayList<>();
+        for (TennisScore winnerScore : TennisScore.values()) {
+            for (TennisScore loserScore : TennisScore.values()) {
+                TennisScoreState scoreState = new TennisScoreState(winnerScore, loserScore);
+                try {
+                    tennisScoreStateService.getNextScoreState(scoreState);
+                    supported.add(scoreState);
+                } catch (IllegalArgumentException e) {
+                    // not reachable in a game
+                }
+            }
+        }
+        scoreStates = supported.toArray(TennisScoreState[]::new);
+    }
+
+    @Benchmark
+    public TennisScoreState getNextScoreState() {
+        TennisScoreState scoreState = scoreStates[next];
+        next = next + 1 == scoreStates.length ? 0 : next + 1;
+        return tennisScoreStateService.getNextScoreState(scoreState);
+    }
+}
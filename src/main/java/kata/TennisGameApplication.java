@@ -1,11 +1,111 @@
 package kata;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
 import kata.tennis.GameRunner;
+import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
+import kata.tennis.services.impl.AsyncTennisGameHistoryPrinterServiceImpl;
+import kata.tennis.services.impl.CachingTennisGameHistoryProcessorServiceImpl;
+import kata.tennis.services.impl.PrometheusTennisGameMetricsExporterImpl;
+import kata.tennis.services.impl.TennisGameChannelOutputSinkImpl;
+import kata.tennis.services.impl.TennisGameHistoryCache;
+import kata.tennis.services.impl.TennisGameHistoryPrinterServiceImpl;
+import kata.tennis.services.impl.TennisGameMetricsRegistryImpl;
+import kata.tennis.services.impl.TennisGameStatePoolServiceImpl;
+import kata.tennis.services.impl.TennisGameStreamOutputSinkImpl;
 
 //this class is used to offer a command line entry point
 public class TennisGameApplication {
-    public static void main(String[] args) {
-        GameRunner gameRunner = new GameRunner();
-        gameRunner.printGameScoresFromHistory(args[0]);
+    public static void main(String[] args) throws IOException {
+        List<String> gameHistories = new ArrayList<>();
+        Path gameHistoriesFile = null;
+        Path outputFile = null;
+        TennisGameOutputFlushPolicy flushPolicy = TennisGameOutputFlushPolicy.perGame();
+        boolean async = false;
+        Path metricsFile = null;
+        TennisGameHistoryCache cache = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--file" -> gameHistoriesFile = Path.of(optionValue(args, ++i));
+                case "--output" -> outputFile = Path.of(optionValue(args, ++i));
+                case "--flush" -> flushPolicy = TennisGameOutputFlushPolicy.parse(optionValue(args, ++i));
+                case "--async" -> async = true;
+                case "--metrics" -> metricsFile = Path.of(optionValue(args, ++i));
+                case "--cache" -> cache = new TennisGameHistoryCache();
+                default -> gameHistories.add(args[i]);
+            }
+        }
+
+        TennisGameOutputSink sink;
+        if (outputFile == null) {
+            // System.out is flushed but never closed with the sink
+            sink = new TennisGameStreamOutputSinkImpl(System.out, TennisGameStreamOutputSinkImpl.DEFAULT_BUFFER_SIZE,
+                    flushPolicy, false);
+        } else {
+            sink = new TennisGameChannelOutputSinkImpl(FileChannel.open(outputFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), flushPolicy);
+        }
+        // metrics cost nothing unless a file is given to export them to
+        TennisGameMetricsRegistryImpl metricsRegistry = new TennisGameMetricsRegistryImpl();
+        TennisGameMetrics metrics = metricsFile != null ? metricsRegistry : TennisGameMetrics.NOOP;
+        TennisGameHistoryPrinterServiceImpl printer = new TennisGameHistoryPrinterServiceImpl(sink,
+                Charset.defaultCharset(), metrics);
+        // the async printer writes from its own thread, off the scoring path
+        AsyncTennisGameHistoryPrinterServiceImpl asyncPrinter = async
+                ? new AsyncTennisGameHistoryPrinterServiceImpl(printer)
+                : null;
+        try {
+            TennisGameHistoryPrinterService printerService = async ? asyncPrinter : printer;
+            // repeated histories skip the generation of their states
+            GameRunner gameRunner = cache != null
+                    ? new GameRunner(new CachingTennisGameHistoryProcessorServiceImpl(
+                            new TennisGameStatePoolServiceImpl(), cache, metrics), printerService, metrics)
+                    : new GameRunner(printerService, metrics);
+            run(gameRunner, gameHistoriesFile, gameHistories);
+        } finally {
+            if (async) {
+                asyncPrinter.close();
+            }
+            sink.close();
+            if (metricsFile != null) {
+                new PrometheusTennisGameMetricsExporterImpl(metricsRegistry, cache, metricsFile).export();
+            }
+        }
+    }
+
+    // the value following an option, which must not be the last argument
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(String.format("'%s' should be followed by a value", args[index - 1]));
+        }
+        return args[index];
+    }
+
+    private static void run(GameRunner gameRunner, Path gameHistoriesFile, List<String> gameHistories) {
+        if (gameHistoriesFile != null) {
+            // one history per line, printing the outcome of each game
+            for (var failure : gameRunner.printGameOutcomesFromFile(gameHistoriesFile)) {
+                System.err.println("line " + failure.lineNumber() + " > " + failure.errorCode().getLibelle()
+                        + " at position " + failure.errorPosition());
+            }
+            return;
+        }
+        if (gameHistories.size() == 1) {
+            gameRunner.printGameScoresFromHistory(gameHistories.get(0));
+            return;
+        }
+        // many histories are scored as one parallel batch, reporting each invalid one
+        for (var failure : gameRunner.printGameScoresFromHistories(gameHistories)) {
+            System.err.println(failure.gameHistory() + " > " + failure.error().getMessage());
+        }
     }
 }
@@ -1,20 +1,98 @@
 package kata.tennis;
 
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
+import kata.tennis.domain.TennisGameHistoryLineResult;
+import kata.tennis.domain.TennisGameHistoryResult;
 import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameBatchProcessorService;
+import kata.tennis.services.TennisGameHistoryFileProcessorService;
 import kata.tennis.services.TennisGameHistoryPrinterService;
 import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
+import kata.tennis.services.events.TennisGameStageEvent;
+import kata.tennis.services.impl.CachingTennisGameHistoryProcessorServiceImpl;
+import kata.tennis.services.impl.TennisGameBatchProcessorServiceImpl;
+import kata.tennis.services.impl.TennisGameHistoryFileProcessorServiceImpl;
 import kata.tennis.services.impl.TennisGameHistoryPrinterServiceImpl;
 import kata.tennis.services.impl.TennisGameHistoryProcessorServiceImpl;
+import kata.tennis.services.impl.TennisGameStatePoolServiceImpl;
+import kata.tennis.services.impl.TennisGameStreamOutputSinkImpl;
 
 public class GameRunner {
     private final TennisGameHistoryProcessorService tennisGameHistoryProcessorService;
     private final TennisGameHistoryPrinterService tennisGameHistoryPrinterService;
+    private final TennisGameBatchProcessorService tennisGameBatchProcessorService;
+    private final TennisGameHistoryFileProcessorService tennisGameHistoryFileProcessorService;
+    private final TennisGameMetrics metrics;
 
+    /**
+     * Constructs a new {@code GameRunner} printing to {@link System#out}, flushed
+     * once per printed game.
+     */
     public GameRunner() {
-        tennisGameHistoryProcessorService = new TennisGameHistoryProcessorServiceImpl();
-        tennisGameHistoryPrinterService = new TennisGameHistoryPrinterServiceImpl();
+        this(new TennisGameStreamOutputSinkImpl(System.out, TennisGameOutputFlushPolicy.perGame()));
+    }
+
+    /**
+     * Constructs a new {@code GameRunner} printing to the given sink.
+     *
+     * @param sink the sink the printed lines are written to.
+     */
+    public GameRunner(TennisGameOutputSink sink) {
+        this(new TennisGameHistoryPrinterServiceImpl(sink, Charset.defaultCharset()));
+    }
+
+    /**
+     * Constructs a new {@code GameRunner} printing with the given printer
+     * service.
+     *
+     * @param tennisGameHistoryPrinterService the service printing the scores.
+     */
+    public GameRunner(TennisGameHistoryPrinterService tennisGameHistoryPrinterService) {
+        this(tennisGameHistoryPrinterService, TennisGameMetrics.NOOP);
+    }
+
+    /**
+     * Constructs a new {@code GameRunner} printing with the given printer service
+     * and recording its games to the given metrics: every printed history end to
+     * end, and every processed history. The printer service records its own
+     * metrics.
+     *
+     * @param tennisGameHistoryPrinterService the service printing the scores.
+     * @param metrics                         the metrics the games are recorded
+     *                                        to.
+     */
+    public GameRunner(TennisGameHistoryPrinterService tennisGameHistoryPrinterService, TennisGameMetrics metrics) {
+        this(new TennisGameHistoryProcessorServiceImpl(new TennisGameStatePoolServiceImpl(), metrics),
+                tennisGameHistoryPrinterService, metrics);
+    }
+
+    /**
+     * Constructs a new {@code GameRunner} scoring with the given processor
+     * service, e.g. a {@link CachingTennisGameHistoryProcessorServiceImpl},
+     * printing with the given printer service and recording its games to the
+     * given metrics. Both services record their own metrics.
+     *
+     * @param tennisGameHistoryProcessorService the service scoring the histories.
+     * @param tennisGameHistoryPrinterService   the service printing the scores.
+     * @param metrics                           the metrics the games are
+     *                                          recorded to.
+     */
+    public GameRunner(TennisGameHistoryProcessorService tennisGameHistoryProcessorService,
+            TennisGameHistoryPrinterService tennisGameHistoryPrinterService, TennisGameMetrics metrics) {
+        this.metrics = metrics;
+        this.tennisGameHistoryProcessorService = tennisGameHistoryProcessorService;
+        this.tennisGameHistoryPrinterService = tennisGameHistoryPrinterService;
+        tennisGameBatchProcessorService = new TennisGameBatchProcessorServiceImpl(tennisGameHistoryProcessorService);
+        tennisGameHistoryFileProcessorService = new TennisGameHistoryFileProcessorServiceImpl(
+                tennisGameHistoryProcessorService);
     }
 
     /**
@@ -27,14 +105,85 @@ public class GameRunner {
      * The java method should print the score after each won ball (for example :
      * “Player A : 15 / Player B : 30”) and print the winner of the game.
      * 
+     * The detection of the players, the generation of the states and their
+     * printing are each recorded as a {@link TennisGameStageEvent} for Java
+     * Flight Recorder.
+     * 
      * @param gameHistory the history of the game in a specific format that will be
      *                    processed
      *                    to generate the sequence of game states.
      */
 
     public void printGameScoresFromHistory(String gameHistory) {
-        List<TennisGameState> tennisGameStates = tennisGameHistoryProcessorService
-                .generateGameStatesFromHistory(gameHistory);
-        tennisGameHistoryPrinterService.printScoreFromGameStates(tennisGameStates);
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        try {
+            List<TennisGameState> tennisGameStates = tennisGameHistoryProcessorService
+                    .generateGameStatesFromHistory(gameHistory);
+            if (TennisGameStageEvent.isTypeEnabled()) {
+                TennisGameStageEvent printingEvent = new TennisGameStageEvent(TennisGameStageEvent.PRINTING);
+                printingEvent.begin();
+                tennisGameHistoryPrinterService.printScoreFromGameStates(tennisGameStates);
+                printingEvent.end();
+                printingEvent.describe(gameHistory, tennisGameStates.get(tennisGameStates.size() - 1));
+                printingEvent.commit();
+            } else {
+                tennisGameHistoryPrinterService.printScoreFromGameStates(tennisGameStates);
+            }
+        } catch (RuntimeException e) {
+            metrics.recordError(Stage.RUNNER, e);
+            throw e;
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordGame(Stage.RUNNER, gameHistory.length(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Prints the scores of many game histories at once.
+     * <p>
+     * The histories are scored in parallel, and the scores of every valid
+     * history are printed in the order of the given list as soon as it and the
+     * previous ones are scored. An invalid history does not abort the batch:
+     * its error is returned.
+     * </p>
+     *
+     * @param gameHistories the histories of the games to print.
+     * @return the results of the invalid histories, in input order.
+     */
+    public List<TennisGameHistoryResult<List<TennisGameState>>> printGameScoresFromHistories(
+            List<String> gameHistories) {
+        List<TennisGameHistoryResult<List<TennisGameState>>> failures = new ArrayList<>();
+        tennisGameBatchProcessorService.generateGameStatesFromHistories(gameHistories, result -> {
+            if (result.isSuccess()) {
+                tennisGameHistoryPrinterService.printScoreFromGameStates(result.value());
+            } else {
+                failures.add(result);
+            }
+        });
+        return failures;
+    }
+
+    /**
+     * Prints the outcome of every game history of a file holding one history per
+     * line.
+     * <p>
+     * The file is memory mapped and scored in parallel; the outcome of every
+     * valid line is printed in line order. An invalid line does not abort the
+     * processing: its error is returned.
+     * </p>
+     *
+     * @param gameHistoriesFile the file of newline delimited game histories.
+     * @return the results of the invalid lines, in line order.
+     */
+    public List<TennisGameHistoryLineResult> printGameOutcomesFromFile(Path gameHistoriesFile) {
+        List<TennisGameHistoryLineResult> failures = new ArrayList<>();
+        tennisGameHistoryFileProcessorService.evaluateGameHistoryFile(gameHistoriesFile, result -> {
+            if (result.isSuccess()) {
+                tennisGameHistoryPrinterService.printGameOutcome(result.outcome());
+            } else {
+                failures.add(result);
+            }
+        });
+        return failures;
     }
 }
@@ -0,0 +1,30 @@
+package kata.tennis.domain;
+
+/**
+ * Reason why a game history is rejected, the structured counterpart of the
+ * exceptions raised by the scoring services.
+ */
+public enum TennisGameErrorCode {
+    /**
+     * The history does not hold exactly one or two player identifiers.
+     */
+    UNSUPPORTED_PLAYERS_COUNT("unsupported players count"),
+    /**
+     * A point is played after the end of the game.
+     */
+    GAME_ALREADY_FINISHED("game already finished"),
+    /**
+     * The rules do not support the scores a point is played at.
+     */
+    UNSUPPORTED_GAME_STATUS("unsupported game status");
+
+    private final String libelle;
+
+    public String getLibelle() {
+        return this.libelle;
+    }
+
+    TennisGameErrorCode(String libelle) {
+        this.libelle = libelle;
+    }
+}
@@ -0,0 +1,33 @@
+package kata.tennis.domain;
+
+/**
+ * Result of the evaluation of a game history which does not throw: either the
+ * outcome of the game, or the code of the error rejecting the history with the
+ * position of the offending point.
+ *
+ * @param errorPosition the zero based position in the history of the offending
+ *                      point, e.g. the first point played after the end of the
+ *                      game or the first identifier of a third player, or
+ *                      {@link #NO_ERROR_POSITION}.
+ */
+public record TennisGameEvaluation(
+        TennisGameOutcome outcome,
+        TennisGameErrorCode errorCode,
+        int errorPosition) {
+    /**
+     * Position of the error of a successful evaluation.
+     */
+    public static final int NO_ERROR_POSITION = -1;
+
+    public static TennisGameEvaluation success(TennisGameOutcome outcome) {
+        return new TennisGameEvaluation(outcome, null, NO_ERROR_POSITION);
+    }
+
+    public static TennisGameEvaluation failure(TennisGameErrorCode errorCode, int errorPosition) {
+        return new TennisGameEvaluation(null, errorCode, errorPosition);
+    }
+
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+}
@@ -0,0 +1,22 @@
+package kata.tennis.domain;
+
+import java.util.Map;
+
+/**
+ * Aggregated results of the evaluation of a batch of game histories.
+ *
+ * @param gamesCount         the number of histories evaluated.
+ * @param finishedGamesCount the number of valid histories whose game is won.
+ * @param pointsCount        the number of points of the valid histories.
+ * @param errorsCounts       the number of rejected histories, by error code,
+ *                           codes without errors included.
+ */
+public record TennisGameEvaluationSummary(
+        long gamesCount,
+        long finishedGamesCount,
+        long pointsCount,
+        Map<TennisGameErrorCode, Long> errorsCounts) {
+    public long getErrorsCount() {
+        return errorsCounts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
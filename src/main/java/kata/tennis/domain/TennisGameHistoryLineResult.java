@@ -0,0 +1,24 @@
+package kata.tennis.domain;
+
+/**
+ * Result of the evaluation of one line of a file of game histories: either the
+ * outcome of the game, or the code of the error rejecting this line alone with
+ * the position of the offending point.
+ *
+ * @param errorPosition the zero based position in the line of the offending
+ *                      point, or {@link TennisGameEvaluation#NO_ERROR_POSITION}.
+ */
+public record TennisGameHistoryLineResult(
+        long lineNumber,
+        TennisGameOutcome outcome,
+        TennisGameErrorCode errorCode,
+        int errorPosition) {
+    public static TennisGameHistoryLineResult of(long lineNumber, TennisGameEvaluation evaluation) {
+        return new TennisGameHistoryLineResult(lineNumber, evaluation.outcome(), evaluation.errorCode(),
+                evaluation.errorPosition());
+    }
+
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+}
@@ -0,0 +1,16 @@
+package kata.tennis.domain;
+
+/**
+ * Result of the processing of one game history within a batch: either the
+ * computed value, or the error raised by this history alone.
+ *
+ * @param <T> the type of the value computed from the history.
+ */
+public record TennisGameHistoryResult<T>(
+        String gameHistory,
+        T value,
+        RuntimeException error) {
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,15 @@
+package kata.tennis.domain;
+
+/**
+ * Final outcome of a game history: the game winner, if any, the final scores
+ * of both players and the number of points played.
+ */
+public record TennisGameOutcome(
+        Character winnerId,
+        TennisPlayer player1,
+        TennisPlayer player2,
+        int pointsCount) {
+    public boolean isFinished() {
+        return winnerId != null;
+    }
+}
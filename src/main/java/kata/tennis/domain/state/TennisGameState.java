@@ -18,4 +18,8 @@ public record TennisGameState(
         }
         return Optional.empty();
     }
+
+    public boolean isFinished() {
+        return player1.tennisScore() == TennisScore.WIN || player2.tennisScore() == TennisScore.WIN;
+    }
 }
@@ -0,0 +1,261 @@
+package kata.tennis.domain.state;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import kata.tennis.domain.TennisGameErrorCode;
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+
+/**
+ * Game states of a batch of games, stored as columns of primitives rather than
+ * one {@link TennisGameState} per point.
+ * <p>
+ * The state following each point takes three bytes: the slot of the point
+ * winner ({@link #PLAYER1} or {@link #PLAYER2}) and the score ordinals of both
+ * players. The states of game {@code g} are at offsets
+ * {@code getGameOffset(g)} inclusive to {@code getGameOffset(g + 1)} exclusive
+ * of the columns, and a rejected game has no states but an error code and the
+ * position of the offending point. Columns
+ * grow as states are added and keep their capacity when cleared, so that a
+ * buffer can be reused from batch to batch.
+ * </p>
+ */
+public final class TennisGameStateColumns {
+    /**
+     * Winner slot of a point won by the first player.
+     */
+    public static final byte PLAYER1 = 1;
+    /**
+     * Winner slot of a point won by the second player.
+     */
+    public static final byte PLAYER2 = 2;
+
+    private static final TennisScore[] SCORES = TennisScore.values();
+    private static final TennisGameErrorCode[] ERROR_CODES = TennisGameErrorCode.values();
+    private static final int INITIAL_GAMES_CAPACITY = 16;
+    private static final int INITIAL_STATES_CAPACITY = 256;
+
+    private byte[] winnerSlots = new byte[INITIAL_STATES_CAPACITY];
+    private byte[] player1ScoreOrdinals = new byte[INITIAL_STATES_CAPACITY];
+    private byte[] player2ScoreOrdinals = new byte[INITIAL_STATES_CAPACITY];
+    private int statesCount;
+    private int[] gameOffsets = new int[INITIAL_GAMES_CAPACITY + 1];
+    private char[] player1Ids = new char[INITIAL_GAMES_CAPACITY];
+    private char[] player2Ids = new char[INITIAL_GAMES_CAPACITY];
+    // error code ordinal plus one, zero for a valid game
+    private byte[] errorCodes = new byte[INITIAL_GAMES_CAPACITY];
+    private int[] errorPositions = new int[INITIAL_GAMES_CAPACITY];
+    private int gamesCount;
+
+    /**
+     * Starts the next game, whose states are the ones added until the next game
+     * starts.
+     *
+     * @param player1Id the identifier of the first player.
+     * @param player2Id the identifier of the second player.
+     */
+    public void addGame(char player1Id, char player2Id) {
+        if (gamesCount == player1Ids.length) {
+            ensureGamesCapacity(gamesCount + 1);
+        }
+        player1Ids[gamesCount] = player1Id;
+        player2Ids[gamesCount] = player2Id;
+        errorCodes[gamesCount] = 0;
+        errorPositions[gamesCount] = TennisGameEvaluation.NO_ERROR_POSITION;
+        gameOffsets[gamesCount] = statesCount;
+        gamesCount++;
+        gameOffsets[gamesCount] = statesCount;
+    }
+
+    /**
+     * Adds the state following a point to the current game.
+     *
+     * @param winnerSlot          the slot of the point winner.
+     * @param player1ScoreOrdinal the score ordinal of the first player.
+     * @param player2ScoreOrdinal the score ordinal of the second player.
+     */
+    public void addState(int winnerSlot, int player1ScoreOrdinal, int player2ScoreOrdinal) {
+        if (statesCount == winnerSlots.length) {
+            ensureStatesCapacity(statesCount + 1);
+        }
+        winnerSlots[statesCount] = (byte) winnerSlot;
+        player1ScoreOrdinals[statesCount] = (byte) player1ScoreOrdinal;
+        player2ScoreOrdinals[statesCount] = (byte) player2ScoreOrdinal;
+        gameOffsets[gamesCount] = ++statesCount;
+    }
+
+    /**
+     * Rejects the current game, dropping its states.
+     *
+     * @param errorCode     the reason why the game is rejected.
+     * @param errorPosition the zero based position in the history of the
+     *                      offending point.
+     */
+    public void rejectGame(TennisGameErrorCode errorCode, int errorPosition) {
+        errorCodes[gamesCount - 1] = (byte) (errorCode.ordinal() + 1);
+        errorPositions[gamesCount - 1] = errorPosition;
+        statesCount = gameOffsets[gamesCount - 1];
+        gameOffsets[gamesCount] = statesCount;
+    }
+
+    /**
+     * Appends the games of the given columns after the games of these ones.
+     *
+     * @param other the columns to append.
+     */
+    public void addAll(TennisGameStateColumns other) {
+        ensureStatesCapacity(statesCount + other.statesCount);
+        System.arraycopy(other.winnerSlots, 0, winnerSlots, statesCount, other.statesCount);
+        System.arraycopy(other.player1ScoreOrdinals, 0, player1ScoreOrdinals, statesCount, other.statesCount);
+        System.arraycopy(other.player2ScoreOrdinals, 0, player2ScoreOrdinals, statesCount, other.statesCount);
+        ensureGamesCapacity(gamesCount + other.gamesCount);
+        System.arraycopy(other.player1Ids, 0, player1Ids, gamesCount, other.gamesCount);
+        System.arraycopy(other.player2Ids, 0, player2Ids, gamesCount, other.gamesCount);
+        System.arraycopy(other.errorCodes, 0, errorCodes, gamesCount, other.gamesCount);
+        System.arraycopy(other.errorPositions, 0, errorPositions, gamesCount, other.gamesCount);
+        for (int game = 1; game <= other.gamesCount; game++) {
+            gameOffsets[gamesCount + game] = statesCount + other.gameOffsets[game];
+        }
+        gamesCount += other.gamesCount;
+        statesCount += other.statesCount;
+    }
+
+    /**
+     * Removes every game, keeping the capacity of the columns.
+     */
+    public void clear() {
+        statesCount = 0;
+        gamesCount = 0;
+        gameOffsets[0] = 0;
+    }
+
+    /**
+     * @return the number of games.
+     */
+    public int getGamesCount() {
+        return gamesCount;
+    }
+
+    /**
+     * @return the number of states of all the games.
+     */
+    public int getStatesCount() {
+        return statesCount;
+    }
+
+    /**
+     * @return the number of states the columns hold before growing.
+     */
+    public int getStatesCapacity() {
+        return winnerSlots.length;
+    }
+
+    /**
+     * @param game the index of a game, or the number of games for the end of the
+     *             last one.
+     * @return the offset of the first state of the game in the columns.
+     */
+    public int getGameOffset(int game) {
+        return gameOffsets[game];
+    }
+
+    /**
+     * @return the winner slot column, meaningful up to
+     *         {@link #getStatesCount()}. The array is shared, not copied.
+     */
+    public byte[] getWinnerSlots() {
+        return winnerSlots;
+    }
+
+    /**
+     * @return the first player score ordinal column, meaningful up to
+     *         {@link #getStatesCount()}. The array is shared, not copied.
+     */
+    public byte[] getPlayer1ScoreOrdinals() {
+        return player1ScoreOrdinals;
+    }
+
+    /**
+     * @return the second player score ordinal column, meaningful up to
+     *         {@link #getStatesCount()}. The array is shared, not copied.
+     */
+    public byte[] getPlayer2ScoreOrdinals() {
+        return player2ScoreOrdinals;
+    }
+
+    /**
+     * @param game the index of a game.
+     * @return the identifier of the first player of the game.
+     */
+    public char getPlayer1Id(int game) {
+        return player1Ids[game];
+    }
+
+    /**
+     * @param game the index of a game.
+     * @return the identifier of the second player of the game.
+     */
+    public char getPlayer2Id(int game) {
+        return player2Ids[game];
+    }
+
+    /**
+     * @param game the index of a game.
+     * @return the reason why the game was rejected, or {@code null} for a valid
+     *         game.
+     */
+    public TennisGameErrorCode getErrorCode(int game) {
+        return errorCodes[game] == 0 ? null : ERROR_CODES[errorCodes[game] - 1];
+    }
+
+    /**
+     * @param game the index of a game.
+     * @return the zero based position in the history of the point which
+     *         rejected the game, or {@link TennisGameEvaluation#NO_ERROR_POSITION}
+     *         for a valid game.
+     */
+    public int getErrorPosition(int game) {
+        return errorPositions[game];
+    }
+
+    /**
+     * Builds the {@link TennisGameState}s of a game from the columns.
+     *
+     * @param game the index of a game.
+     * @return the states of the game, empty for a rejected game.
+     */
+    public List<TennisGameState> getGameStates(int game) {
+        List<TennisGameState> states = new ArrayList<>(gameOffsets[game + 1] - gameOffsets[game]);
+        for (int state = gameOffsets[game]; state < gameOffsets[game + 1]; state++) {
+            states.add(new TennisGameState(winnerSlots[state] == PLAYER1 ? player1Ids[game] : player2Ids[game],
+                    new TennisPlayer(player1Ids[game], SCORES[player1ScoreOrdinals[state]]),
+                    new TennisPlayer(player2Ids[game], SCORES[player2ScoreOrdinals[state]])));
+        }
+        return states;
+    }
+
+    private void ensureGamesCapacity(int capacity) {
+        if (capacity <= player1Ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, player1Ids.length * 2);
+        gameOffsets = Arrays.copyOf(gameOffsets, newCapacity + 1);
+        player1Ids = Arrays.copyOf(player1Ids, newCapacity);
+        player2Ids = Arrays.copyOf(player2Ids, newCapacity);
+        errorCodes = Arrays.copyOf(errorCodes, newCapacity);
+        errorPositions = Arrays.copyOf(errorPositions, newCapacity);
+    }
+
+    private void ensureStatesCapacity(int capacity) {
+        if (capacity <= winnerSlots.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, winnerSlots.length * 2);
+        winnerSlots = Arrays.copyOf(winnerSlots, newCapacity);
+        player1ScoreOrdinals = Arrays.copyOf(player1ScoreOrdinals, newCapacity);
+        player2ScoreOrdinals = Arrays.copyOf(player2ScoreOrdinals, newCapacity);
+    }
+}
@@ -0,0 +1,102 @@
+package kata.tennis.services;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameEvaluationSummary;
+import kata.tennis.domain.TennisGameHistoryResult;
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.domain.state.TennisGameStateColumns;
+
+/**
+ * This interface defines the service for processing many tennis game
+ * histories at once.
+ */
+public interface TennisGameBatchProcessorService {
+    /**
+     * Generates the game states of each of the given game histories.
+     *
+     * @param gameHistories the histories of the games to process.
+     * @return one {@link TennisGameHistoryResult} per history, in the iteration
+     *         order of the given collection, holding either the list of
+     *         {@link TennisGameState} of the game or the error raised while
+     *         processing it.
+     */
+    List<TennisGameHistoryResult<List<TennisGameState>>> generateGameStatesFromHistories(
+            Collection<String> gameHistories);
+
+    /**
+     * Generates the game states of each of the given game histories, handing
+     * each result over as soon as it and all the previous ones are ready,
+     * without keeping the whole batch.
+     *
+     * @param gameHistories  the histories of the games to process.
+     * @param resultConsumer the consumer receiving one
+     *                       {@link TennisGameHistoryResult} per history, in the
+     *                       iteration order of the given collection, holding
+     *                       either the list of {@link TennisGameState} of the
+     *                       game or the error raised while processing it.
+     */
+    void generateGameStatesFromHistories(Collection<String> gameHistories,
+            Consumer<TennisGameHistoryResult<List<TennisGameState>>> resultConsumer);
+
+    /**
+     * Generates the game states of each of the given game histories into
+     * primitive columns, three bytes per state, instead of lists of
+     * {@link TennisGameState}.
+     * <p>
+     * The columns come from a pool of buffers: once read, they should be given
+     * back with {@link #releaseGameStateColumns(TennisGameStateColumns)} to be
+     * reused by a later batch.
+     * </p>
+     *
+     * @param gameHistories the histories of the games to process.
+     * @return the {@link TennisGameStateColumns} holding one game per history,
+     *         in the iteration order of the given collection, a rejected history
+     *         having no states but its error code.
+     */
+    TennisGameStateColumns generateGameStateColumnsFromHistories(Collection<String> gameHistories);
+
+    /**
+     * Gives back columns returned by
+     * {@link #generateGameStateColumnsFromHistories(Collection)}, which must not
+     * be used anymore.
+     *
+     * @param columns the columns to reuse.
+     */
+    void releaseGameStateColumns(TennisGameStateColumns columns);
+
+    /**
+     * Evaluates the final outcome of each of the given game histories.
+     *
+     * @param gameHistories the histories of the games to evaluate.
+     * @return one {@link TennisGameHistoryResult} per history, in the iteration
+     *         order of the given collection, holding either the
+     *         {@link TennisGameOutcome} of the game or the error raised while
+     *         evaluating it.
+     */
+    List<TennisGameHistoryResult<TennisGameOutcome>> evaluateGameHistories(Collection<String> gameHistories);
+
+    /**
+     * Evaluates the final outcome of each of the given game histories without
+     * throwing, see
+     * {@link TennisGameHistoryProcessorService#tryEvaluateGameHistory(CharSequence)}.
+     *
+     * @param gameHistories the histories of the games to evaluate.
+     * @return one {@link TennisGameEvaluation} per history, in the iteration
+     *         order of the given collection.
+     */
+    List<TennisGameEvaluation> tryEvaluateGameHistories(Collection<String> gameHistories);
+
+    /**
+     * Evaluates the given game histories without throwing and only keeps their
+     * aggregated results.
+     *
+     * @param gameHistories the histories of the games to evaluate.
+     * @return the {@link TennisGameEvaluationSummary} of the batch.
+     */
+    TennisGameEvaluationSummary summarizeGameHistories(Collection<String> gameHistories);
+}
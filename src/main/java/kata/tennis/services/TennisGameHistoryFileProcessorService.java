@@ -0,0 +1,25 @@
+package kata.tennis.services;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import kata.tennis.domain.TennisGameHistoryLineResult;
+
+/**
+ * This interface defines the service for processing files of newline
+ * delimited tennis game histories.
+ */
+public interface TennisGameHistoryFileProcessorService {
+    /**
+     * Evaluates the outcome of every game history of the given file.
+     *
+     * @param gameHistoriesFile the file holding one game history per line.
+     * @param resultConsumer    the consumer receiving one
+     *                          {@link TennisGameHistoryLineResult} per line, in
+     *                          line order.
+     * @throws UncheckedIOException if the file could not be read.
+     */
+    void evaluateGameHistoryFile(Path gameHistoriesFile, Consumer<TennisGameHistoryLineResult> resultConsumer)
+            throws UncheckedIOException;
+}
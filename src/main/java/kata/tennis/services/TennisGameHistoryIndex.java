@@ -0,0 +1,38 @@
+package kata.tennis.services;
+
+import java.util.List;
+
+import kata.tennis.domain.state.TennisGameState;
+
+/**
+ * This interface defines a random access index over the states of a processed
+ * game history.
+ */
+public interface TennisGameHistoryIndex {
+    /**
+     * @return the number of points of the indexed history.
+     */
+    int getPointsCount();
+
+    /**
+     * Returns the state of the game once the given point is played, as the
+     * element at the same position of
+     * {@link TennisGameHistoryProcessorService#generateGameStatesFromHistory(String)}.
+     *
+     * @param point the position of the point in the history, starting at zero.
+     * @return the {@link TennisGameState} following the point.
+     * @throws IndexOutOfBoundsException if the point is not in the history.
+     */
+    TennisGameState getGameStateAt(int point) throws IndexOutOfBoundsException;
+
+    /**
+     * Returns the states of the game following the points of the given slice of
+     * the history, computed as they are read.
+     *
+     * @param fromPoint the position of the first point, inclusive.
+     * @param toPoint   the position of the last point, exclusive.
+     * @return an unmodifiable view of the {@link TennisGameState} of the slice.
+     * @throws IndexOutOfBoundsException if the slice is not in the history.
+     */
+    List<TennisGameState> getGameStates(int fromPoint, int toPoint) throws IndexOutOfBoundsException;
+}
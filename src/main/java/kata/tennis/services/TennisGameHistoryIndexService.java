@@ -0,0 +1,24 @@
+package kata.tennis.services;
+
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * This interface defines the service indexing game histories for random access
+ * to their states.
+ */
+public interface TennisGameHistoryIndexService {
+    /**
+     * Processes the given game history once and indexes its states.
+     *
+     * @param gameHistory the history of the game, it must not change while the
+     *                    index is in use.
+     * @return the {@link TennisGameHistoryIndex} of the history.
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     * @throws GameAlreadyFinishedException     if the game history indicates that
+     *                                          the game has already finished.
+     */
+    TennisGameHistoryIndex indexGameHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException;
+}
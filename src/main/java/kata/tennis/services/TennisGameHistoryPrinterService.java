@@ -2,6 +2,7 @@ package kata.tennis.services;
 
 import java.util.List;
 
+import kata.tennis.domain.TennisGameOutcome;
 import kata.tennis.domain.state.TennisGameState;
 
 /**
@@ -17,4 +18,12 @@ public interface TennisGameHistoryPrinterService {
      *                         which will be printed.
      */
     public void printScoreFromGameStates(List<TennisGameState> tennisGameStates);
+
+    /**
+     * Prints the final outcome of a game: its winner, or the final score if the
+     * game is not finished.
+     *
+     * @param tennisGameOutcome the outcome of the game to print.
+     */
+    public void printGameOutcome(TennisGameOutcome tennisGameOutcome);
 }
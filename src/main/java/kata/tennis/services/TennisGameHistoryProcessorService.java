@@ -1,7 +1,12 @@
 package kata.tennis.services;
 
+import java.io.Reader;
 import java.util.List;
+import java.util.stream.Stream;
 
+import kata.tennis.domain.TennisGameErrorCode;
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameOutcome;
 import kata.tennis.domain.state.TennisGameState;
 import kata.tennis.services.exceptions.GameAlreadyFinishedException;
 import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
@@ -26,4 +31,68 @@ public interface TennisGameHistoryProcessorService {
      */
     List<TennisGameState> generateGameStatesFromHistory(String gameHistory)
             throws UnsupportedPlayersCountException, GameAlreadyFinishedException;
+
+    /**
+     * Lazily streams the game states of the given game history, reading it in a
+     * single pass.
+     * <p>
+     * Unlike {@link #generateGameStatesFromHistory(String)}, the history is not
+     * validated up front: the states preceding an invalid point are emitted, and
+     * the error is raised when the offending point is reached.
+     * </p>
+     *
+     * @param gameHistory the history of the game.
+     * @return an ordered, sequential {@link Stream} of the states of the game.
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     * @throws GameAlreadyFinishedException     if the game history indicates that
+     *                                          the game has already finished.
+     */
+    Stream<TennisGameState> streamGameStatesFromHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException;
+
+    /**
+     * Lazily streams the game states of the game history read from the given
+     * reader, in a single pass and with bounded memory.
+     * <p>
+     * The reader is not closed by this method.
+     * </p>
+     *
+     * @param gameHistory the reader of the history of the game.
+     * @return an ordered, sequential {@link Stream} of the states of the game.
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     * @throws GameAlreadyFinishedException     if the game history indicates that
+     *                                          the game has already finished.
+     * @see #streamGameStatesFromHistory(CharSequence)
+     */
+    Stream<TennisGameState> streamGameStatesFromHistory(Reader gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException;
+
+    /**
+     * Evaluates the given game history and returns only its final outcome,
+     * without keeping any of the intermediate game states.
+     *
+     * @param gameHistory the history of the game.
+     * @return the {@link TennisGameOutcome} of the game.
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     * @throws GameAlreadyFinishedException     if the game history indicates that
+     *                                          the game has already finished.
+     */
+    TennisGameOutcome evaluateGameHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException;
+
+    /**
+     * Evaluates the given game history like
+     * {@link #evaluateGameHistory(CharSequence)}, but reports an invalid history
+     * with a {@link TennisGameErrorCode} and the position of the offending point
+     * instead of throwing, so that rejecting routine invalid input costs no
+     * exception.
+     *
+     * @param gameHistory the history of the game.
+     * @return the {@link TennisGameEvaluation} holding either the outcome of the
+     *         game or its error.
+     */
+    TennisGameEvaluation tryEvaluateGameHistory(CharSequence gameHistory);
 }
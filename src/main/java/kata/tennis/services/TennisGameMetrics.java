@@ -0,0 +1,89 @@
+package kata.tennis.services;
+
+/**
+ * This interface defines the recorder of the metrics of the services scoring
+ * and printing tennis games.
+ * <p>
+ * Services check {@link #isEnabled()} before measuring anything, so that the
+ * {@link #NOOP} metrics cost nothing on the scoring path.
+ * </p>
+ */
+public interface TennisGameMetrics {
+    /**
+     * Stages of the processing of a game, each with its own metrics.
+     */
+    enum Stage {
+        RUNNER("runner"),
+        PROCESSOR("processor"),
+        TRANSITION("transition"),
+        PRINTER("printer");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * Metrics discarding everything they are given.
+     */
+    TennisGameMetrics NOOP = new TennisGameMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordPoints(Stage stage, long pointsCount) {
+            // disabled
+        }
+
+        @Override
+        public void recordGame(Stage stage, long pointsCount, long latencyNanos) {
+            // disabled
+        }
+
+        @Override
+        public void recordError(Stage stage, RuntimeException error) {
+            // disabled
+        }
+    };
+
+    /**
+     * @return whether the metrics are recorded, services skip their measures
+     *         otherwise.
+     */
+    boolean isEnabled();
+
+    /**
+     * Counts points handled by the given stage outside of any game, such as
+     * single state transitions.
+     *
+     * @param stage       the stage the points were handled by.
+     * @param pointsCount the number of points.
+     */
+    void recordPoints(Stage stage, long pointsCount);
+
+    /**
+     * Counts a game handled by the given stage, with its points, and records how
+     * long it took.
+     *
+     * @param stage        the stage the game was handled by.
+     * @param pointsCount  the number of points of the game.
+     * @param latencyNanos the time the stage spent on the game, in nanoseconds.
+     */
+    void recordGame(Stage stage, long pointsCount, long latencyNanos);
+
+    /**
+     * Counts an error raised by the given stage, by exception type.
+     *
+     * @param stage the stage the error was raised by.
+     * @param error the error.
+     */
+    void recordError(Stage stage, RuntimeException error);
+}
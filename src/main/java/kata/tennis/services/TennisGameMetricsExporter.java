@@ -0,0 +1,26 @@
+package kata.tennis.services;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * This interface defines the publication of recorded {@link TennisGameMetrics}
+ * to a monitoring system.
+ */
+public interface TennisGameMetricsExporter extends Closeable {
+    /**
+     * Publishes the current values of the metrics.
+     *
+     * @throws UncheckedIOException if the metrics could not be published.
+     */
+    void export() throws UncheckedIOException;
+
+    /**
+     * Stops any periodic publication, then publishes the final values of the
+     * metrics.
+     *
+     * @throws UncheckedIOException if the metrics could not be published.
+     */
+    @Override
+    void close() throws UncheckedIOException;
+}
@@ -0,0 +1,65 @@
+package kata.tennis.services;
+
+import java.time.Duration;
+
+/**
+ * Policy deciding when a {@link TennisGameOutputSink} writes its buffered lines
+ * to the underlying destination.
+ * <p>
+ * Besides the policy, a sink always writes its buffer once it is full.
+ * </p>
+ *
+ * @param mode      when the sink is flushed.
+ * @param threshold the number of buffered bytes for {@link Mode#BY_SIZE}, or
+ *                  the number of nanoseconds since the last flush for
+ *                  {@link Mode#BY_TIME}; unused by the other modes.
+ */
+public record TennisGameOutputFlushPolicy(Mode mode, long threshold) {
+    public enum Mode {
+        PER_LINE,
+        PER_GAME,
+        BY_SIZE,
+        BY_TIME
+    }
+
+    public static TennisGameOutputFlushPolicy perLine() {
+        return new TennisGameOutputFlushPolicy(Mode.PER_LINE, 0);
+    }
+
+    public static TennisGameOutputFlushPolicy perGame() {
+        return new TennisGameOutputFlushPolicy(Mode.PER_GAME, 0);
+    }
+
+    public static TennisGameOutputFlushPolicy bySize(long bytes) {
+        return new TennisGameOutputFlushPolicy(Mode.BY_SIZE, bytes);
+    }
+
+    public static TennisGameOutputFlushPolicy byTime(Duration interval) {
+        return new TennisGameOutputFlushPolicy(Mode.BY_TIME, interval.toNanos());
+    }
+
+    /**
+     * Parses a policy from its command line form: {@code line}, {@code game},
+     * {@code size=<bytes>} or {@code time=<milliseconds>}.
+     *
+     * @param policy the policy to parse.
+     * @return the parsed policy.
+     * @throws IllegalArgumentException if the policy is not supported.
+     */
+    public static TennisGameOutputFlushPolicy parse(String policy) throws IllegalArgumentException {
+        if (policy.equals("line")) {
+            return perLine();
+        }
+        if (policy.equals("game")) {
+            return perGame();
+        }
+        if (policy.startsWith("size=")) {
+            return bySize(Long.parseLong(policy.substring("size=".length())));
+        }
+        if (policy.startsWith("time=")) {
+            return byTime(Duration.ofMillis(Long.parseLong(policy.substring("time=".length()))));
+        }
+        throw new IllegalArgumentException(String.format(
+                "'%s' not supported, should be one of line, game, size=<bytes> or time=<milliseconds>", policy));
+    }
+}
@@ -0,0 +1,44 @@
+package kata.tennis.services;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * This interface defines the destination the printed lines of tennis games
+ * are written to.
+ * <p>
+ * Lines are buffered by the sink and flushed to the underlying destination
+ * according to its {@link TennisGameOutputFlushPolicy}.
+ * </p>
+ */
+public interface TennisGameOutputSink extends Closeable {
+    /**
+     * Writes one encoded line, line separator included.
+     *
+     * @param line the encoded line.
+     * @throws UncheckedIOException if the line could not be written.
+     */
+    void writeLine(byte[] line) throws UncheckedIOException;
+
+    /**
+     * Signals that all the lines of the current game were written.
+     *
+     * @throws UncheckedIOException if the buffered lines could not be written.
+     */
+    void endGame() throws UncheckedIOException;
+
+    /**
+     * Writes every buffered line to the underlying destination.
+     *
+     * @throws UncheckedIOException if the buffered lines could not be written.
+     */
+    void flush() throws UncheckedIOException;
+
+    /**
+     * Flushes the buffered lines and closes the underlying destination.
+     *
+     * @throws UncheckedIOException if the sink could not be closed.
+     */
+    @Override
+    void close() throws UncheckedIOException;
+}
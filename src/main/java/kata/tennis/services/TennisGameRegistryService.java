@@ -0,0 +1,64 @@
+package kata.tennis.services;
+
+import java.util.Optional;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnknownMatchException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * This interface defines a registry of live tennis games identified by their
+ * match identifier, to which points may be submitted concurrently.
+ */
+public interface TennisGameRegistryService {
+    /**
+     * Opens a new live game between the two given players.
+     *
+     * @param matchId   the identifier of the match.
+     * @param player1Id the identifier of one player.
+     * @param player2Id the identifier of the other player.
+     * @return the initial {@link TennisGameState} of the game.
+     * @throws UnsupportedPlayersCountException if both player identifiers are the
+     *                                          same.
+     * @throws IllegalStateException            if a game is already open for the
+     *                                          match.
+     */
+    TennisGameState openGame(String matchId, Character player1Id, Character player2Id)
+            throws UnsupportedPlayersCountException;
+
+    /**
+     * Applies a point won by the given player to the game of the given match.
+     *
+     * @param matchId  the identifier of the match.
+     * @param winnerId the identifier of the player who won the point.
+     * @return the new {@link TennisGameState} of the game.
+     * @throws UnknownMatchException            if no game is open for the match.
+     * @throws GameAlreadyFinishedException     if the game has already finished.
+     * @throws UnsupportedPlayersCountException if the point winner is not one of
+     *                                          the players of the game.
+     */
+    TennisGameState submitPoint(String matchId, Character winnerId)
+            throws UnknownMatchException, GameAlreadyFinishedException, UnsupportedPlayersCountException;
+
+    /**
+     * @param matchId the identifier of the match.
+     * @return the current {@link TennisGameState} of the game of the match, if
+     *         one is open.
+     */
+    Optional<TennisGameState> getGameState(String matchId);
+
+    /**
+     * Removes the game of the given match from the registry.
+     *
+     * @param matchId the identifier of the match.
+     * @return the last {@link TennisGameState} of the removed game, if one was
+     *         open.
+     */
+    Optional<TennisGameState> closeGame(String matchId);
+
+    /**
+     * @return the number of games currently open.
+     */
+    int getGamesCount();
+}
@@ -0,0 +1,42 @@
+package kata.tennis.services;
+
+import java.util.Optional;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * This interface defines a live tennis game, to which points are submitted
+ * one at a time as they are played.
+ */
+public interface TennisGameSession {
+    /**
+     * Applies a point won by the given player to the game.
+     *
+     * @param winnerId the identifier of the player who won the point.
+     * @return the new {@link TennisGameState} of the game.
+     * @throws GameAlreadyFinishedException     if the game has already finished.
+     * @throws UnsupportedPlayersCountException if the point winner is not one of
+     *                                          the players of the game.
+     */
+    TennisGameState submitPoint(Character winnerId)
+            throws GameAlreadyFinishedException, UnsupportedPlayersCountException;
+
+    /**
+     * @return the current {@link TennisGameState} of the game, the initial state
+     *         if no point was played yet.
+     */
+    TennisGameState getCurrentState();
+
+    /**
+     * @return the winner of the game, if it is finished.
+     */
+    Optional<TennisPlayer> getWinner();
+
+    /**
+     * @return the number of points played so far.
+     */
+    int getPointsCount();
+}
@@ -0,0 +1,18 @@
+package kata.tennis.services;
+
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * This interface defines the service opening live tennis games.
+ */
+public interface TennisGameSessionService {
+    /**
+     * Opens a new live game between the two given players.
+     *
+     * @param player1Id the identifier of one player.
+     * @param player2Id the identifier of the other player.
+     * @return the new {@link TennisGameSession}, with no point played.
+     * @throws UnsupportedPlayersCountException if both identifiers are the same.
+     */
+    TennisGameSession openGame(Character player1Id, Character player2Id) throws UnsupportedPlayersCountException;
+}
@@ -1,5 +1,6 @@
 package kata.tennis.services;
 
+import kata.tennis.domain.TennisScore;
 import kata.tennis.domain.state.TennisScoreState;
 import kata.tennis.services.exceptions.UnsupportedGameStatusException;
 
@@ -16,4 +17,22 @@ public interface TennisScoreStateService {
      *         state of the game.
      */
     TennisScoreState getNextScoreState(TennisScoreState currentScoreState) throws UnsupportedGameStatusException;
+
+    /**
+     * Determines the next score state of the game based on the current scores of
+     * the point winner and the point loser.
+     * <p>
+     * Implementations able to resolve a score state without building an
+     * intermediate {@link TennisScoreState} should override this method.
+     * </p>
+     *
+     * @param winnerScore the current score of the player who won the point.
+     * @param loserScore  the current score of the player who lost the point.
+     * @return the next {@link TennisScoreState} representing the updated score
+     *         state of the game.
+     */
+    default TennisScoreState getNextScoreState(TennisScore winnerScore, TennisScore loserScore)
+            throws UnsupportedGameStatusException {
+        return getNextScoreState(new TennisScoreState(winnerScore, loserScore));
+    }
 }
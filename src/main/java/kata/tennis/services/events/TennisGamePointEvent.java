@@ -0,0 +1,72 @@
+package kata.tennis.services.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import kata.tennis.domain.state.TennisGameState;
+
+/**
+ * Java Flight Recorder event of a point applied to a game.
+ * <p>
+ * One event per point is far too many for continuous profiling, so the event
+ * is disabled by default: it is meant to be turned on for a short recording,
+ * with a settings file enabling {@code kata.tennis.GamePoint}, to sample the
+ * scores around a latency spike.
+ * </p>
+ */
+@Name("kata.tennis.GamePoint")
+@Label("Tennis Game Point")
+@Category("Tennis Kata")
+@Description("A point applied to a game")
+@Enabled(false)
+@StackTrace(false)
+public final class TennisGamePointEvent extends Event {
+    @Label("Point Winner")
+    private char pointWinnerId;
+
+    @Label("Player 1")
+    private char player1Id;
+
+    @Label("Player 1 Score")
+    private String player1Score;
+
+    @Label("Player 2")
+    private char player2Id;
+
+    @Label("Player 2 Score")
+    private String player2Score;
+
+    /**
+     * Tells whether the event is enabled in a running recording, so that the
+     * scoring hot path does not even allocate it otherwise. The event type is
+     * only registered once the Flight Recorder is initialized.
+     *
+     * @return whether the event is enabled.
+     */
+    public static boolean isTypeEnabled() {
+        return FlightRecorder.isInitialized() && Type.EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Describes the point with the state of the game it led to.
+     *
+     * @param gameState the state of the game after the point.
+     */
+    public void describe(TennisGameState gameState) {
+        pointWinnerId = gameState.currentWinnerId();
+        player1Id = gameState.player1().id();
+        player1Score = gameState.player1().tennisScore().name();
+        player2Id = gameState.player2().id();
+        player2Score = gameState.player2().tennisScore().name();
+    }
+
+    private static final class Type {
+        static final EventType EVENT_TYPE = EventType.getEventType(TennisGamePointEvent.class);
+    }
+}
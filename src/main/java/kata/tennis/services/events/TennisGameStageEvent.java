@@ -0,0 +1,106 @@
+package kata.tennis.services.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import kata.tennis.domain.state.TennisGameState;
+
+/**
+ * Java Flight Recorder event of a stage of the scoring of a game history:
+ * the detection of its players, the generation of its states or their
+ * printing.
+ * <p>
+ * The duration of the event is the duration of the stage. Stages of a same
+ * history are committed by the same thread, once the outcome of the history is
+ * known, so that they can be correlated with the garbage collections and the
+ * I/O recorded meanwhile. The event is enabled by default, but only allocated
+ * while a recording is running.
+ * </p>
+ */
+@Name("kata.tennis.GameStage")
+@Label("Tennis Game Stage")
+@Category("Tennis Kata")
+@Description("A stage of the scoring of a game history")
+@StackTrace(false)
+public final class TennisGameStageEvent extends Event {
+    public static final String PLAYER_DETECTION = "player detection";
+    public static final String STATE_GENERATION = "state generation";
+    public static final String PRINTING = "printing";
+    /**
+     * Outcome of a history whose game is not won yet.
+     */
+    public static final String IN_PROGRESS = "in progress";
+
+    @Label("Stage")
+    private final String stage;
+
+    @Label("History Length")
+    @Description("The number of points of the history")
+    private int historyLength;
+
+    @Label("Player 1")
+    private char player1Id;
+
+    @Label("Player 2")
+    private char player2Id;
+
+    @Label("Outcome")
+    @Description("The winner of the game, in progress, or the error rejecting the history")
+    private String outcome;
+
+    /**
+     * Constructs the event of the given stage.
+     *
+     * @param stage one of {@link #PLAYER_DETECTION}, {@link #STATE_GENERATION}
+     *              and {@link #PRINTING}.
+     */
+    public TennisGameStageEvent(String stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Tells whether the event is enabled in a running recording, so that the
+     * scoring hot path does not even allocate it otherwise. The event type is
+     * only registered once the Flight Recorder is initialized.
+     *
+     * @return whether the event is enabled.
+     */
+    public static boolean isTypeEnabled() {
+        return FlightRecorder.isInitialized() && Type.EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Describes the history this stage belongs to with its last game state.
+     *
+     * @param gameHistory   the history.
+     * @param lastGameState the last state of the game.
+     */
+    public void describe(CharSequence gameHistory, TennisGameState lastGameState) {
+        historyLength = gameHistory.length();
+        player1Id = lastGameState.player1().id();
+        player2Id = lastGameState.player2().id();
+        outcome = lastGameState.winner()
+                .map(winner -> String.format("Player %c wins the game", winner.id()))
+                .orElse(IN_PROGRESS);
+    }
+
+    /**
+     * Describes the history this stage belongs to with the error rejecting it.
+     *
+     * @param gameHistory the history.
+     * @param error       the error rejecting the history.
+     */
+    public void describe(CharSequence gameHistory, RuntimeException error) {
+        historyLength = gameHistory.length();
+        outcome = error.getClass().getSimpleName();
+    }
+
+    private static final class Type {
+        static final EventType EVENT_TYPE = EventType.getEventType(TennisGameStageEvent.class);
+    }
+}
@@ -0,0 +1,7 @@
+package kata.tennis.services.exceptions;
+
+public class UnknownMatchException extends IllegalArgumentException {
+    public UnknownMatchException(String message) {
+        super(message);
+    }
+}
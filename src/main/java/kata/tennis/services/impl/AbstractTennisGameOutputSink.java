@@ -0,0 +1,170 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
+
+/**
+ * Base {@link TennisGameOutputSink} applying a
+ * {@link TennisGameOutputFlushPolicy} over a fixed capacity buffer.
+ * <p>
+ * The time based policy is checked whenever a line is written or a game ends,
+ * and by a daemon thread owned by the sink, so that the tail of an idle live
+ * feed is flushed as well. The sink is therefore synchronized, and stops its
+ * thread when closed.
+ * </p>
+ * <p>
+ * A failed write keeps the buffered lines, to be written again by the next
+ * flush. When the flush of the daemon thread fails, its error is rethrown to
+ * the writing thread by its next call to the sink.
+ * </p>
+ */
+public abstract class AbstractTennisGameOutputSink implements TennisGameOutputSink {
+    private final TennisGameOutputFlushPolicy flushPolicy;
+    private final ScheduledExecutorService scheduler;
+    private long lastFlushNanos = System.nanoTime();
+    private UncheckedIOException timerFailure;
+
+    protected AbstractTennisGameOutputSink(TennisGameOutputFlushPolicy flushPolicy) {
+        this.flushPolicy = flushPolicy;
+        if (flushPolicy.mode() == TennisGameOutputFlushPolicy.Mode.BY_TIME && flushPolicy.threshold() > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tennis-game-output-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // a failing flush is kept for the writing thread, the task goes on and retries
+            this.scheduler.scheduleAtFixedRate(this::flushIfDue, flushPolicy.threshold(), flushPolicy.threshold(),
+                    TimeUnit.NANOSECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized void writeLine(byte[] line) throws UncheckedIOException {
+        checkTimerFailure();
+        try {
+            if (line.length > remaining()) {
+                drain();
+                if (line.length > remaining()) {
+                    writeDirectly(line);
+                    return;
+                }
+            }
+            buffer(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (flushPolicy.mode() == TennisGameOutputFlushPolicy.Mode.PER_LINE || isThresholdReached()) {
+            flushBuffer();
+        }
+    }
+
+    @Override
+    public synchronized void endGame() throws UncheckedIOException {
+        checkTimerFailure();
+        if (flushPolicy.mode() == TennisGameOutputFlushPolicy.Mode.PER_GAME || isThresholdReached()) {
+            flushBuffer();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws UncheckedIOException {
+        checkTimerFailure();
+        flushBuffer();
+    }
+
+    @Override
+    public synchronized void close() throws UncheckedIOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        try {
+            flush();
+        } finally {
+            try {
+                closeDestination();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flushBuffer() throws UncheckedIOException {
+        try {
+            drain();
+            flushDestination();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lastFlushNanos = System.nanoTime();
+    }
+
+    private synchronized void flushIfDue() {
+        if (buffered() > 0 && isThresholdReached()) {
+            try {
+                flushBuffer();
+            } catch (UncheckedIOException e) {
+                if (timerFailure == null) {
+                    timerFailure = e;
+                }
+            }
+        }
+    }
+
+    private void checkTimerFailure() throws UncheckedIOException {
+        UncheckedIOException failure = timerFailure;
+        if (failure != null) {
+            timerFailure = null;
+            throw new UncheckedIOException("time based flush failed", failure.getCause());
+        }
+    }
+
+    private boolean isThresholdReached() {
+        return switch (flushPolicy.mode()) {
+            case BY_SIZE -> buffered() >= flushPolicy.threshold();
+            case BY_TIME -> System.nanoTime() - lastFlushNanos >= flushPolicy.threshold();
+            default -> false;
+        };
+    }
+
+    /**
+     * @return the number of bytes the buffer can still hold.
+     */
+    protected abstract int remaining();
+
+    /**
+     * @return the number of buffered bytes.
+     */
+    protected abstract int buffered();
+
+    /**
+     * Appends the line to the buffer, which has enough room for it.
+     */
+    protected abstract void buffer(byte[] line);
+
+    /**
+     * Writes the buffered bytes to the destination and empties the buffer, or
+     * keeps the bytes which could not be written.
+     */
+    protected abstract void drain() throws IOException;
+
+    /**
+     * Writes a line larger than the buffer straight to the destination, the
+     * buffer being empty.
+     */
+    protected abstract void writeDirectly(byte[] line) throws IOException;
+
+    /**
+     * Flushes the destination itself, if it buffers on its own.
+     */
+    protected abstract void flushDestination() throws IOException;
+
+    protected abstract void closeDestination() throws IOException;
+}
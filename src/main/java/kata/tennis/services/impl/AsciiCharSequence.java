@@ -0,0 +1,62 @@
+package kata.tennis.services.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link CharSequence} view over a range of ASCII bytes of a
+ * {@link ByteBuffer}.
+ * <p>
+ * The view is mutable so that a single instance can walk every line of a
+ * buffer without copying the bytes into {@link String}s.
+ * </p>
+ */
+final class AsciiCharSequence implements CharSequence {
+    private final ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    AsciiCharSequence(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    AsciiCharSequence(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    AsciiCharSequence reset(int offset, int length) {
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(start);
+        }
+        return new AsciiCharSequence(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
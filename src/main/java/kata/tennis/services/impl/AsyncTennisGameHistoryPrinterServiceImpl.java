@@ -0,0 +1,251 @@
+package kata.tennis.services.impl;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameMetrics.Stage;
+
+/**
+ * Asynchronous implementation of {@link TennisGameHistoryPrinterService}
+ * decoupling the scoring thread from the output.
+ * <p>
+ * The printing thread only publishes states and outcomes into a preallocated
+ * single producer ring buffer. A dedicated writer thread drains the ring,
+ * renders and writes the lines through a
+ * {@link TennisGameHistoryPrinterServiceImpl}. When the writer falls behind
+ * and the ring is full, publishing blocks until room is available: this is the
+ * back-pressure applied to the scoring path, counted by
+ * {@link #getStallsCount()}. An idle writer thread parks until the ring goes
+ * from empty to non-empty, so it costs no CPU between bursts.
+ * </p>
+ * <p>
+ * The printer stage of the metrics of the wrapped printer is recorded by the
+ * writer thread: the points of each game, the time spent rendering and writing
+ * its lines, and the error stopping the writer.
+ * </p>
+ * <p>
+ * Printing methods are serialized so that the ring always has a single
+ * producer. {@link #close()} must be called to drain the ring and stop the
+ * writer thread.
+ * </p>
+ */
+public class AsyncTennisGameHistoryPrinterServiceImpl implements TennisGameHistoryPrinterService, AutoCloseable {
+    /**
+     * Default capacity of the ring buffer, in published entries.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final Object END_OF_GAME = new Object();
+    private static final long WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final TennisGameHistoryPrinterServiceImpl tennisGameHistoryPrinterService;
+    private final Object[] ring;
+    private final int mask;
+    // next slot to publish, only written by the producer
+    private final AtomicLong tail = new AtomicLong();
+    // next slot to drain, only written by the writer thread
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder stalls = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile RuntimeException failure;
+
+    /**
+     * Constructs a new instance of {@code AsyncTennisGameHistoryPrinterServiceImpl}
+     * and starts its writer thread.
+     *
+     * @param tennisGameHistoryPrinterService the printer used by the writer thread
+     *                                        to render and write the lines.
+     * @param capacity                        the capacity of the ring buffer,
+     *                                        rounded up to a power of two.
+     */
+    public AsyncTennisGameHistoryPrinterServiceImpl(TennisGameHistoryPrinterServiceImpl tennisGameHistoryPrinterService,
+            int capacity) {
+        this.tennisGameHistoryPrinterService = tennisGameHistoryPrinterService;
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ring = new Object[size];
+        this.mask = size - 1;
+        this.writer = new Thread(this::drain, "tennis-game-printer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Constructs a new instance of {@code AsyncTennisGameHistoryPrinterServiceImpl}
+     * with a ring of {@link #DEFAULT_CAPACITY} entries.
+     *
+     * @param tennisGameHistoryPrinterService the printer used by the writer thread
+     *                                        to render and write the lines.
+     */
+    public AsyncTennisGameHistoryPrinterServiceImpl(
+            TennisGameHistoryPrinterServiceImpl tennisGameHistoryPrinterService) {
+        this(tennisGameHistoryPrinterService, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation publishes the states to the writer thread and returns
+     * as soon as they are all in the ring buffer.
+     * </p>
+     *
+     * @throws IllegalStateException if the printer is closed.
+     * @throws RuntimeException      the failure of the writer thread, if any.
+     */
+    @Override
+    public synchronized void printScoreFromGameStates(List<TennisGameState> tennisGameStates) {
+        for (var tennisGameState : tennisGameStates) {
+            publish(tennisGameState);
+        }
+        publish(END_OF_GAME);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation publishes the outcome to the writer thread and returns
+     * as soon as it is in the ring buffer.
+     * </p>
+     *
+     * @throws IllegalStateException if the printer is closed.
+     * @throws RuntimeException      the failure of the writer thread, if any.
+     */
+    @Override
+    public synchronized void printGameOutcome(TennisGameOutcome tennisGameOutcome) {
+        publish(tennisGameOutcome);
+        publish(END_OF_GAME);
+    }
+
+    /**
+     * Returns how many times publishing had to wait for the writer thread.
+     *
+     * @return the number of stalls of the producer.
+     */
+    public long getStallsCount() {
+        return stalls.sum();
+    }
+
+    /**
+     * Waits for the writer thread to print everything published so far, and
+     * flushes the output.
+     */
+    public synchronized void flush() {
+        long published = tail.get();
+        while (head.get() < published) {
+            checkWriter();
+            LockSupport.parkNanos(WAIT_PARK_NANOS);
+        }
+        checkWriter();
+        synchronized (tennisGameHistoryPrinterService) {
+            tennisGameHistoryPrinterService.flush();
+        }
+    }
+
+    /**
+     * Drains the ring buffer, stops the writer thread and flushes the output.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkWriter();
+        tennisGameHistoryPrinterService.flush();
+    }
+
+    private void publish(Object entry) {
+        if (closed) {
+            throw new IllegalStateException("printer is closed");
+        }
+        checkWriter();
+        long slot = tail.get();
+        if (slot - head.get() == ring.length) {
+            stalls.increment();
+            do {
+                checkWriter();
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+            } while (slot - head.get() == ring.length);
+        }
+        ring[(int) slot & mask] = entry;
+        // the volatile writes of both indices keep the writer from parking on
+        // an entry published while it found the ring empty
+        tail.set(slot + 1);
+        if (slot == head.get()) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void checkWriter() {
+        RuntimeException writerFailure = failure;
+        if (writerFailure != null) {
+            throw writerFailure;
+        }
+    }
+
+    /**
+     * Writer thread loop, rendering the published entries until the printer is
+     * closed and the ring is empty.
+     */
+    private void drain() {
+        TennisGameMetrics metrics = tennisGameHistoryPrinterService.getMetrics();
+        long gamePoints = 0;
+        long gameNanos = 0;
+        try {
+            while (true) {
+                long slot = head.get();
+                if (slot == tail.get()) {
+                    if (closed && slot == tail.get()) {
+                        return;
+                    }
+                    // woken up by the next publication or by closing
+                    LockSupport.park(this);
+                    continue;
+                }
+                int index = (int) slot & mask;
+                Object entry = ring[index];
+                ring[index] = null;
+                long start = metrics.isEnabled() ? System.nanoTime() : 0;
+                synchronized (tennisGameHistoryPrinterService) {
+                    if (entry == END_OF_GAME) {
+                        tennisGameHistoryPrinterService.endGame();
+                    } else if (entry instanceof TennisGameState tennisGameState) {
+                        tennisGameHistoryPrinterService.print(tennisGameState);
+                        gamePoints++;
+                    } else {
+                        TennisGameOutcome tennisGameOutcome = (TennisGameOutcome) entry;
+                        tennisGameHistoryPrinterService.print(tennisGameOutcome);
+                        gamePoints += tennisGameOutcome.pointsCount();
+                    }
+                }
+                if (metrics.isEnabled()) {
+                    gameNanos += System.nanoTime() - start;
+                    if (entry == END_OF_GAME) {
+                        metrics.recordGame(Stage.PRINTER, gamePoints, gameNanos);
+                        gamePoints = 0;
+                        gameNanos = 0;
+                    }
+                } else if (entry == END_OF_GAME) {
+                    gamePoints = 0;
+                }
+                head.set(slot + 1);
+            }
+        } catch (RuntimeException e) {
+            metrics.recordError(Stage.PRINTER, e);
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package kata.tennis.services.impl;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.stream.Stream;
+
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.events.TennisGameStageEvent;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Implementation of {@link TennisGameHistoryProcessorService} caching the
+ * states of the short histories it processes in a
+ * {@link TennisGameHistoryCache}.
+ * <p>
+ * Histories are looked up by their canonical form, so that a history repeated
+ * with other players is a hit as well. A hit skips the generation of the
+ * states: the cached pool indices are bound to the pool of the actual players,
+ * and the returned list of states is rendered by
+ * {@link TennisGameHistoryPrinterServiceImpl} straight from them. Hits and
+ * misses are recorded to the metrics and as {@link TennisGameStageEvent}s as
+ * any processing.
+ * </p>
+ * <p>
+ * Only valid histories are cached. Invalid histories, histories longer than
+ * {@link TennisGameHistoryCache#MAX_HISTORY_LENGTH} and streamed histories are
+ * processed by a {@link TennisGameHistoryProcessorServiceImpl} following the
+ * same rules, so that results and errors are the same.
+ * </p>
+ */
+public class CachingTennisGameHistoryProcessorServiceImpl implements TennisGameHistoryProcessorService {
+    private final TennisGameStatePoolServiceImpl tennisGameStatePoolService;
+    private final TennisGameHistoryProcessorService tennisGameHistoryProcessorService;
+    private final TennisGameHistoryCache cache;
+    private final TennisGameMetrics metrics;
+
+    /**
+     * Constructs a new instance of
+     * {@code CachingTennisGameHistoryProcessorServiceImpl}.
+     *
+     * @param tennisGameStatePoolService the service providing the game rules and
+     *                                   the pools of game states.
+     * @param cache                      the cache of the states of the
+     *                                   histories, which may be shared.
+     * @param metrics                    the metrics the games are recorded to.
+     */
+    public CachingTennisGameHistoryProcessorServiceImpl(TennisGameStatePoolServiceImpl tennisGameStatePoolService,
+            TennisGameHistoryCache cache, TennisGameMetrics metrics) {
+        this.tennisGameStatePoolService = tennisGameStatePoolService;
+        this.tennisGameHistoryProcessorService = new TennisGameHistoryProcessorServiceImpl(tennisGameStatePoolService,
+                metrics);
+        this.cache = cache;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Constructs a new instance of
+     * {@code CachingTennisGameHistoryProcessorServiceImpl} without metrics.
+     *
+     * @param tennisGameStatePoolService the service providing the game rules and
+     *                                   the pools of game states.
+     * @param cache                      the cache of the states of the
+     *                                   histories, which may be shared.
+     */
+    public CachingTennisGameHistoryProcessorServiceImpl(TennisGameStatePoolServiceImpl tennisGameStatePoolService,
+            TennisGameHistoryCache cache) {
+        this(tennisGameStatePoolService, cache, TennisGameMetrics.NOOP);
+    }
+
+    /**
+     * Constructs a new instance of
+     * {@code CachingTennisGameHistoryProcessorServiceImpl} with a cache of
+     * {@link TennisGameHistoryCache#DEFAULT_CAPACITY} histories.
+     */
+    public CachingTennisGameHistoryProcessorServiceImpl() {
+        this(new TennisGameStatePoolServiceImpl(), new TennisGameHistoryCache());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation returns an unmodifiable list of the shared states of
+     * the pool of the players, and emits a {@link TennisGameStageEvent} for the
+     * detection of the players and another one for the look up of the states.
+     * </p>
+     */
+    @Override
+    public List<TennisGameState> generateGameStatesFromHistory(String gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        PooledTennisGameStates states = TennisGameStageEvent.isTypeEnabled() ? lookUpRecorded(gameHistory)
+                : lookUp(poolOf(gameHistory), gameHistory);
+        if (states == null) {
+            return tennisGameHistoryProcessorService.generateGameStatesFromHistory(gameHistory);
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordGame(Stage.PROCESSOR, states.size(), System.nanoTime() - start);
+        }
+        return states;
+    }
+
+    /**
+     * Looks the states of the history up while recording the detection of the
+     * players and the look up as {@link TennisGameStageEvent}s. Histories which
+     * are not cached are left to the processor to record.
+     */
+    private PooledTennisGameStates lookUpRecorded(String gameHistory) {
+        TennisGameStageEvent detectionEvent = new TennisGameStageEvent(TennisGameStageEvent.PLAYER_DETECTION);
+        TennisGameStageEvent generationEvent = new TennisGameStageEvent(TennisGameStageEvent.STATE_GENERATION);
+        detectionEvent.begin();
+        TennisGameStatePool pool = poolOf(gameHistory);
+        detectionEvent.end();
+        generationEvent.begin();
+        PooledTennisGameStates states = lookUp(pool, gameHistory);
+        generationEvent.end();
+        if (states != null) {
+            TennisGameState lastGameState = states.get(states.size() - 1);
+            detectionEvent.describe(gameHistory, lastGameState);
+            detectionEvent.commit();
+            generationEvent.describe(gameHistory, lastGameState);
+            generationEvent.commit();
+        }
+        return states;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation processes the history without caching it.
+     * </p>
+     */
+    @Override
+    public Stream<TennisGameState> streamGameStatesFromHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        return tennisGameHistoryProcessorService.streamGameStatesFromHistory(gameHistory);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation processes the history without caching it.
+     * </p>
+     */
+    @Override
+    public Stream<TennisGameState> streamGameStatesFromHistory(Reader gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        return tennisGameHistoryProcessorService.streamGameStatesFromHistory(gameHistory);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the final state from the cached states.
+     * </p>
+     */
+    @Override
+    public TennisGameOutcome evaluateGameHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        PooledTennisGameStates states = lookUp(poolOf(gameHistory), gameHistory);
+        if (states == null) {
+            return tennisGameHistoryProcessorService.evaluateGameHistory(gameHistory);
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordGame(Stage.PROCESSOR, states.size(), System.nanoTime() - start);
+        }
+        return outcomeOf(states);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the final state from the cached states.
+     * </p>
+     */
+    @Override
+    public TennisGameEvaluation tryEvaluateGameHistory(CharSequence gameHistory) {
+        PooledTennisGameStates states = lookUp(poolOf(gameHistory), gameHistory);
+        return states != null ? TennisGameEvaluation.success(outcomeOf(states))
+                : tennisGameHistoryProcessorService.tryEvaluateGameHistory(gameHistory);
+    }
+
+    public TennisGameHistoryCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the pool of the players of the history, or {@code null} if they
+     *         are invalid.
+     */
+    private TennisGameStatePool poolOf(CharSequence gameHistory) {
+        TennisGameState initialGameState = TennisGameHistoryProcessorServiceImpl.detectPlayers(gameHistory);
+        return initialGameState == null ? null
+                : tennisGameStatePoolService.getPool(initialGameState.player1().id(),
+                        initialGameState.player2().id());
+    }
+
+    /**
+     * Looks the states of the history up, computing and caching them on a miss.
+     *
+     * @param pool the pool of the players of the history, {@code null} if they
+     *             are invalid.
+     * @return the states of the history, or {@code null} if the history is
+     *         invalid or too long to be cached.
+     */
+    private PooledTennisGameStates lookUp(TennisGameStatePool pool, CharSequence gameHistory) {
+        if (pool == null) {
+            return null;
+        }
+        long key = TennisGameHistoryCache.keyOf(pool, gameHistory);
+        if (key == TennisGameHistoryCache.NO_KEY) {
+            return null;
+        }
+        byte[] cachedIndices = cache.get(key);
+        if (cachedIndices != null) {
+            return PooledTennisGameStates.of(pool, cachedIndices);
+        }
+        byte[] indices = new byte[gameHistory.length()];
+        if (pool.walk(gameHistory, (position, index) -> indices[position] = (byte) index) < indices.length) {
+            return null;
+        }
+        cache.put(key, indices);
+        return PooledTennisGameStates.of(pool, indices);
+    }
+
+    private static TennisGameOutcome outcomeOf(PooledTennisGameStates states) {
+        return TennisGameHistoryProcessorServiceImpl.outcomeOf(states.get(states.size() - 1), states.size());
+    }
+}
@@ -0,0 +1,245 @@
+package kata.tennis.services.impl;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameRegistryService;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnknownMatchException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Implementation of {@link TennisGameRegistryService} recording every change
+ * of the live games in an append-only log, so that they survive a restart.
+ * <p>
+ * Opened games, accepted points and closed games are checked against a
+ * {@link TennisGameRegistryServiceImpl}, appended to memory mapped segment
+ * files, and only then applied: a rejected change is not recorded, a change
+ * which cannot be recorded is not applied, and reads never see a change which
+ * is not in the log. Every {@code snapshotInterval} records, the states of all the games
+ * are written to a snapshot before the next change. On construction, the games
+ * are restored from the latest snapshot, and the records following it are
+ * replayed through the {@link TennisGameStateService} rules, so recovery only
+ * scores the tail of the log.
+ * </p>
+ * <p>
+ * Changes are serialized so that the log order is the order in which they were
+ * applied, and a snapshot is a consistent view of the games. Reads are not
+ * blocked.
+ * </p>
+ * <p>
+ * By default every record is forced to the storage device before its change
+ * is applied, so an accepted change survives a crash of the machine. A
+ * {@code syncInterval} greater than one forces the records by groups of that
+ * many instead, trading the last {@code syncInterval - 1} changes in such a
+ * crash for throughput; {@link #force()} forces a pending group right away and
+ * {@link #close()} must be called to force the last one.
+ * </p>
+ */
+public class DurableTennisGameRegistryServiceImpl implements TennisGameRegistryService, Closeable {
+    /**
+     * Default size of a segment of the log, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 26;
+    /**
+     * Default number of records between two snapshots.
+     */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 1 << 16;
+    /**
+     * Default number of records between two forces of the log to the storage
+     * device, every record being forced when appended.
+     */
+    public static final int DEFAULT_SYNC_INTERVAL = 1;
+
+    private final TennisGameRegistryServiceImpl tennisGameRegistryService;
+    private final TennisGameEventLog eventLog;
+    private final long snapshotInterval;
+    private long lastSnapshotSequence = TennisGameEventLog.NO_SEQUENCE;
+
+    /**
+     * Constructs a new instance of {@code DurableTennisGameRegistryServiceImpl}
+     * and restores the games recorded in the given directory.
+     *
+     * @param directory              the directory of the log, created if needed.
+     * @param tennisGameStateService the service advancing the state of the games.
+     * @param segmentSize            the size of a segment of the log, in bytes.
+     * @param snapshotInterval       the number of records between two snapshots.
+     * @param syncInterval           the number of records between two forces of
+     *                               the log to the storage device, one to force
+     *                               every record before applying its change.
+     * @throws UncheckedIOException if the log cannot be read.
+     */
+    public DurableTennisGameRegistryServiceImpl(Path directory, TennisGameStateService tennisGameStateService,
+            int segmentSize, long snapshotInterval, int syncInterval) throws UncheckedIOException {
+        this.tennisGameRegistryService = new TennisGameRegistryServiceImpl(tennisGameStateService);
+        this.eventLog = new TennisGameEventLog(directory, segmentSize, syncInterval);
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        recover();
+    }
+
+    /**
+     * Constructs a new instance of {@code DurableTennisGameRegistryServiceImpl}
+     * forcing every record to the storage device, and restores the games
+     * recorded in the given directory.
+     *
+     * @param directory              the directory of the log, created if needed.
+     * @param tennisGameStateService the service advancing the state of the games.
+     * @param segmentSize            the size of a segment of the log, in bytes.
+     * @param snapshotInterval       the number of records between two snapshots.
+     * @throws UncheckedIOException if the log cannot be read.
+     */
+    public DurableTennisGameRegistryServiceImpl(Path directory, TennisGameStateService tennisGameStateService,
+            int segmentSize, long snapshotInterval) throws UncheckedIOException {
+        this(directory, tennisGameStateService, segmentSize, snapshotInterval, DEFAULT_SYNC_INTERVAL);
+    }
+
+    /**
+     * Constructs a new instance of {@code DurableTennisGameRegistryServiceImpl}
+     * with the pool of canonical game states, segments of
+     * {@link #DEFAULT_SEGMENT_SIZE} bytes, a snapshot every
+     * {@link #DEFAULT_SNAPSHOT_INTERVAL} records and every record forced to
+     * the storage device, and restores the games
+     * recorded in the given directory.
+     *
+     * @param directory the directory of the log, created if needed.
+     * @throws UncheckedIOException if the log cannot be read.
+     */
+    public DurableTennisGameRegistryServiceImpl(Path directory) throws UncheckedIOException {
+        this(directory, new TennisGameStatePoolServiceImpl(), DEFAULT_SEGMENT_SIZE, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation records the opened game in the log.
+     * </p>
+     *
+     * @throws IllegalArgumentException if the match identifier is too long for
+     *                                  a segment of the log.
+     * @throws UncheckedIOException     if the game cannot be recorded, in which
+     *                                  case it is not opened.
+     */
+    @Override
+    public synchronized TennisGameState openGame(String matchId, Character player1Id, Character player2Id)
+            throws UnsupportedPlayersCountException {
+        eventLog.checkMatchId(matchId);
+        snapshotIfDue();
+        TennisGameState initialState = tennisGameRegistryService.initialGameState(matchId, player1Id, player2Id);
+        eventLog.append(TennisGameEventLog.OPEN, matchId, player1Id, player2Id);
+        tennisGameRegistryService.restoreGame(matchId, initialState);
+        return initialState;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation records the accepted point in the log.
+     * </p>
+     *
+     * @throws UncheckedIOException if the point cannot be recorded, in which case
+     *                              it is not applied.
+     */
+    @Override
+    public synchronized TennisGameState submitPoint(String matchId, Character winnerId)
+            throws UnknownMatchException, GameAlreadyFinishedException, UnsupportedPlayersCountException {
+        snapshotIfDue();
+        // changes are serialized, the game cannot move in the meantime
+        TennisGameState nextGameState = tennisGameRegistryService.nextGameState(matchId, winnerId);
+        eventLog.append(TennisGameEventLog.POINT, matchId, winnerId, (char) 0);
+        tennisGameRegistryService.setGameState(matchId, nextGameState);
+        return nextGameState;
+    }
+
+    @Override
+    public Optional<TennisGameState> getGameState(String matchId) {
+        return tennisGameRegistryService.getGameState(matchId);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation records the closing of an open game in the log.
+     * </p>
+     *
+     * @throws UncheckedIOException if the closing cannot be recorded, in which
+     *                              case the game stays open.
+     */
+    @Override
+    public synchronized Optional<TennisGameState> closeGame(String matchId) {
+        snapshotIfDue();
+        if (tennisGameRegistryService.getGameState(matchId).isEmpty()) {
+            return Optional.empty();
+        }
+        eventLog.append(TennisGameEventLog.CLOSE, matchId, (char) 0, (char) 0);
+        return tennisGameRegistryService.closeGame(matchId);
+    }
+
+    @Override
+    public int getGamesCount() {
+        return tennisGameRegistryService.getGamesCount();
+    }
+
+    /**
+     * Writes a snapshot of the states of all the games, so that a later recovery
+     * does not replay the records preceding it.
+     *
+     * @throws UncheckedIOException if the snapshot cannot be written.
+     */
+    public synchronized void snapshot() throws UncheckedIOException {
+        long sequence = eventLog.getLastSequence();
+        eventLog.writeSnapshot(sequence, tennisGameRegistryService.getGameStates());
+        lastSnapshotSequence = sequence;
+    }
+
+    /**
+     * Forces the records not forced yet to the storage device.
+     *
+     * @throws UncheckedIOException if the records cannot be forced.
+     */
+    public synchronized void force() throws UncheckedIOException {
+        eventLog.force();
+    }
+
+    /**
+     * Forces the log to the storage device and closes it.
+     */
+    @Override
+    public synchronized void close() throws UncheckedIOException {
+        eventLog.close();
+    }
+
+    /**
+     * Writes the periodic snapshot before the next change is applied, so that a
+     * failing snapshot leaves the change undone.
+     */
+    private void snapshotIfDue() {
+        if (eventLog.getLastSequence() - lastSnapshotSequence >= snapshotInterval) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Restores the games of the latest snapshot, then replays the records
+     * following it.
+     */
+    private void recover() {
+        TennisGameEventLog.Snapshot snapshot = eventLog.readSnapshot();
+        if (snapshot != null) {
+            lastSnapshotSequence = snapshot.sequence();
+            snapshot.games().forEach(tennisGameRegistryService::restoreGame);
+        }
+        eventLog.replay(lastSnapshotSequence, entry -> {
+            switch (entry.type()) {
+                case TennisGameEventLog.OPEN -> tennisGameRegistryService.openGame(entry.matchId(), entry.firstId(),
+                        entry.secondId());
+                case TennisGameEventLog.POINT -> tennisGameRegistryService.submitPoint(entry.matchId(),
+                        entry.firstId());
+                default -> tennisGameRegistryService.closeGame(entry.matchId());
+            }
+        });
+    }
+}
@@ -0,0 +1,240 @@
+package kata.tennis.services.impl;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Store of the states of many processed games kept outside of the heap.
+ * <p>
+ * A state takes a single byte, its {@link TennisGameStatePool} index, in
+ * direct {@link ByteBuffer} chunks allocated as the store grows, and each game
+ * takes twelve more bytes for the offset of its first state and the identifiers
+ * of its players. Hundreds of millions of states then cost that many bytes of
+ * native memory, which the garbage collector neither scans nor moves.
+ * </p>
+ * <p>
+ * Games are read through unmodifiable views returning the shared states of the
+ * pool of their players on access, so reading does not allocate either, and
+ * the outcome of a game is computed from its last state. Adding games is not
+ * thread-safe; once added, games may be read from any thread.
+ * </p>
+ * <p>
+ * {@link #clear()} empties the store and keeps its chunks to be filled again,
+ * and {@link #close()} drops them: their native memory is released once the
+ * garbage collector reclaims the buffers, not right away. Either one
+ * invalidates the views of the games.
+ * </p>
+ */
+public final class OffHeapTennisGameStore implements Closeable {
+    /**
+     * Default size of a chunk of native memory, in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+
+    // offset of the first state and both player identifiers
+    private static final int GAME_SIZE = Long.BYTES + 2 * Character.BYTES;
+
+    private final TennisGameStatePoolServiceImpl tennisGameStatePoolService;
+    private final int chunkSize;
+    private final int gamesPerChunk;
+    private final List<ByteBuffer> statesChunks = new ArrayList<>();
+    private final List<ByteBuffer> gamesChunks = new ArrayList<>();
+    private long statesCount;
+    private int gamesCount;
+    private boolean closed;
+
+    /**
+     * Constructs a new empty {@code OffHeapTennisGameStore}.
+     *
+     * @param tennisGameStatePoolService the service providing the game rules and
+     *                                   the pools of game states.
+     * @param chunkSize                  the size of a chunk of native memory, in
+     *                                   bytes, at least the size of a game.
+     */
+    public OffHeapTennisGameStore(TennisGameStatePoolServiceImpl tennisGameStatePoolService, int chunkSize) {
+        this.tennisGameStatePoolService = tennisGameStatePoolService;
+        this.chunkSize = Math.max(GAME_SIZE, chunkSize);
+        this.gamesPerChunk = this.chunkSize / GAME_SIZE;
+    }
+
+    /**
+     * Constructs a new empty {@code OffHeapTennisGameStore} with the default
+     * game rules and chunks of {@link #DEFAULT_CHUNK_SIZE} bytes.
+     */
+    public OffHeapTennisGameStore() {
+        this(new TennisGameStatePoolServiceImpl(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Processes the given history and stores the states of its game.
+     *
+     * @param gameHistory the history of the game.
+     * @return the index of the game in the store.
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     * @throws GameAlreadyFinishedException     if the game history indicates that
+     *                                          the game has already finished.
+     * @throws IllegalStateException            if the store is closed.
+     */
+    public int add(CharSequence gameHistory) throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        checkOpen();
+        TennisGameState initialGameState = TennisGameHistoryProcessorServiceImpl
+                .generateInitialGameStateFromHistory(gameHistory);
+        char player1Id = initialGameState.player1().id();
+        char player2Id = initialGameState.player2().id();
+        TennisGameStatePool pool = tennisGameStatePoolService.getPool(player1Id, player2Id);
+        long firstState = statesCount;
+        int rejectedPosition = pool.walk(gameHistory, (position, index) -> addState(index));
+        if (rejectedPosition < gameHistory.length()) {
+            int lastIndex = rejectedPosition == 0 ? TennisGameStatePool.INITIAL_INDEX : stateIndex(statesCount - 1);
+            // drops the states of the game
+            statesCount = firstState;
+            throw rejection(pool.state(lastIndex), gameHistory.charAt(rejectedPosition));
+        }
+
+        int chunk = gamesCount / gamesPerChunk;
+        if (chunk == gamesChunks.size()) {
+            gamesChunks.add(ByteBuffer.allocateDirect(gamesPerChunk * GAME_SIZE));
+        }
+        gamesChunks.get(chunk).putLong(gameOffset(gamesCount), firstState)
+                .putChar(gameOffset(gamesCount) + Long.BYTES, player1Id)
+                .putChar(gameOffset(gamesCount) + Long.BYTES + Character.BYTES, player2Id);
+        return gamesCount++;
+    }
+
+    /**
+     * @return the number of games of the store.
+     */
+    public int getGamesCount() {
+        return gamesCount;
+    }
+
+    /**
+     * @return the number of states of all the games of the store.
+     */
+    public long getStatesCount() {
+        return statesCount;
+    }
+
+    /**
+     * Returns a view of the states of a game, read from native memory on access.
+     *
+     * @param game the index of the game.
+     * @return an unmodifiable list of the states of the game, one per point.
+     * @throws IndexOutOfBoundsException if there is no such game.
+     * @throws IllegalStateException     if the store is closed.
+     */
+    public List<TennisGameState> getGameStates(int game) throws IndexOutOfBoundsException {
+        checkOpen();
+        Objects.checkIndex(game, gamesCount);
+        ByteBuffer gamesChunk = gamesChunks.get(game / gamesPerChunk);
+        int offset = gameOffset(game);
+        long firstState = gamesChunk.getLong(offset);
+        int size = (int) (firstStateOf(game + 1) - firstState);
+        TennisGameStatePool pool = tennisGameStatePoolService.getPool(gamesChunk.getChar(offset + Long.BYTES),
+                gamesChunk.getChar(offset + Long.BYTES + Character.BYTES));
+        return new PooledTennisGameStates(pool) {
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            int index(int position) {
+                return stateIndex(firstState + position);
+            }
+        };
+    }
+
+    /**
+     * Computes the outcome of a game from its last state.
+     *
+     * @param game the index of the game.
+     * @return the {@link TennisGameOutcome} of the game.
+     * @throws IndexOutOfBoundsException if there is no such game.
+     * @throws IllegalStateException     if the store is closed.
+     */
+    public TennisGameOutcome getGameOutcome(int game) throws IndexOutOfBoundsException {
+        List<TennisGameState> states = getGameStates(game);
+        return TennisGameHistoryProcessorServiceImpl.outcomeOf(states.get(states.size() - 1), states.size());
+    }
+
+    /**
+     * Removes every game, keeping the chunks of native memory for the next ones.
+     *
+     * @throws IllegalStateException if the store is closed.
+     */
+    public void clear() {
+        checkOpen();
+        statesCount = 0;
+        gamesCount = 0;
+    }
+
+    /**
+     * Removes every game and drops the chunks of native memory, which are
+     * released when the garbage collector reclaims them. Games must not be read
+     * meanwhile.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        statesCount = 0;
+        gamesCount = 0;
+        statesChunks.clear();
+        gamesChunks.clear();
+    }
+
+    private void addState(int index) {
+        int chunk = (int) (statesCount / chunkSize);
+        if (chunk == statesChunks.size()) {
+            statesChunks.add(ByteBuffer.allocateDirect(chunkSize));
+        }
+        statesChunks.get(chunk).put((int) (statesCount % chunkSize), (byte) index);
+        statesCount++;
+    }
+
+    private int stateIndex(long state) {
+        return statesChunks.get((int) (state / chunkSize)).get((int) (state % chunkSize)) & 0xFF;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("store is closed");
+        }
+    }
+
+    /**
+     * @return the offset of the first state of the given game, or the number of
+     *         states past the last game.
+     */
+    private long firstStateOf(int game) {
+        return game == gamesCount ? statesCount : gamesChunks.get(game / gamesPerChunk).getLong(gameOffset(game));
+    }
+
+    private int gameOffset(int game) {
+        return game % gamesPerChunk * GAME_SIZE;
+    }
+
+    /**
+     * Lets the rules report the point the pool could not apply.
+     */
+    private RuntimeException rejection(TennisGameState lastGameState, char winnerId) {
+        try {
+            tennisGameStatePoolService.getNextGameState(lastGameState, winnerId);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        return new IllegalStateException(String.format("'%c' rejected by the pool only", winnerId));
+    }
+}
@@ -0,0 +1,242 @@
+package kata.tennis.services.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Game history packed into one bit per point.
+ * <p>
+ * Once both player identifiers are known, a point only tells which of them
+ * won it. The binary format is a header of {@value #HEADER_SIZE} bytes holding
+ * the identifiers of the first and second players, as ordered when a history is
+ * processed, and the number of points, followed by a bitset of the points: bit
+ * {@code i % 8} of byte {@code i / 8} is set when the second player won point
+ * {@code i}. A history takes eight times less room than one byte per point.
+ * </p>
+ * <p>
+ * The history is a {@link CharSequence} decoding the points from the bitset on
+ * the fly, so it can be given to any processing method, and
+ * {@link TennisGameHistoryProcessorServiceImpl} takes its players from the
+ * header instead of scanning the points.
+ * </p>
+ */
+public final class PackedTennisGameHistory implements CharSequence {
+    /**
+     * Size of the header of a packed history, in bytes.
+     */
+    public static final int HEADER_SIZE = 2 * Character.BYTES + Integer.BYTES;
+
+    private final char player1Id;
+    private final char player2Id;
+    private final int length;
+    private final ByteBuffer points;
+
+    private PackedTennisGameHistory(char player1Id, char player2Id, int length, ByteBuffer points) {
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        this.length = length;
+        this.points = points;
+    }
+
+    /**
+     * Packs the given history.
+     *
+     * @param gameHistory the history, one player identifier per point.
+     * @return the packed history.
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     */
+    public static PackedTennisGameHistory of(CharSequence gameHistory) throws UnsupportedPlayersCountException {
+        TennisGameState initialGameState = TennisGameHistoryProcessorServiceImpl
+                .generateInitialGameStateFromHistory(gameHistory);
+        char player2Id = initialGameState.player2().id();
+        int length = gameHistory.length();
+        byte[] points = new byte[bitsetSize(length)];
+        for (int i = 0; i < length; i++) {
+            if (gameHistory.charAt(i) == player2Id) {
+                points[i >>> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        return new PackedTennisGameHistory(initialGameState.player1().id(), player2Id, length,
+                ByteBuffer.wrap(points));
+    }
+
+    /**
+     * Reads the packed history at the position of the given buffer, without
+     * copying its points, and moves the position past it.
+     *
+     * @param buffer the buffer holding packed histories.
+     * @return the packed history, a view over the buffer.
+     * @throws IllegalArgumentException if the buffer does not hold a valid packed
+     *                                  history at its position.
+     */
+    public static PackedTennisGameHistory wrap(ByteBuffer buffer) throws IllegalArgumentException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IllegalArgumentException("truncated packed history header");
+        }
+        int start = buffer.position();
+        char player1Id = buffer.getChar(start);
+        char player2Id = buffer.getChar(start + Character.BYTES);
+        int length = buffer.getInt(start + 2 * Character.BYTES);
+        String error = validate(player1Id, player2Id, length);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        int size = bitsetSize(length);
+        if (buffer.remaining() - HEADER_SIZE < size) {
+            throw new IllegalArgumentException("truncated packed history points");
+        }
+        ByteBuffer points = buffer.slice(start + HEADER_SIZE, size);
+        buffer.position(start + HEADER_SIZE + size);
+        return new PackedTennisGameHistory(player1Id, player2Id, length, points);
+    }
+
+    /**
+     * Reads the next packed history of the given stream.
+     *
+     * @param inputStream the stream of packed histories, not closed by this
+     *                    method.
+     * @return the packed history, or {@code null} at the end of the stream.
+     * @throws EOFException              if the stream ends within a history.
+     * @throws StreamCorruptedException if the header is not valid.
+     * @throws IOException               if the stream cannot be read.
+     */
+    public static PackedTennisGameHistory readFrom(InputStream inputStream) throws IOException {
+        byte[] header = inputStream.readNBytes(HEADER_SIZE);
+        if (header.length == 0) {
+            return null;
+        }
+        if (header.length < HEADER_SIZE) {
+            throw new EOFException("truncated packed history header");
+        }
+        ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+        char player1Id = headerBuffer.getChar();
+        char player2Id = headerBuffer.getChar();
+        int length = headerBuffer.getInt();
+        String error = validate(player1Id, player2Id, length);
+        if (error != null) {
+            throw new StreamCorruptedException(error);
+        }
+        byte[] points = inputStream.readNBytes(bitsetSize(length));
+        if (points.length < bitsetSize(length)) {
+            throw new EOFException("truncated packed history points");
+        }
+        return new PackedTennisGameHistory(player1Id, player2Id, length, ByteBuffer.wrap(points));
+    }
+
+    /**
+     * Writes the packed history to the given stream.
+     *
+     * @param outputStream the stream, neither flushed nor closed by this method.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putChar(player1Id).putChar(player2Id).putInt(length);
+        outputStream.write(header.array());
+        if (points.hasArray()) {
+            outputStream.write(points.array(), points.arrayOffset(), points.limit());
+        } else {
+            byte[] bytes = new byte[points.limit()];
+            points.get(0, bytes);
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * Writes the packed history at the position of the given buffer, and moves
+     * the position past it.
+     *
+     * @param buffer the buffer, with at least {@link #getEncodedSize()} bytes
+     *               remaining.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putChar(player1Id).putChar(player2Id).putInt(length).put(points.duplicate().clear());
+    }
+
+    /**
+     * @return the number of bytes of the binary format of the history.
+     */
+    public int getEncodedSize() {
+        return HEADER_SIZE + points.limit();
+    }
+
+    /**
+     * @return the identifier of the first player, the smallest one.
+     */
+    public char getPlayer1Id() {
+        return player1Id;
+    }
+
+    /**
+     * @return the identifier of the second player.
+     */
+    public char getPlayer2Id() {
+        return player2Id;
+    }
+
+    /**
+     * @param index the index of a point.
+     * @return whether the second player won the point.
+     */
+    public boolean isWonByPlayer2(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (points.get(index >>> 3) & (1 << (index & 7))) != 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return isWonByPlayer2(index) ? player2Id : player1Id;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(start);
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = charAt(i);
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+
+    /**
+     * @return the number of bytes of the bitset of the given number of points.
+     */
+    private static int bitsetSize(int length) {
+        return (int) ((length + 7L) >>> 3);
+    }
+
+    /**
+     * @return the reason why the header is not valid, or {@code null}.
+     */
+    private static String validate(char player1Id, char player2Id, int length) {
+        if (player1Id >= player2Id) {
+            return String.format("'%c%c' not supported, should be two ordered player identifiers",
+                    player1Id, player2Id);
+        }
+        if (length <= 0) {
+            return String.format("%d points not supported, should be positive", length);
+        }
+        return null;
+    }
+}
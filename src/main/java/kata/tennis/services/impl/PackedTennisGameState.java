@@ -0,0 +1,208 @@
+package kata.tennis.services.impl;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Primitive representation of a {@link TennisGameState} packed into a single
+ * {@code long}.
+ * <p>
+ * The lowest 8 bits hold the {@link TennisGameStatePool} state index (last
+ * point winner slot and both score ordinals), the next 16 bits the identifier
+ * of the first player and the following 16 bits the identifier of the second
+ * player. Transitions are resolved with plain arithmetic from a table compiled
+ * once from the default game rules, so live games can be kept and updated in a
+ * {@code long[]} without any allocation.
+ * </p>
+ */
+public final class PackedTennisGameState {
+    private static final int INDEX_MASK = 0xFF;
+    private static final int PLAYER1_SHIFT = 8;
+    private static final int PLAYER2_SHIFT = PLAYER1_SHIFT + Character.SIZE;
+    private static final TennisScore[] SCORES = TennisScore.values();
+    private static final int[] TRANSITIONS = compileTransitions();
+
+    private PackedTennisGameState() {
+    }
+
+    /**
+     * Packs the initial state of a game between the two given players.
+     *
+     * @param player1Id the identifier of the first player.
+     * @param player2Id the identifier of the second player.
+     * @return the packed initial state.
+     */
+    public static long initial(char player1Id, char player2Id) {
+        return pack(TennisGameStatePool.indexOf(TennisGameStatePool.NO_WINNER_SLOT, TennisScore.ZERO.ordinal(),
+                TennisScore.ZERO.ordinal()), player1Id, player2Id);
+    }
+
+    /**
+     * Packs the given game state.
+     *
+     * @param tennisGameState the state to pack.
+     * @return the packed state.
+     * @throws UnsupportedPlayersCountException if the last point winner is not
+     *                                          one of the two players.
+     */
+    public static long pack(TennisGameState tennisGameState) throws UnsupportedPlayersCountException {
+        char player1Id = tennisGameState.player1().id();
+        char player2Id = tennisGameState.player2().id();
+        Character currentWinnerId = tennisGameState.currentWinnerId();
+        int slot;
+        if (currentWinnerId == null) {
+            slot = TennisGameStatePool.NO_WINNER_SLOT;
+        } else {
+            slot = slotOf(currentWinnerId, player1Id, player2Id);
+        }
+        return pack(TennisGameStatePool.indexOf(slot, tennisGameState.player1().tennisScore().ordinal(),
+                tennisGameState.player2().tennisScore().ordinal()), player1Id, player2Id);
+    }
+
+    /**
+     * Computes the packed state following the given one when the given player
+     * wins the point.
+     *
+     * @param state    the packed current state.
+     * @param winnerId the identifier of the player who won the point.
+     * @return the packed next state.
+     * @throws GameAlreadyFinishedException     if the game has already finished.
+     * @throws UnsupportedPlayersCountException if the point winner is not one of
+     *                                          the two players.
+     * @throws UnsupportedGameStatusException   if the scores of the state could
+     *                                          not be processed.
+     */
+    public static long next(long state, char winnerId)
+            throws GameAlreadyFinishedException, UnsupportedPlayersCountException, UnsupportedGameStatusException {
+        int index = index(state);
+        int next = TRANSITIONS[index * 2 + slotOf(winnerId, player1Id(state), player2Id(state))
+                - TennisGameStatePool.PLAYER1_SLOT];
+        if (next == TennisGameStatePool.NO_STATE) {
+            if (isFinished(state)) {
+                throw new GameAlreadyFinishedException(String.format(
+                        "Player %c already won this game, you could not proceed with this point !",
+                        winnerIdOf(state)));
+            }
+            throw new UnsupportedGameStatusException(String.format(
+                    "unsupported current game status for player 1 status : "
+                            + "[%s] and player 2 status : [%s]; could not be processed !",
+                    player1Score(state).name(), player2Score(state).name()));
+        }
+        return state & ~INDEX_MASK | next;
+    }
+
+    /**
+     * Returns the {@link TennisGameStatePool} state index of the packed state.
+     *
+     * @param state the packed state.
+     * @return the state index.
+     */
+    public static int index(long state) {
+        return (int) (state & INDEX_MASK);
+    }
+
+    public static char player1Id(long state) {
+        return (char) (state >>> PLAYER1_SHIFT);
+    }
+
+    public static char player2Id(long state) {
+        return (char) (state >>> PLAYER2_SHIFT);
+    }
+
+    public static TennisScore player1Score(long state) {
+        return SCORES[TennisGameStatePool.player1ScoreOrdinalOf(index(state))];
+    }
+
+    public static TennisScore player2Score(long state) {
+        return SCORES[TennisGameStatePool.player2ScoreOrdinalOf(index(state))];
+    }
+
+    /**
+     * Returns the slot of the last point winner of the packed state.
+     *
+     * @param state the packed state.
+     * @return {@link TennisGameStatePool#NO_WINNER_SLOT},
+     *         {@link TennisGameStatePool#PLAYER1_SLOT} or
+     *         {@link TennisGameStatePool#PLAYER2_SLOT}.
+     */
+    public static int currentWinnerSlot(long state) {
+        return TennisGameStatePool.slotOf(index(state));
+    }
+
+    public static boolean isFinished(long state) {
+        return player1Score(state) == TennisScore.WIN || player2Score(state) == TennisScore.WIN;
+    }
+
+    /**
+     * Returns the identifier of the game winner of the packed state.
+     *
+     * @param state the packed state.
+     * @return the identifier of the winner, or {@code 0} if the game is not
+     *         finished.
+     */
+    public static char winnerIdOf(long state) {
+        if (player1Score(state) == TennisScore.WIN) {
+            return player1Id(state);
+        }
+        return player2Score(state) == TennisScore.WIN ? player2Id(state) : 0;
+    }
+
+    /**
+     * Decodes the packed state into a new {@link TennisGameState}.
+     *
+     * @param state the packed state.
+     * @return the decoded game state.
+     */
+    public static TennisGameState toGameState(long state) {
+        char player1Id = player1Id(state);
+        char player2Id = player2Id(state);
+        Character currentWinnerId = switch (currentWinnerSlot(state)) {
+            case TennisGameStatePool.PLAYER1_SLOT -> player1Id;
+            case TennisGameStatePool.PLAYER2_SLOT -> player2Id;
+            default -> null;
+        };
+        return new TennisGameState(currentWinnerId,
+                new TennisPlayer(player1Id, player1Score(state)),
+                new TennisPlayer(player2Id, player2Score(state)));
+    }
+
+    /**
+     * Decodes the packed state into the canonical {@link TennisGameState} of the
+     * given pool, without any allocation.
+     *
+     * @param state the packed state.
+     * @param pool  the pool of the players of the packed state.
+     * @return the shared decoded game state.
+     */
+    public static TennisGameState toGameState(long state, TennisGameStatePool pool) {
+        return pool.state(index(state));
+    }
+
+    private static long pack(int index, char player1Id, char player2Id) {
+        return (long) player2Id << PLAYER2_SHIFT | (long) player1Id << PLAYER1_SHIFT | index;
+    }
+
+    private static int slotOf(char playerId, char player1Id, char player2Id) throws UnsupportedPlayersCountException {
+        if (playerId == player1Id) {
+            return TennisGameStatePool.PLAYER1_SLOT;
+        }
+        if (playerId == player2Id) {
+            return TennisGameStatePool.PLAYER2_SLOT;
+        }
+        throw TennisGamePlayers.unsupportedWinner(playerId, player1Id, player2Id);
+    }
+
+    private static int[] compileTransitions() {
+        TennisGameStatePool pool = new TennisGameStatePool('A', 'B', new TennisGameStateServiceImpl());
+        int[] transitions = new int[TennisGameStatePool.STATES_COUNT * 2];
+        for (int index = 0; index < TennisGameStatePool.STATES_COUNT; index++) {
+            transitions[index * 2] = pool.next(index, TennisGameStatePool.PLAYER1_SLOT);
+            transitions[index * 2 + 1] = pool.next(index, TennisGameStatePool.PLAYER2_SLOT);
+        }
+        return transitions;
+    }
+}
@@ -0,0 +1,275 @@
+package kata.tennis.services.impl;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Implementation of {@link TennisGameHistoryProcessorService} scoring long
+ * histories on all cores.
+ * <p>
+ * A history of at least {@code parallelThreshold} points is split into slices.
+ * The {@link TennisScoreTransition} of every slice is computed in parallel, then
+ * the transitions are combined with a parallel prefix scan, which gives the
+ * scores of the game at the start of every slice. The final state is read from
+ * the last combined transition, and the states of every point are then
+ * generated slice by slice in parallel. Transitions come from the
+ * {@link TennisGameStatePool} of the players, so they follow the rules of the
+ * given {@link TennisGameStatePoolServiceImpl}.
+ * </p>
+ * <p>
+ * Results and errors are the same as the sequential processing: the players
+ * are validated up front, and a point played after the end of the game is
+ * reported by the rules with the state preceding it. Shorter histories, as well
+ * as streamed ones, are processed sequentially.
+ * </p>
+ */
+public class ParallelTennisGameHistoryProcessorServiceImpl implements TennisGameHistoryProcessorService {
+    /**
+     * Default minimum number of points of a history scored in parallel.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int MIN_SLICE_LENGTH = 1 << 12;
+    private static final int SLICES_PER_THREAD = 4;
+    private static final int INITIAL_SCORES_PAIR = TennisGameStatePool.indexOf(TennisGameStatePool.NO_WINNER_SLOT,
+            TennisScore.ZERO.ordinal(), TennisScore.ZERO.ordinal());
+
+    private final TennisGameStatePoolServiceImpl tennisGameStatePoolService;
+    private final TennisGameHistoryProcessorService tennisGameHistoryProcessorService;
+    private final int parallelThreshold;
+
+    /**
+     * Constructs a new instance of
+     * {@code ParallelTennisGameHistoryProcessorServiceImpl}.
+     *
+     * @param tennisGameStatePoolService the service providing the game rules and
+     *                                   the pools of game states.
+     * @param parallelThreshold          the minimum number of points of a history
+     *                                   scored in parallel, at least one.
+     */
+    public ParallelTennisGameHistoryProcessorServiceImpl(TennisGameStatePoolServiceImpl tennisGameStatePoolService,
+            int parallelThreshold) {
+        this.tennisGameStatePoolService = tennisGameStatePoolService;
+        this.tennisGameHistoryProcessorService = new TennisGameHistoryProcessorServiceImpl(tennisGameStatePoolService);
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+
+    /**
+     * Constructs a new instance of
+     * {@code ParallelTennisGameHistoryProcessorServiceImpl} scoring in parallel
+     * the histories of at least {@link #DEFAULT_PARALLEL_THRESHOLD} points.
+     */
+    public ParallelTennisGameHistoryProcessorServiceImpl() {
+        this(new TennisGameStatePoolServiceImpl(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation generates the states of long histories slice by slice
+     * in parallel. The returned list is fixed-size.
+     * </p>
+     */
+    @Override
+    public List<TennisGameState> generateGameStatesFromHistory(String gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        if (gameHistory.length() < parallelThreshold) {
+            return tennisGameHistoryProcessorService.generateGameStatesFromHistory(gameHistory);
+        }
+        Scan scan = scan(gameHistory);
+        TennisGameState[] states = new TennisGameState[gameHistory.length()];
+        IntStream.range(0, scan.slicesStarts.length - 1).parallel().forEach(slice -> {
+            TennisGameStatePool pool = scan.pool;
+            int index = scan.stateIndexAt(slice);
+            for (int point = scan.slicesStarts[slice]; point < scan.slicesStarts[slice + 1]; point++) {
+                index = pool.next(index, winnerSlot(pool, gameHistory.charAt(point)));
+                states[point] = pool.state(index);
+            }
+        });
+        return Arrays.asList(states);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation processes the history sequentially.
+     * </p>
+     */
+    @Override
+    public Stream<TennisGameState> streamGameStatesFromHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        return tennisGameHistoryProcessorService.streamGameStatesFromHistory(gameHistory);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation processes the history sequentially.
+     * </p>
+     */
+    @Override
+    public Stream<TennisGameState> streamGameStatesFromHistory(Reader gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        return tennisGameHistoryProcessorService.streamGameStatesFromHistory(gameHistory);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the final scores of long histories from the
+     * combined transitions of their slices, computed in parallel.
+     * </p>
+     */
+    @Override
+    public TennisGameOutcome evaluateGameHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        if (gameHistory.length() < parallelThreshold) {
+            return tennisGameHistoryProcessorService.evaluateGameHistory(gameHistory);
+        }
+        Scan scan = scan(gameHistory);
+        TennisGameState lastGameState = scan.pool.state(scan.stateIndexAt(scan.slicesStarts.length - 1));
+        return TennisGameHistoryProcessorServiceImpl.outcomeOf(lastGameState, gameHistory.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation processes the history sequentially.
+     * </p>
+     */
+    @Override
+    public TennisGameEvaluation tryEvaluateGameHistory(CharSequence gameHistory) {
+        return tennisGameHistoryProcessorService.tryEvaluateGameHistory(gameHistory);
+    }
+
+    /**
+     * Validates the players, computes the transitions of the slices and scans
+     * them.
+     *
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     * @throws GameAlreadyFinishedException     if a point is played after the end
+     *                                          of the game.
+     */
+    private Scan scan(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        int length = gameHistory.length();
+        int slicesCount = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * SLICES_PER_THREAD,
+                length / MIN_SLICE_LENGTH));
+        int[] slicesStarts = new int[slicesCount + 1];
+        for (int slice = 0; slice <= slicesCount; slice++) {
+            slicesStarts[slice] = (int) ((long) length * slice / slicesCount);
+        }
+        TennisGameStatePool pool = detectPlayers(gameHistory, slicesStarts);
+
+        TennisScoreTransition[] transitions = IntStream.range(0, slicesCount)
+                .parallel()
+                .mapToObj(slice -> TennisScoreTransition.of(pool, gameHistory, slicesStarts[slice],
+                        slicesStarts[slice + 1]))
+                .toArray(TennisScoreTransition[]::new);
+        Arrays.parallelPrefix(transitions, TennisScoreTransition::andThen);
+
+        Scan scan = new Scan(pool, gameHistory, slicesStarts, transitions);
+        long errorOffset = transitions[slicesCount - 1].errorOffset(INITIAL_SCORES_PAIR);
+        if (errorOffset != TennisScoreTransition.NO_ERROR) {
+            // replays the slice of the invalid point to let the rules report it
+            int slice = 0;
+            while (slicesStarts[slice + 1] <= errorOffset) {
+                slice++;
+            }
+            int index = scan.stateIndexAt(slice);
+            for (int point = slicesStarts[slice]; point < errorOffset; point++) {
+                index = pool.next(index, winnerSlot(pool, gameHistory.charAt(point)));
+            }
+            tennisGameStatePoolService.getNextGameState(pool.state(index), gameHistory.charAt((int) errorOffset));
+        }
+        return scan;
+    }
+
+    /**
+     * Finds the players of the history slice by slice in parallel, following
+     * the rules of the sequential processing.
+     */
+    private TennisGameStatePool detectPlayers(CharSequence gameHistory, int[] slicesStarts)
+            throws UnsupportedPlayersCountException {
+        int[] playersIds = IntStream.range(0, slicesStarts.length - 1)
+                .parallel()
+                .flatMap(slice -> distinctPlayersIds(gameHistory, slicesStarts[slice], slicesStarts[slice + 1]))
+                .distinct()
+                .sorted()
+                .toArray();
+        if (playersIds.length > 2) {
+            throw new UnsupportedPlayersCountException(String.format(
+                    "'%s' not supported, should contain only two player identifiers", gameHistory));
+        }
+        if (playersIds.length == 1) {
+            int playerId = playersIds[0];
+            int partnerId = playerId == 'Z' ? 'A' : playerId + 1;
+            return tennisGameStatePoolService.getPool((char) Math.min(playerId, partnerId),
+                    (char) Math.max(playerId, partnerId));
+        }
+        return tennisGameStatePoolService.getPool((char) playersIds[0], (char) playersIds[1]);
+    }
+
+    /**
+     * Collects the distinct identifiers of a slice, stopping at the third one.
+     */
+    private static IntStream distinctPlayersIds(CharSequence gameHistory, int from, int to) {
+        int firstPlayerId = gameHistory.charAt(from);
+        int secondPlayerId = -1;
+        for (int point = from + 1; point < to; point++) {
+            char playerId = gameHistory.charAt(point);
+            if (playerId == firstPlayerId || playerId == secondPlayerId) {
+                continue;
+            }
+            if (secondPlayerId != -1) {
+                return IntStream.of(firstPlayerId, secondPlayerId, playerId);
+            }
+            secondPlayerId = playerId;
+        }
+        return secondPlayerId == -1 ? IntStream.of(firstPlayerId) : IntStream.of(firstPlayerId, secondPlayerId);
+    }
+
+    /**
+     * Resolves the slot of the winner of a point of a history whose players are
+     * validated.
+     */
+    static int winnerSlot(TennisGameStatePool pool, char winnerId) {
+        return winnerId == pool.player1Id() ? TennisGameStatePool.PLAYER1_SLOT : TennisGameStatePool.PLAYER2_SLOT;
+    }
+
+    /**
+     * Slices of a history with the scanned transitions of the slices.
+     */
+    private record Scan(
+            TennisGameStatePool pool,
+            CharSequence gameHistory,
+            int[] slicesStarts,
+            TennisScoreTransition[] transitions) {
+        /**
+         * Returns the pool index of the state preceding the first point of the
+         * given slice, or the last state for the index past the last slice.
+         */
+        int stateIndexAt(int slice) {
+            if (slice == 0) {
+                return INITIAL_SCORES_PAIR;
+            }
+            int scoresPair = transitions[slice - 1].scoresPair(INITIAL_SCORES_PAIR);
+            return TennisGameStatePool.indexOf(winnerSlot(pool, gameHistory.charAt(slicesStarts[slice] - 1)),
+                    TennisGameStatePool.player1ScoreOrdinalOf(scoresPair),
+                    TennisGameStatePool.player2ScoreOrdinalOf(scoresPair));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package kata.tennis.services.impl;
+
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import kata.tennis.domain.state.TennisGameState;
+
+/**
+ * Unmodifiable list of the states of a game, backed by their
+ * {@link TennisGameStatePool} indices.
+ * <p>
+ * The states are the shared instances of the pool, read on access, and the
+ * printer renders them straight from their indices. Subclasses only tell where
+ * the indices are stored.
+ * </p>
+ */
+abstract class PooledTennisGameStates extends AbstractList<TennisGameState> implements RandomAccess {
+    private final TennisGameStatePool pool;
+
+    PooledTennisGameStates(TennisGameStatePool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param pool    the pool of the players of the game.
+     * @param indices the pool indices of the states.
+     * @return the states backed by the given array of indices.
+     */
+    static PooledTennisGameStates of(TennisGameStatePool pool, byte[] indices) {
+        return new PooledTennisGameStates(pool) {
+            @Override
+            public int size() {
+                return indices.length;
+            }
+
+            @Override
+            int index(int position) {
+                return indices[position] & 0xFF;
+            }
+        };
+    }
+
+    @Override
+    public TennisGameState get(int position) {
+        return pool.state(index(Objects.checkIndex(position, size())));
+    }
+
+    TennisGameStatePool pool() {
+        return pool;
+    }
+
+    /**
+     * @param position the position of the state in the list.
+     * @return the pool index of the state.
+     */
+    abstract int index(int position);
+}
@@ -0,0 +1,216 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.TennisGameMetricsExporter;
+
+/**
+ * Implementation of {@link TennisGameMetricsExporter} dumping a
+ * {@link TennisGameMetricsRegistryImpl} to a file in the Prometheus text
+ * exposition format, for instance for the textfile collector of the node
+ * exporter.
+ * <p>
+ * The file is written next to its destination then moved over it, so a reader
+ * never sees a partial dump. Latency histograms are exposed in seconds, with a
+ * bucket per power of two nanoseconds from about a microsecond to about a
+ * minute. The hits, misses and evictions of a {@link TennisGameHistoryCache}
+ * are exported along, when one is given.
+ * </p>
+ * <p>
+ * A failing periodic export does not stop the next ones: it is counted by
+ * {@link #getFailedExportsCount()}, which periodic exporters export as well.
+ * </p>
+ */
+public class PrometheusTennisGameMetricsExporterImpl implements TennisGameMetricsExporter {
+    private static final int LOWEST_BUCKET_EXPONENT = 10;
+    private static final int HIGHEST_BUCKET_EXPONENT = 36;
+
+    private final TennisGameMetricsRegistryImpl registry;
+    private final TennisGameHistoryCache cache;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong failedExports = new AtomicLong();
+
+    /**
+     * Constructs an exporter writing the metrics and the counts of a cache when
+     * {@link #export()} or {@link #close()} is called.
+     *
+     * @param registry the metrics to export.
+     * @param cache    the cache whose counts are exported, or {@code null}.
+     * @param file     the file the metrics are written to.
+     */
+    public PrometheusTennisGameMetricsExporterImpl(TennisGameMetricsRegistryImpl registry,
+            TennisGameHistoryCache cache, Path file) {
+        this.registry = registry;
+        this.cache = cache;
+        this.file = file;
+        this.scheduler = null;
+    }
+
+    /**
+     * Constructs an exporter writing the metrics when {@link #export()} or
+     * {@link #close()} is called.
+     *
+     * @param registry the metrics to export.
+     * @param file     the file the metrics are written to.
+     */
+    public PrometheusTennisGameMetricsExporterImpl(TennisGameMetricsRegistryImpl registry, Path file) {
+        this(registry, null, file);
+    }
+
+    /**
+     * Constructs an exporter also writing the metrics and the counts of a cache
+     * periodically from a daemon thread, until it is closed.
+     *
+     * @param registry the metrics to export.
+     * @param cache    the cache whose counts are exported, or {@code null}.
+     * @param file     the file the metrics are written to.
+     * @param interval the time between two exports.
+     */
+    public PrometheusTennisGameMetricsExporterImpl(TennisGameMetricsRegistryImpl registry,
+            TennisGameHistoryCache cache, Path file, Duration interval) {
+        this.registry = registry;
+        this.cache = cache;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tennis-game-metrics-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = interval.toNanos();
+        this.scheduler.scheduleAtFixedRate(this::exportPeriodically, intervalNanos, intervalNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructs an exporter also writing the metrics periodically from a daemon
+     * thread, until it is closed.
+     *
+     * @param registry the metrics to export.
+     * @param file     the file the metrics are written to.
+     * @param interval the time between two exports.
+     */
+    public PrometheusTennisGameMetricsExporterImpl(TennisGameMetricsRegistryImpl registry, Path file,
+            Duration interval) {
+        this(registry, null, file, interval);
+    }
+
+    @Override
+    public synchronized void export() throws UncheckedIOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                write(writer);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns how many periodic exports failed.
+     *
+     * @return the number of failed periodic exports.
+     */
+    public long getFailedExportsCount() {
+        return failedExports.get();
+    }
+
+    @Override
+    public void close() throws UncheckedIOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        export();
+    }
+
+    /**
+     * Writes the current values of the metrics in the Prometheus text format.
+     *
+     * @param writer the destination of the metrics.
+     * @throws IOException if the metrics could not be written.
+     */
+    public void write(Appendable writer) throws IOException {
+        writer.append("# HELP tennis_games_total Games handled by each stage.\n");
+        writer.append("# TYPE tennis_games_total counter\n");
+        for (Stage stage : Stage.values()) {
+            writer.append(String.format("tennis_games_total{stage=\"%s\"} %d\n", stage.getLabel(),
+                    registry.getGamesCount(stage)));
+        }
+        writer.append("# HELP tennis_points_total Points handled by each stage.\n");
+        writer.append("# TYPE tennis_points_total counter\n");
+        for (Stage stage : Stage.values()) {
+            writer.append(String.format("tennis_points_total{stage=\"%s\"} %d\n", stage.getLabel(),
+                    registry.getPointsCount(stage)));
+        }
+        writer.append("# HELP tennis_errors_total Errors raised by each stage, by exception type.\n");
+        writer.append("# TYPE tennis_errors_total counter\n");
+        for (Stage stage : Stage.values()) {
+            for (var error : registry.getErrorsCounts(stage).entrySet()) {
+                writer.append(String.format("tennis_errors_total{stage=\"%s\",type=\"%s\"} %d\n",
+                        stage.getLabel(), error.getKey(), error.getValue()));
+            }
+        }
+        writer.append("# HELP tennis_stage_latency_seconds Time spent by each stage on a game.\n");
+        writer.append("# TYPE tennis_stage_latency_seconds histogram\n");
+        for (Stage stage : Stage.values()) {
+            TennisGameLatencyHistogram histogram = registry.getLatencyHistogram(stage);
+            long count = histogram.getCount();
+            for (int exponent = LOWEST_BUCKET_EXPONENT; exponent <= HIGHEST_BUCKET_EXPONENT; exponent++) {
+                writer.append(String.format(
+                        "tennis_stage_latency_seconds_bucket{stage=\"%s\",le=\"%s\"} %d\n", stage.getLabel(),
+                        seconds(1L << exponent), histogram.getCountBelowPowerOfTwo(exponent)));
+            }
+            writer.append(String.format("tennis_stage_latency_seconds_bucket{stage=\"%s\",le=\"+Inf\"} %d\n",
+                    stage.getLabel(), count));
+            writer.append(String.format("tennis_stage_latency_seconds_sum{stage=\"%s\"} %s\n", stage.getLabel(),
+                    seconds(histogram.getSum())));
+            writer.append(String.format("tennis_stage_latency_seconds_count{stage=\"%s\"} %d\n", stage.getLabel(),
+                    count));
+        }
+        if (cache != null) {
+            writer.append("# HELP tennis_cache_requests_total Look ups of the history cache, by result.\n");
+            writer.append("# TYPE tennis_cache_requests_total counter\n");
+            writer.append(String.format("tennis_cache_requests_total{result=\"hit\"} %d\n", cache.getHitsCount()));
+            writer.append(String.format("tennis_cache_requests_total{result=\"miss\"} %d\n",
+                    cache.getMissesCount()));
+            writer.append("# HELP tennis_cache_evictions_total Entries evicted from the history cache.\n");
+            writer.append("# TYPE tennis_cache_evictions_total counter\n");
+            writer.append(String.format("tennis_cache_evictions_total %d\n", cache.getEvictionsCount()));
+        }
+        if (scheduler != null) {
+            writer.append("# HELP tennis_metrics_export_failures_total Periodic exports of the metrics which failed.\n");
+            writer.append("# TYPE tennis_metrics_export_failures_total counter\n");
+            writer.append(String.format("tennis_metrics_export_failures_total %d\n", failedExports.get()));
+        }
+    }
+
+    /**
+     * Exports from the daemon thread, where an exception would cancel the next
+     * exports.
+     */
+    private void exportPeriodically() {
+        try {
+            export();
+        } catch (RuntimeException e) {
+            failedExports.incrementAndGet();
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+}
@@ -0,0 +1,282 @@
+package kata.tennis.services.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import kata.tennis.domain.TennisGameErrorCode;
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameEvaluationSummary;
+import kata.tennis.domain.TennisGameHistoryResult;
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.domain.state.TennisGameStateColumns;
+import kata.tennis.services.TennisGameBatchProcessorService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+
+/**
+ * Implementation of {@link TennisGameBatchProcessorService} spreading the
+ * histories of a batch over all cores with a parallel stream.
+ * <p>
+ * Each history is processed independently by the
+ * {@link TennisGameHistoryProcessorService}; an error raised by one history is
+ * captured in its own result and does not abort the batch.
+ * </p>
+ */
+public class TennisGameBatchProcessorServiceImpl implements TennisGameBatchProcessorService {
+    // one buffer per thread of a batch, and the merged one
+    private static final int MAX_POOLED_COLUMNS = Runtime.getRuntime().availableProcessors() + 1;
+    // three megabytes, larger buffers are left to the garbage collector
+    private static final int MAX_POOLED_STATES_CAPACITY = 1 << 20;
+
+    private final TennisGameHistoryProcessorService tennisGameHistoryProcessorService;
+    private final TennisGameStatePoolServiceImpl tennisGameStatePoolService;
+    private final Queue<TennisGameStateColumns> columnsPool = new ArrayBlockingQueue<>(MAX_POOLED_COLUMNS);
+
+    /**
+     * Constructs a new instance of {@code TennisGameBatchProcessorServiceImpl}.
+     *
+     * @param tennisGameHistoryProcessorService the service processing each
+     *                                          history of a batch.
+     * @param tennisGameStatePoolService        the service providing the game
+     *                                          rules and the pools of game
+     *                                          states used to fill columns.
+     */
+    public TennisGameBatchProcessorServiceImpl(TennisGameHistoryProcessorService tennisGameHistoryProcessorService,
+            TennisGameStatePoolServiceImpl tennisGameStatePoolService) {
+        this.tennisGameHistoryProcessorService = tennisGameHistoryProcessorService;
+        this.tennisGameStatePoolService = tennisGameStatePoolService;
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameBatchProcessorServiceImpl}
+     * filling columns with the default game rules.
+     *
+     * @param tennisGameHistoryProcessorService the service processing each
+     *                                          history of a batch.
+     */
+    public TennisGameBatchProcessorServiceImpl(TennisGameHistoryProcessorService tennisGameHistoryProcessorService) {
+        this(tennisGameHistoryProcessorService, new TennisGameStatePoolServiceImpl());
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameBatchProcessorServiceImpl}
+     * processing histories and filling columns with the rules of the given
+     * service.
+     *
+     * @param tennisGameStatePoolService the service providing the game rules and
+     *                                   the pools of game states.
+     */
+    public TennisGameBatchProcessorServiceImpl(TennisGameStatePoolServiceImpl tennisGameStatePoolService) {
+        this(new TennisGameHistoryProcessorServiceImpl(tennisGameStatePoolService), tennisGameStatePoolService);
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameBatchProcessorServiceImpl}.
+     * Initializes the {@link TennisGameHistoryProcessorService}.
+     */
+    public TennisGameBatchProcessorServiceImpl() {
+        this(new TennisGameStatePoolServiceImpl());
+    }
+
+    @Override
+    public List<TennisGameHistoryResult<List<TennisGameState>>> generateGameStatesFromHistories(
+            Collection<String> gameHistories) {
+        return process(gameHistories, tennisGameHistoryProcessorService::generateGameStatesFromHistory);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation scores the histories in parallel and hands the results
+     * over in encounter order from the stream threads.
+     * </p>
+     */
+    @Override
+    public void generateGameStatesFromHistories(Collection<String> gameHistories,
+            Consumer<TennisGameHistoryResult<List<TennisGameState>>> resultConsumer) {
+        gameHistories.parallelStream()
+                .map(resultOf(tennisGameHistoryProcessorService::generateGameStatesFromHistory))
+                .forEachOrdered(resultConsumer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation walks every history through the
+     * {@link TennisGameStatePool} of its players and writes the scores of each
+     * point straight into the columns of its thread, without building any
+     * {@link TennisGameState}. The columns of the threads are then appended in
+     * order, and the emptied ones go back to the pool.
+     * </p>
+     * <p>
+     * The pool keeps one buffer per available processor plus one, up to
+     * {@code 2^20} states each: released buffers beyond are dropped.
+     * </p>
+     */
+    @Override
+    public TennisGameStateColumns generateGameStateColumnsFromHistories(Collection<String> gameHistories) {
+        return gameHistories.parallelStream()
+                .collect(this::acquireGameStateColumns, this::fill, (columns, other) -> {
+                    columns.addAll(other);
+                    releaseGameStateColumns(other);
+                });
+    }
+
+    @Override
+    public void releaseGameStateColumns(TennisGameStateColumns columns) {
+        if (columns.getStatesCapacity() > MAX_POOLED_STATES_CAPACITY) {
+            return;
+        }
+        columns.clear();
+        columnsPool.offer(columns);
+    }
+
+    @Override
+    public List<TennisGameHistoryResult<TennisGameOutcome>> evaluateGameHistories(Collection<String> gameHistories) {
+        return process(gameHistories, tennisGameHistoryProcessorService::evaluateGameHistory);
+    }
+
+    @Override
+    public List<TennisGameEvaluation> tryEvaluateGameHistories(Collection<String> gameHistories) {
+        return gameHistories.parallelStream()
+                .map(tennisGameHistoryProcessorService::tryEvaluateGameHistory)
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation accumulates the evaluations of every split of the
+     * stream into plain counters, merged once per split, without keeping any
+     * evaluation.
+     * </p>
+     */
+    @Override
+    public TennisGameEvaluationSummary summarizeGameHistories(Collection<String> gameHistories) {
+        return gameHistories.parallelStream()
+                .collect(Summary::new,
+                        (summary, gameHistory) -> summary.add(
+                                tennisGameHistoryProcessorService.tryEvaluateGameHistory(gameHistory)),
+                        Summary::merge)
+                .toEvaluationSummary();
+    }
+
+    private TennisGameStateColumns acquireGameStateColumns() {
+        TennisGameStateColumns columns = columnsPool.poll();
+        return columns == null ? new TennisGameStateColumns() : columns;
+    }
+
+    /**
+     * Adds the game of a history to the columns, rejecting it as
+     * {@link TennisGameHistoryProcessorService#tryEvaluateGameHistory(CharSequence)}
+     * would.
+     */
+    private void fill(TennisGameStateColumns columns, String gameHistory) {
+        TennisGameState initialGameState = TennisGameHistoryProcessorServiceImpl.detectPlayers(gameHistory);
+        if (initialGameState == null) {
+            columns.addGame((char) 0, (char) 0);
+            columns.rejectGame(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT,
+                    TennisGameHistoryProcessorServiceImpl.unsupportedPlayerPosition(gameHistory));
+            return;
+        }
+        char player1Id = initialGameState.player1().id();
+        char player2Id = initialGameState.player2().id();
+        TennisGameStatePool pool = tennisGameStatePoolService.getPool(player1Id, player2Id);
+        columns.addGame(player1Id, player2Id);
+        int rejectedPosition = pool.walk(gameHistory, (position, index) -> columns.addState(
+                TennisGameStatePool.slotOf(index), TennisGameStatePool.player1ScoreOrdinalOf(index),
+                TennisGameStatePool.player2ScoreOrdinalOf(index)));
+        if (rejectedPosition < gameHistory.length()) {
+            columns.rejectGame(pool.state(lastIndex(columns, rejectedPosition)).isFinished()
+                    ? TennisGameErrorCode.GAME_ALREADY_FINISHED
+                    : TennisGameErrorCode.UNSUPPORTED_GAME_STATUS, rejectedPosition);
+        }
+    }
+
+    /**
+     * @return the index of the last state added to the current game of the
+     *         columns, the initial one if no point was applied.
+     */
+    private static int lastIndex(TennisGameStateColumns columns, int pointsCount) {
+        if (pointsCount == 0) {
+            return TennisGameStatePool.INITIAL_INDEX;
+        }
+        int state = columns.getStatesCount() - 1;
+        return TennisGameStatePool.indexOf(columns.getWinnerSlots()[state], columns.getPlayer1ScoreOrdinals()[state],
+                columns.getPlayer2ScoreOrdinals()[state]);
+    }
+
+    /**
+     * Applies the given processing to every history in parallel, keeping the
+     * encounter order of the collection in the returned list.
+     */
+    private static <T> List<TennisGameHistoryResult<T>> process(Collection<String> gameHistories,
+            Function<String, T> processing) {
+        return gameHistories.parallelStream()
+                .map(resultOf(processing))
+                .toList();
+    }
+
+    /**
+     * @return a function capturing the value of the processing of a history, or
+     *         the error it raised, in a result.
+     */
+    private static <T> Function<String, TennisGameHistoryResult<T>> resultOf(Function<String, T> processing) {
+        return gameHistory -> {
+            try {
+                return new TennisGameHistoryResult<>(gameHistory, processing.apply(gameHistory), null);
+            } catch (RuntimeException e) {
+                return new TennisGameHistoryResult<T>(gameHistory, null, e);
+            }
+        };
+    }
+
+    /**
+     * Mutable counters of the evaluations of a split of the stream.
+     */
+    private static final class Summary {
+        private static final TennisGameErrorCode[] ERROR_CODES = TennisGameErrorCode.values();
+
+        private long gamesCount;
+        private long finishedGamesCount;
+        private long pointsCount;
+        private final long[] errorsCounts = new long[ERROR_CODES.length];
+
+        void add(TennisGameEvaluation evaluation) {
+            gamesCount++;
+            if (!evaluation.isSuccess()) {
+                errorsCounts[evaluation.errorCode().ordinal()]++;
+                return;
+            }
+            if (evaluation.outcome().isFinished()) {
+                finishedGamesCount++;
+            }
+            pointsCount += evaluation.outcome().pointsCount();
+        }
+
+        void merge(Summary other) {
+            gamesCount += other.gamesCount;
+            finishedGamesCount += other.finishedGamesCount;
+            pointsCount += other.pointsCount;
+            for (int i = 0; i < errorsCounts.length; i++) {
+                errorsCounts[i] += other.errorsCounts[i];
+            }
+        }
+
+        TennisGameEvaluationSummary toEvaluationSummary() {
+            Map<TennisGameErrorCode, Long> errors = new EnumMap<>(TennisGameErrorCode.class);
+            for (TennisGameErrorCode errorCode : ERROR_CODES) {
+                errors.put(errorCode, errorsCounts[errorCode.ordinal()]);
+            }
+            return new TennisGameEvaluationSummary(gamesCount, finishedGamesCount, pointsCount,
+                    Collections.unmodifiableMap(errors));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
+
+/**
+ * Implementation of {@link TennisGameOutputSink} writing to a
+ * {@link WritableByteChannel}, such as a {@link java.nio.channels.FileChannel}
+ * or a pipe, through a large direct buffer.
+ */
+public class TennisGameChannelOutputSinkImpl extends AbstractTennisGameOutputSink {
+    /**
+     * Default capacity of the direct buffer, 1 MiB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs a new instance of {@code TennisGameChannelOutputSinkImpl}.
+     *
+     * @param channel     the channel the lines are written to, closed with the
+     *                    sink.
+     * @param bufferSize  the capacity of the direct buffer.
+     * @param flushPolicy the policy deciding when the buffer is written.
+     */
+    public TennisGameChannelOutputSinkImpl(WritableByteChannel channel, int bufferSize,
+            TennisGameOutputFlushPolicy flushPolicy) {
+        super(flushPolicy);
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameChannelOutputSinkImpl} with a
+     * buffer of {@link #DEFAULT_BUFFER_SIZE}.
+     *
+     * @param channel     the channel the lines are written to, closed with the
+     *                    sink.
+     * @param flushPolicy the policy deciding when the buffer is written.
+     */
+    public TennisGameChannelOutputSinkImpl(WritableByteChannel channel, TennisGameOutputFlushPolicy flushPolicy) {
+        this(channel, DEFAULT_BUFFER_SIZE, flushPolicy);
+    }
+
+    @Override
+    protected int remaining() {
+        return buffer.remaining();
+    }
+
+    @Override
+    protected int buffered() {
+        return buffer.position();
+    }
+
+    @Override
+    protected void buffer(byte[] line) {
+        buffer.put(line);
+    }
+
+    @Override
+    protected void drain() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            // keeps the bytes left by a failed write
+            buffer.compact();
+        }
+    }
+
+    @Override
+    protected void writeDirectly(byte[] line) throws IOException {
+        ByteBuffer wrapped = ByteBuffer.wrap(line);
+        while (wrapped.hasRemaining()) {
+            channel.write(wrapped);
+        }
+    }
+
+    @Override
+    protected void flushDestination() {
+        // channels do not buffer on their own
+    }
+
+    @Override
+    protected void closeDestination() throws IOException {
+        channel.close();
+    }
+}
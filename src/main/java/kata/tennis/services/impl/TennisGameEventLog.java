@@ -0,0 +1,476 @@
+package kata.tennis.services.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+
+/**
+ * Append-only log of the events of live games, written to memory mapped
+ * segment files, with snapshots of the states of the games.
+ * <p>
+ * Every event is a record holding its type, its sequence number in the log,
+ * the match identifier and up to two player identifiers, followed by the CRC32
+ * of its content. A record is written to the mapped segment before its length,
+ * so a record cut by a crash is never read back: {@link #replay(long, Consumer)}
+ * stops at the first record whose length, checksum or sequence number is not
+ * the expected one, and the log is appended from there. Segments have a fixed
+ * size and are named after the sequence number of their first record.
+ * </p>
+ * <p>
+ * A snapshot holds the states of the games once the events up to a sequence
+ * number are applied. Writing a snapshot deletes the older snapshots and the
+ * segments it covers entirely, so that recovery only reads the latest snapshot
+ * and replays the events following it.
+ * </p>
+ * <p>
+ * Records reach the page cache as soon as they are appended, which survives a
+ * crash of the process. They are forced to the storage device every
+ * {@code syncInterval} records, right when appended with an interval of one,
+ * which survives a crash of the machine. A greater interval groups the forces
+ * of consecutive records, at the risk of losing the last
+ * {@code syncInterval - 1} records in such a crash. Records are also forced
+ * when a segment is full, when a snapshot is written, on {@link #force()} and
+ * on {@link #close()}.
+ * </p>
+ */
+final class TennisGameEventLog implements Closeable {
+    /**
+     * Sequence number preceding the first record of the log.
+     */
+    static final long NO_SEQUENCE = -1;
+    static final byte OPEN = 1;
+    static final byte POINT = 2;
+    static final byte CLOSE = 3;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SUFFIX = ".log";
+    // type, sequence number, both player identifiers and the match identifier length
+    private static final int FIXED_CONTENT_SIZE = Byte.BYTES + Long.BYTES + 2 * Character.BYTES + Short.BYTES;
+    private static final TennisScore[] SCORES = TennisScore.values();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int syncInterval;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    // start of the records of the segment not forced yet, and their count
+    private int forcedPosition;
+    private int unforcedCount;
+
+    /**
+     * Event of the log.
+     *
+     * @param firstId  the winner of a point, or the first player of an opened
+     *                 game.
+     * @param secondId the second player of an opened game.
+     */
+    record Entry(
+            byte type,
+            long sequence,
+            String matchId,
+            char firstId,
+            char secondId) {
+    }
+
+    /**
+     * States of the games once the events up to a sequence number are applied.
+     */
+    record Snapshot(
+            long sequence,
+            Map<String, TennisGameState> games) {
+    }
+
+    /**
+     * Opens the log of the given directory, created if needed.
+     * {@link #replay(long, Consumer)} must be called before appending.
+     *
+     * @param directory   the directory of the segments and snapshots.
+     * @param segmentSize  the size of a segment in bytes.
+     * @param syncInterval the number of records appended between two forces
+     *                     to the storage device, at least one.
+     * @throws UncheckedIOException if the directory cannot be read.
+     */
+    TennisGameEventLog(Path directory, int segmentSize, int syncInterval) throws UncheckedIOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncInterval = Math.max(1, syncInterval);
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(file -> {
+                    Long firstSequence = sequenceOf(file, SEGMENT_PREFIX);
+                    if (firstSequence != null) {
+                        segments.put(firstSequence, file);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the latest snapshot of the log.
+     *
+     * @return the latest snapshot, or {@code null} if none was written.
+     * @throws UncheckedIOException if the snapshot cannot be read or is corrupted.
+     */
+    Snapshot readSnapshot() throws UncheckedIOException {
+        try {
+            Path latest = null;
+            long latestSequence = NO_SEQUENCE;
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Long sequence = sequenceOf(file, SNAPSHOT_PREFIX);
+                    if (sequence != null && (latest == null || sequence > latestSequence)) {
+                        latest = file;
+                        latestSequence = sequence;
+                    }
+                }
+            }
+            return latest == null ? null : readSnapshot(latest, latestSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replays the valid records of the log and prepares it for appending after
+     * the last of them. Segments following an invalid record are deleted.
+     *
+     * @param afterSequence the sequence number of the last record already
+     *                      applied, e.g. by a snapshot, or {@link #NO_SEQUENCE}.
+     * @param consumer      the consumer of the records following it.
+     * @throws UncheckedIOException if a segment cannot be read or written.
+     */
+    synchronized void replay(long afterSequence, Consumer<Entry> consumer) throws UncheckedIOException {
+        try {
+            long expectedSequence = NO_SEQUENCE;
+            Map.Entry<Long, Path> current = null;
+            int end = 0;
+            for (Map.Entry<Long, Path> candidate : new ArrayList<>(segments.entrySet())) {
+                if (current != null && candidate.getKey() != expectedSequence) {
+                    // a gap, the records from here on cannot be applied
+                    segments.remove(candidate.getKey());
+                    Files.delete(candidate.getValue());
+                    continue;
+                }
+                current = candidate;
+                if (expectedSequence == NO_SEQUENCE) {
+                    expectedSequence = candidate.getKey();
+                }
+                try (FileChannel segmentChannel = FileChannel.open(candidate.getValue(), StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0,
+                            segmentChannel.size());
+                    end = 0;
+                    Entry entry;
+                    while ((entry = read(buffer, end, expectedSequence)) != null) {
+                        if (entry.sequence() > afterSequence) {
+                            consumer.accept(entry);
+                        }
+                        end += recordSize(entry.matchId().getBytes(StandardCharsets.UTF_8).length);
+                        expectedSequence++;
+                    }
+                }
+            }
+            nextSequence = Math.max(expectedSequence, afterSequence + 1);
+            if (current == null) {
+                openSegment(nextSequence);
+            } else {
+                channel = FileChannel.open(current.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+                if (end + Integer.BYTES <= segment.limit() && segment.getInt(end) != 0) {
+                    // clears what remains of a record cut by a crash
+                    byte[] zeros = new byte[Math.min(segment.limit() - end, 1 << 16)];
+                    for (int i = end; i < segment.limit(); i += zeros.length) {
+                        segment.put(i, zeros, 0, Math.min(zeros.length, segment.limit() - i));
+                    }
+                }
+                segment.position(end);
+                forcedPosition = end;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Appends a record to the log, and forces the records not forced yet once
+     * they are {@code syncInterval}.
+     *
+     * @param type     the type of the event.
+     * @param matchId  the identifier of the match.
+     * @param firstId  the winner of a point, or the first player of an opened
+     *                 game.
+     * @param secondId the second player of an opened game.
+     * @return the sequence number of the record.
+     * @throws IllegalArgumentException if the record does not fit in a segment.
+     * @throws IllegalStateException    if the log is not replayed yet, or closed.
+     * @throws UncheckedIOException     if a new segment cannot be created, or
+     *                                  the records cannot be forced.
+     */
+    synchronized long append(byte type, String matchId, char firstId, char secondId)
+            throws IllegalArgumentException, UncheckedIOException {
+        if (channel == null) {
+            throw new IllegalStateException("the log must be replayed before appending, and not closed");
+        }
+        byte[] matchIdBytes = checkMatchId(matchId);
+        int recordSize = recordSize(matchIdBytes.length);
+        if (segment.remaining() < recordSize + Integer.BYTES) {
+            try {
+                segment.force();
+                channel.close();
+                openSegment(nextSequence);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long sequence = nextSequence++;
+        int start = segment.position();
+        int contentStart = start + Integer.BYTES;
+        segment.put(contentStart, type)
+                .putLong(contentStart + 1, sequence)
+                .putChar(contentStart + 9, firstId)
+                .putChar(contentStart + 11, secondId)
+                .putShort(contentStart + 13, (short) matchIdBytes.length)
+                .put(contentStart + FIXED_CONTENT_SIZE, matchIdBytes);
+        int contentSize = FIXED_CONTENT_SIZE + matchIdBytes.length;
+        segment.putInt(contentStart + contentSize, checksum(segment, contentStart, contentSize));
+        // the length comes last, a record is only read back once complete
+        segment.putInt(start, contentSize);
+        segment.position(start + recordSize);
+        if (++unforcedCount >= syncInterval) {
+            forceAppended();
+        }
+        return sequence;
+    }
+
+    /**
+     * Checks that the records of the given match fit in a segment.
+     *
+     * @param matchId the identifier of the match.
+     * @return the UTF-8 bytes of the match identifier.
+     * @throws IllegalArgumentException if the records do not fit in a segment.
+     */
+    byte[] checkMatchId(String matchId) throws IllegalArgumentException {
+        byte[] matchIdBytes = matchId.getBytes(StandardCharsets.UTF_8);
+        // a record is always followed by room for the zero length ending a segment
+        if (matchIdBytes.length > Short.MAX_VALUE
+                || recordSize(matchIdBytes.length) + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException(String.format("match id '%s' is too long", matchId));
+        }
+        return matchIdBytes;
+    }
+
+    /**
+     * @return the sequence number of the last record appended or replayed, or
+     *         {@link #NO_SEQUENCE}.
+     */
+    synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * Writes a snapshot of the states of the games, then deletes the older
+     * snapshots and the segments it covers.
+     *
+     * @param sequence the sequence number of the last record applied to the
+     *                 states.
+     * @param games    the states of the games, by match identifier.
+     * @throws UncheckedIOException if the snapshot cannot be written.
+     */
+    synchronized void writeSnapshot(long sequence, Map<String, TennisGameState> games) throws UncheckedIOException {
+        try {
+            forceAppended();
+            Path file = directory.resolve(fileName(SNAPSHOT_PREFIX, sequence));
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = encode(sequence, games);
+                while (buffer.hasRemaining()) {
+                    snapshotChannel.write(buffer);
+                }
+                snapshotChannel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path older : files.toList()) {
+                    Long olderSequence = sequenceOf(older, SNAPSHOT_PREFIX);
+                    if (olderSequence != null && olderSequence < sequence) {
+                        Files.delete(older);
+                    }
+                }
+            }
+            // a segment is covered once the next one starts at most right after the snapshot
+            while (segments.size() > 1 && segments.higherKey(segments.firstKey()) <= sequence + 1) {
+                Files.delete(segments.pollFirstEntry().getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forces the appended records to the storage device.
+     */
+    synchronized void force() {
+        forceAppended();
+    }
+
+    @Override
+    public synchronized void close() throws UncheckedIOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            segment.force();
+            channel.close();
+            channel = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(fileName(SEGMENT_PREFIX, firstSequence));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segments.put(firstSequence, file);
+        forcedPosition = 0;
+        unforcedCount = 0;
+    }
+
+    /**
+     * Forces the records appended to the segment since the last force.
+     */
+    private void forceAppended() {
+        int position = segment.position();
+        if (position > forcedPosition) {
+            segment.force(forcedPosition, position - forcedPosition);
+        }
+        forcedPosition = position;
+        unforcedCount = 0;
+    }
+
+    /**
+     * Reads the record at the given position of a segment.
+     *
+     * @return the record, or {@code null} at the end of the records of the
+     *         segment, or at an invalid record.
+     */
+    private Entry read(ByteBuffer buffer, int position, long expectedSequence) {
+        if (position + Integer.BYTES > buffer.limit()) {
+            return null;
+        }
+        int contentSize = buffer.getInt(position);
+        int contentStart = position + Integer.BYTES;
+        if (contentSize < FIXED_CONTENT_SIZE || contentStart + contentSize + Integer.BYTES > buffer.limit()
+                || checksum(buffer, contentStart, contentSize) != buffer.getInt(contentStart + contentSize)
+                || buffer.getLong(contentStart + 1) != expectedSequence) {
+            return null;
+        }
+        byte[] matchIdBytes = new byte[buffer.getShort(contentStart + 13)];
+        buffer.get(contentStart + FIXED_CONTENT_SIZE, matchIdBytes);
+        return new Entry(buffer.get(contentStart), expectedSequence, new String(matchIdBytes, StandardCharsets.UTF_8),
+                buffer.getChar(contentStart + 9), buffer.getChar(contentStart + 11));
+    }
+
+    private int checksum(ByteBuffer buffer, int start, int size) {
+        crc.reset();
+        crc.update(buffer.slice(start, size));
+        return (int) crc.getValue();
+    }
+
+    private static int recordSize(int matchIdSize) {
+        return Integer.BYTES + FIXED_CONTENT_SIZE + matchIdSize + Integer.BYTES;
+    }
+
+    private ByteBuffer encode(long sequence, Map<String, TennisGameState> games) {
+        List<byte[]> matchIds = new ArrayList<>(games.size());
+        int size = Long.BYTES + Integer.BYTES;
+        for (String matchId : games.keySet()) {
+            byte[] matchIdBytes = matchId.getBytes(StandardCharsets.UTF_8);
+            matchIds.add(matchIdBytes);
+            size += Short.BYTES + matchIdBytes.length + 3 * Character.BYTES + 2;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size + Integer.BYTES);
+        buffer.putLong(sequence).putInt(games.size());
+        int i = 0;
+        for (TennisGameState state : games.values()) {
+            byte[] matchIdBytes = matchIds.get(i++);
+            Character currentWinnerId = state.currentWinnerId();
+            buffer.putShort((short) matchIdBytes.length)
+                    .put(matchIdBytes)
+                    .putChar(currentWinnerId == null ? 0 : currentWinnerId)
+                    .putChar(state.player1().id())
+                    .put((byte) state.player1().tennisScore().ordinal())
+                    .putChar(state.player2().id())
+                    .put((byte) state.player2().tennisScore().ordinal());
+        }
+        buffer.putInt(checksum(buffer, 0, size));
+        return buffer.flip();
+    }
+
+    private Snapshot readSnapshot(Path file, long sequence) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int size = buffer.limit() - Integer.BYTES;
+        if (size < Long.BYTES + Integer.BYTES || checksum(buffer, 0, size) != buffer.getInt(size)
+                || buffer.getLong() != sequence) {
+            throw new IOException(String.format("snapshot '%s' is corrupted", file));
+        }
+        int gamesCount = buffer.getInt();
+        Map<String, TennisGameState> games = new LinkedHashMap<>(gamesCount * 4 / 3 + 1);
+        for (int i = 0; i < gamesCount; i++) {
+            byte[] matchIdBytes = new byte[buffer.getShort()];
+            buffer.get(matchIdBytes);
+            char currentWinnerId = buffer.getChar();
+            TennisPlayer player1 = new TennisPlayer(buffer.getChar(), SCORES[buffer.get()]);
+            TennisPlayer player2 = new TennisPlayer(buffer.getChar(), SCORES[buffer.get()]);
+            games.put(new String(matchIdBytes, StandardCharsets.UTF_8),
+                    new TennisGameState(currentWinnerId == 0 ? null : currentWinnerId, player1, player2));
+        }
+        return new Snapshot(sequence, games);
+    }
+
+    private static String fileName(String prefix, long sequence) {
+        return String.format("%s%020d%s", prefix, sequence, SUFFIX);
+    }
+
+    /**
+     * @return the sequence number in the name of the given file, or
+     *         {@code null} if it is not a file of the given kind.
+     */
+    private static Long sequenceOf(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(SUFFIX)) {
+            return null;
+        }
+        return Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,173 @@
+package kata.tennis.services.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded concurrent cache of the {@link TennisGameStatePool} indices of the
+ * states of short game histories, keyed by their canonical form.
+ * <p>
+ * The canonical form of a history only tells, point after point, whether the
+ * first or the second player of the game won it, so that histories played by
+ * different players share an entry: {@code XXYX} and {@code AABA} both are
+ * {@code 0010}. Pool indices are expressed the same way, and are bound back to
+ * the actual players through their pool.
+ * </p>
+ * <p>
+ * Entries are spread over independently locked stripes, each one evicting its
+ * least recently used entry once full. Hits, misses and evictions are counted.
+ * </p>
+ */
+public final class TennisGameHistoryCache {
+    /**
+     * Default maximum number of entries of the cache.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    /**
+     * Maximum number of points of a cached history.
+     */
+    public static final int MAX_HISTORY_LENGTH = Long.SIZE - 2;
+    /**
+     * Key of a history too long to be cached.
+     */
+    public static final long NO_KEY = -1;
+
+    private static final int STRIPES_COUNT = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES_COUNT];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new cache.
+     *
+     * @param capacity the maximum number of entries of the cache, rounded up to
+     *                 a multiple of the number of stripes.
+     */
+    public TennisGameHistoryCache(int capacity) {
+        int stripeCapacity = Math.max(1, (capacity + STRIPES_COUNT - 1) / STRIPES_COUNT);
+        for (int i = 0; i < STRIPES_COUNT; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    /**
+     * Constructs a new cache of {@link #DEFAULT_CAPACITY} entries.
+     */
+    public TennisGameHistoryCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Computes the canonical key of a history whose players are validated.
+     *
+     * @param pool        the pool of the players of the history.
+     * @param gameHistory the history.
+     * @return the key of the history, or {@link #NO_KEY} if it has more than
+     *         {@link #MAX_HISTORY_LENGTH} points.
+     */
+    static long keyOf(TennisGameStatePool pool, CharSequence gameHistory) {
+        int length = gameHistory.length();
+        if (length > MAX_HISTORY_LENGTH) {
+            return NO_KEY;
+        }
+        // a leading one bit tells histories of different lengths apart
+        long key = 1;
+        for (int point = 0; point < length; point++) {
+            key = key << 1 | (gameHistory.charAt(point) == pool.player1Id() ? 0 : 1);
+        }
+        return key;
+    }
+
+    /**
+     * Returns the pool indices of the states of the history of the given key,
+     * and marks the entry as the most recently used of its stripe.
+     *
+     * @param key the canonical key of the history.
+     * @return the shared indices, which must not be modified, or {@code null}
+     *         on a miss.
+     */
+    byte[] get(long key) {
+        byte[] indices = stripeOf(key).get(key);
+        if (indices == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return indices;
+    }
+
+    /**
+     * Caches the pool indices of the states of the history of the given key,
+     * evicting the least recently used entry of its stripe if full.
+     *
+     * @param key     the canonical key of the history.
+     * @param indices the indices, which must not be modified afterwards.
+     */
+    void put(long key, byte[] indices) {
+        stripeOf(key).put(key, indices);
+    }
+
+    public long getHitsCount() {
+        return hits.sum();
+    }
+
+    public long getMissesCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionsCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of entries of the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(long key) {
+        // spreads the low bits, shared by histories ending alike
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> (Long.SIZE - Integer.numberOfTrailingZeros(STRIPES_COUNT)))];
+    }
+
+    /**
+     * Least recently used map of a stripe, locked as a whole.
+     */
+    private final class Stripe {
+        private final Map<Long, byte[]> entries;
+
+        private Stripe(int capacity) {
+            this.entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized byte[] get(long key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(long key, byte[] indices) {
+            entries.put(key, indices);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import kata.tennis.domain.TennisGameHistoryLineResult;
+import kata.tennis.services.TennisGameHistoryFileProcessorService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+
+/**
+ * Implementation of {@link TennisGameHistoryFileProcessorService} reading the
+ * histories straight from memory mapped chunks of the file.
+ * <p>
+ * The file is split into line aligned chunks which are mapped a window of
+ * chunks at a time. The chunks of a window are cut into blocks of at most
+ * {@link #LINES_PER_BLOCK} lines, which are evaluated in parallel a round of
+ * {@link #BLOCKS_PER_ROUND} blocks at a time and handed over in line order.
+ * Whatever the chunk size and the length of the lines, at most
+ * {@code LINES_PER_BLOCK * BLOCKS_PER_ROUND} results are then held in memory,
+ * plus the offsets of the blocks of a window. Each
+ * line is handed to the {@link TennisGameHistoryProcessorService} as a
+ * {@link CharSequence} view over the mapped bytes, without creating any
+ * {@link String}. Lines are delimited by {@code '\n'}, an optional trailing
+ * {@code '\r'} being ignored. Lines are evaluated without exceptions, an
+ * invalid line being reported with its error code and the position of the
+ * offending point.
+ * </p>
+ */
+public class TennisGameHistoryFileProcessorServiceImpl implements TennisGameHistoryFileProcessorService {
+    /**
+     * Default size of the chunks the file is split into, 64 MiB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+    /**
+     * Maximum number of lines of a block, the unit of parallel evaluation.
+     */
+    static final int LINES_PER_BLOCK = 1 << 12;
+    /**
+     * Number of blocks evaluated in parallel before their results are handed
+     * over.
+     */
+    static final int BLOCKS_PER_ROUND = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final TennisGameHistoryProcessorService tennisGameHistoryProcessorService;
+    private final int chunkSize;
+
+    /**
+     * Constructs a new instance of
+     * {@code TennisGameHistoryFileProcessorServiceImpl}.
+     *
+     * @param tennisGameHistoryProcessorService the service evaluating each line.
+     * @param chunkSize                         the maximum size in bytes of the
+     *                                          chunks evaluated in parallel, a
+     *                                          line must fit in a chunk.
+     */
+    public TennisGameHistoryFileProcessorServiceImpl(
+            TennisGameHistoryProcessorService tennisGameHistoryProcessorService, int chunkSize) {
+        this.tennisGameHistoryProcessorService = tennisGameHistoryProcessorService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Constructs a new instance of
+     * {@code TennisGameHistoryFileProcessorServiceImpl} with chunks of
+     * {@link #DEFAULT_CHUNK_SIZE}.
+     *
+     * @param tennisGameHistoryProcessorService the service evaluating each line.
+     */
+    public TennisGameHistoryFileProcessorServiceImpl(
+            TennisGameHistoryProcessorService tennisGameHistoryProcessorService) {
+        this(tennisGameHistoryProcessorService, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new instance of
+     * {@code TennisGameHistoryFileProcessorServiceImpl}.
+     * Initializes the {@link TennisGameHistoryProcessorService}.
+     */
+    public TennisGameHistoryFileProcessorServiceImpl() {
+        this(new TennisGameHistoryProcessorServiceImpl());
+    }
+
+    @Override
+    public void evaluateGameHistoryFile(Path gameHistoriesFile, Consumer<TennisGameHistoryLineResult> resultConsumer)
+            throws UncheckedIOException {
+        try (FileChannel channel = FileChannel.open(gameHistoriesFile, StandardOpenOption.READ)) {
+            List<MappedByteBuffer> chunks = splitIntoLineAlignedChunks(channel);
+            int window = Runtime.getRuntime().availableProcessors();
+            long firstLineNumber = 1;
+            for (int from = 0; from < chunks.size(); from += window) {
+                List<ChunkBlocks> windowChunks = chunks.subList(from, Math.min(chunks.size(), from + window))
+                        .parallelStream()
+                        .map(TennisGameHistoryFileProcessorServiceImpl::splitIntoBlocks)
+                        .toList();
+                List<Block> blocks = new ArrayList<>();
+                for (ChunkBlocks chunkBlocks : windowChunks) {
+                    int[] starts = chunkBlocks.blockStarts();
+                    for (int i = 0; i < starts.length - 1; i++) {
+                        blocks.add(new Block(chunkBlocks.chunk(), starts[i], starts[i + 1],
+                                firstLineNumber + (long) i * LINES_PER_BLOCK));
+                    }
+                    firstLineNumber += chunkBlocks.linesCount();
+                }
+                for (int round = 0; round < blocks.size(); round += BLOCKS_PER_ROUND) {
+                    blocks.subList(round, Math.min(blocks.size(), round + BLOCKS_PER_ROUND))
+                            .parallelStream()
+                            .map(this::evaluateBlock)
+                            .toList()
+                            .forEach(results -> results.forEach(resultConsumer));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps the file as consecutive chunks of at most {@code chunkSize} bytes,
+     * each one ending right after a line delimiter (or at the end of the file).
+     */
+    private List<MappedByteBuffer> splitIntoLineAlignedChunks(FileChannel channel) throws IOException {
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        long size = channel.size();
+        long start = 0;
+        while (start < size) {
+            long length = Math.min(chunkSize, size - start);
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            if (start + length < size) {
+                int end = (int) length - 1;
+                while (end >= 0 && chunk.get(end) != '\n') {
+                    end--;
+                }
+                if (end < 0) {
+                    throw new IOException(String.format(
+                            "line starting at byte %d is longer than the chunk size of %d bytes", start, chunkSize));
+                }
+                length = end + 1;
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            }
+            chunks.add(chunk);
+            start += length;
+        }
+        return chunks;
+    }
+
+    /**
+     * Finds the offsets of the blocks of a chunk, every {@link #LINES_PER_BLOCK}
+     * lines, and counts its lines.
+     */
+    private static ChunkBlocks splitIntoBlocks(MappedByteBuffer chunk) {
+        int limit = chunk.limit();
+        int[] blockStarts = new int[16];
+        int blocksCount = 0;
+        int linesCount = 0;
+        int lineStart = 0;
+        while (lineStart < limit) {
+            if (linesCount % LINES_PER_BLOCK == 0) {
+                if (blocksCount == blockStarts.length) {
+                    blockStarts = Arrays.copyOf(blockStarts, blocksCount * 2);
+                }
+                blockStarts[blocksCount++] = lineStart;
+            }
+            int lineEnd = lineStart;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            linesCount++;
+            lineStart = lineEnd + 1;
+        }
+        // the end of the last block, past the delimiter of the last line
+        blockStarts = Arrays.copyOf(blockStarts, blocksCount + 1);
+        blockStarts[blocksCount] = Math.min(lineStart, limit);
+        return new ChunkBlocks(chunk, blockStarts, linesCount);
+    }
+
+    private List<TennisGameHistoryLineResult> evaluateBlock(Block block) {
+        MappedByteBuffer chunk = block.chunk();
+        List<TennisGameHistoryLineResult> results = new ArrayList<>(LINES_PER_BLOCK);
+        AsciiCharSequence line = new AsciiCharSequence(chunk);
+        int end = block.end();
+        int lineStart = block.start();
+        long lineNumber = block.firstLineNumber();
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            line.reset(lineStart, contentEnd - lineStart);
+            // invalid lines are routine, they are rejected without exceptions
+            results.add(TennisGameHistoryLineResult.of(lineNumber,
+                    tennisGameHistoryProcessorService.tryEvaluateGameHistory(line)));
+            lineNumber++;
+            lineStart = lineEnd + 1;
+        }
+        return results;
+    }
+
+    /**
+     * Offsets of the blocks of a chunk, followed by the end of the last one.
+     */
+    private record ChunkBlocks(MappedByteBuffer chunk, int[] blockStarts, int linesCount) {
+    }
+
+    /**
+     * Lines of a chunk from {@code start} (included) to {@code end} (excluded).
+     */
+    private record Block(MappedByteBuffer chunk, int start, int end, long firstLineNumber) {
+    }
+}
@@ -0,0 +1,170 @@
+package kata.tennis.services.impl;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryIndex;
+import kata.tennis.services.TennisGameHistoryIndexService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Implementation of {@link TennisGameHistoryIndexService} keeping periodic
+ * checkpoints of the game states.
+ * <p>
+ * The history is walked once through the {@link TennisGameStatePool} of its
+ * players, and the pool index of the state is kept, as a single byte, every
+ * {@code checkpointInterval} points. The state at any point is then replayed
+ * from the closest preceding checkpoint, in at most
+ * {@code checkpointInterval} transitions, and is the shared canonical state of
+ * the pool.
+ * </p>
+ */
+public class TennisGameHistoryIndexServiceImpl implements TennisGameHistoryIndexService {
+    /**
+     * Default number of points between two checkpoints.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 64;
+
+    private final TennisGameStatePoolServiceImpl tennisGameStatePoolService;
+    private final int checkpointInterval;
+
+    /**
+     * Constructs a new instance of {@code TennisGameHistoryIndexServiceImpl}.
+     *
+     * @param tennisGameStatePoolService the service providing the game rules and
+     *                                   the pools of game states.
+     * @param checkpointInterval         the number of points between two
+     *                                   checkpoints, at least one.
+     */
+    public TennisGameHistoryIndexServiceImpl(TennisGameStatePoolServiceImpl tennisGameStatePoolService,
+            int checkpointInterval) {
+        this.tennisGameStatePoolService = tennisGameStatePoolService;
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameHistoryIndexServiceImpl} with
+     * a checkpoint every {@link #DEFAULT_CHECKPOINT_INTERVAL} points.
+     */
+    public TennisGameHistoryIndexServiceImpl() {
+        this(new TennisGameStatePoolServiceImpl(), DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation validates the players up front, as
+     * {@link TennisGameHistoryProcessorServiceImpl} does, and the rules report
+     * the first point played after the end of the game.
+     * </p>
+     */
+    @Override
+    public TennisGameHistoryIndex indexGameHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        TennisGameState initialGameState = TennisGameHistoryProcessorServiceImpl
+                .generateInitialGameStateFromHistory(gameHistory);
+        TennisGameStatePool pool = tennisGameStatePoolService.getPool(initialGameState.player1().id(),
+                initialGameState.player2().id());
+        int pointsCount = gameHistory.length();
+        byte[] checkpoints = new byte[(pointsCount + checkpointInterval - 1) / checkpointInterval];
+        int index = pool.indexOf(pool.initialState());
+        for (int point = 0; point < pointsCount; point++) {
+            if (point % checkpointInterval == 0) {
+                checkpoints[point / checkpointInterval] = (byte) index;
+            }
+            int next = pool.next(index, ParallelTennisGameHistoryProcessorServiceImpl.winnerSlot(pool,
+                    gameHistory.charAt(point)));
+            if (next == TennisGameStatePool.NO_STATE) {
+                tennisGameStatePoolService.getNextGameState(pool.state(index), gameHistory.charAt(point));
+            }
+            index = next;
+        }
+        return new CheckpointTennisGameHistoryIndex(pool, gameHistory, checkpoints);
+    }
+
+    /**
+     * Index holding the pool index of the state preceding every
+     * {@code checkpointInterval}-th point.
+     */
+    private final class CheckpointTennisGameHistoryIndex implements TennisGameHistoryIndex {
+        private final TennisGameStatePool pool;
+        private final CharSequence gameHistory;
+        private final byte[] checkpoints;
+
+        private CheckpointTennisGameHistoryIndex(TennisGameStatePool pool, CharSequence gameHistory,
+                byte[] checkpoints) {
+            this.pool = pool;
+            this.gameHistory = gameHistory;
+            this.checkpoints = checkpoints;
+        }
+
+        @Override
+        public int getPointsCount() {
+            return gameHistory.length();
+        }
+
+        @Override
+        public TennisGameState getGameStateAt(int point) throws IndexOutOfBoundsException {
+            Objects.checkIndex(point, gameHistory.length());
+            return pool.state(indexAt(point));
+        }
+
+        @Override
+        public List<TennisGameState> getGameStates(int fromPoint, int toPoint) throws IndexOutOfBoundsException {
+            Objects.checkFromToIndex(fromPoint, toPoint, gameHistory.length());
+            return new GameStatesSlice(fromPoint, toPoint);
+        }
+
+        private int indexAt(int point) {
+            int checkpoint = point / checkpointInterval;
+            int index = checkpoints[checkpoint] & 0xFF;
+            for (int replayed = checkpoint * checkpointInterval; replayed <= point; replayed++) {
+                index = next(index, replayed);
+            }
+            return index;
+        }
+
+        private int next(int index, int point) {
+            return pool.next(index, ParallelTennisGameHistoryProcessorServiceImpl.winnerSlot(pool,
+                    gameHistory.charAt(point)));
+        }
+
+        /**
+         * View of the states of a slice of the history, remembering the last
+         * state read so that reading the slice in order costs one transition per
+         * state.
+         */
+        private final class GameStatesSlice extends AbstractList<TennisGameState> implements RandomAccess {
+            private final int fromPoint;
+            private final int toPoint;
+            private int lastPoint = -1;
+            private int lastIndex;
+
+            private GameStatesSlice(int fromPoint, int toPoint) {
+                this.fromPoint = fromPoint;
+                this.toPoint = toPoint;
+            }
+
+            @Override
+            public synchronized TennisGameState get(int position) {
+                int point = fromPoint + Objects.checkIndex(position, size());
+                if (point == lastPoint + 1 && lastPoint != -1) {
+                    lastIndex = next(lastIndex, point);
+                } else if (point != lastPoint) {
+                    lastIndex = indexAt(point);
+                }
+                lastPoint = point;
+                return pool.state(lastIndex);
+            }
+
+            @Override
+            public int size() {
+                return toPoint - fromPoint;
+            }
+        }
+    }
+}
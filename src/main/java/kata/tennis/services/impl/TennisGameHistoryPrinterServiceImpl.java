@@ -1,11 +1,20 @@
 package kata.tennis.services.impl;
 
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import kata.tennis.domain.TennisGameOutcome;
 import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
 import kata.tennis.domain.state.TennisGameState;
 import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
 
 /**
  * Implementation of {@link TennisGameHistoryPrinterService} that prints the
@@ -16,16 +25,70 @@ import kata.tennis.services.TennisGameHistoryPrinterService;
  * processing game states,
  * thereby improving maintainability and readability of the code.
  * </p>
+ * <p>
+ * Lines are taken from a {@link TennisGameStateLineRenderer} per pair of
+ * players and written to a {@link TennisGameOutputSink}, which decides when
+ * they reach the actual output. At most {@link #MAX_RENDERERS} renderers are
+ * kept: beyond them, states are formatted on the fly and the lines of whole
+ * games are taken from a renderer which is not kept.
+ * </p>
  */
 public class TennisGameHistoryPrinterServiceImpl implements TennisGameHistoryPrinterService {
-    private final Consumer<String> printer;
+    /**
+     * Maximum number of pairs of players whose renderer is kept.
+     */
+    public static final int MAX_RENDERERS = 1 << 10;
+
+    private final TennisGameOutputSink sink;
+    private final Charset charset;
+    private final TennisGameMetrics metrics;
+    private final Map<Integer, TennisGameStateLineRenderer> renderers = new ConcurrentHashMap<>();
+    private TennisGameStateLineRenderer lastRenderer;
+
+    /**
+     * Constructs a new instance of {@code TennisGameHistoryPrinterServiceImpl}
+     * printing to the given sink.
+     *
+     * @param sink    the sink the lines are written to.
+     * @param charset the charset the lines are encoded with.
+     */
+    public TennisGameHistoryPrinterServiceImpl(TennisGameOutputSink sink, Charset charset) {
+        this(sink, charset, TennisGameMetrics.NOOP);
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameHistoryPrinterServiceImpl}
+     * printing to the given sink and recording the games it prints, their
+     * latencies and errors.
+     *
+     * @param sink    the sink the lines are written to.
+     * @param charset the charset the lines are encoded with.
+     * @param metrics the metrics the printed games are recorded to.
+     */
+    public TennisGameHistoryPrinterServiceImpl(TennisGameOutputSink sink, Charset charset,
+            TennisGameMetrics metrics) {
+        this.sink = sink;
+        this.charset = charset;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameHistoryPrinterServiceImpl}
+     * printing to the given output, flushed once per printed game.
+     *
+     * @param output  the stream the lines are written to.
+     * @param charset the charset the lines are encoded with.
+     */
+    public TennisGameHistoryPrinterServiceImpl(OutputStream output, Charset charset) {
+        this(new TennisGameStreamOutputSinkImpl(output, TennisGameOutputFlushPolicy.perGame()), charset);
+    }
 
     /**
      * Constructs a new instance of {@code TennisGameHistoryPrinterServiceImpl}.
      * Sets the default printer to {@link System#out}.
      */
     public TennisGameHistoryPrinterServiceImpl() {
-        this.printer = System.out::println;
+        this(System.out, Charset.defaultCharset());
     }
 
     /**
@@ -34,44 +97,166 @@ public class TennisGameHistoryPrinterServiceImpl implements TennisGameHistoryPri
      * <p>
      * This implementation iterates through the list of game states and prints the
      * score for each state unless a winner is identified, in which case it prints
-     * the winner of the game.
+     * the winner of the game. States cached by
+     * {@link CachingTennisGameHistoryProcessorServiceImpl} are rendered straight
+     * from their pool indices.
      * </p>
      * 
      * @param tennisGameStates the list of game states representing the history of
      *                         the tennis game.
      */
     @Override
-    public void printScoreFromGameStates(List<TennisGameState> tennisGameStates) {
-        for (var lastGameState : tennisGameStates) {
-            if (lastGameState.winner().isEmpty()) {
-                print(lastGameState);
+    public synchronized void printScoreFromGameStates(List<TennisGameState> tennisGameStates) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        try {
+            if (tennisGameStates instanceof PooledTennisGameStates pooledGameStates) {
+                print(pooledGameStates);
             } else {
-                print(lastGameState.winner().get());
+                for (var lastGameState : tennisGameStates) {
+                    print(lastGameState);
+                }
             }
+            endGame();
+        } catch (RuntimeException e) {
+            metrics.recordError(Stage.PRINTER, e);
+            throw e;
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordGame(Stage.PRINTER, tennisGameStates.size(), System.nanoTime() - start);
         }
     }
 
     /**
-     * Prints the winner of the game.
-     * 
-     * @param tennisPlayer the player who won the game.
+     * Prints the winner of the game when it is finished, otherwise the final
+     * score of both players.
+     *
+     * @param tennisGameOutcome the outcome of the game to print.
      */
-    private void print(TennisPlayer tennisPlayer) {
-        printer.accept(String.format("%c > Player %c wins the game", tennisPlayer.id(), tennisPlayer.id()));
+    @Override
+    public synchronized void printGameOutcome(TennisGameOutcome tennisGameOutcome) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        try {
+            print(tennisGameOutcome);
+            endGame();
+        } catch (RuntimeException e) {
+            metrics.recordError(Stage.PRINTER, e);
+            throw e;
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordGame(Stage.PRINTER, tennisGameOutcome.pointsCount(), System.nanoTime() - start);
+        }
     }
 
     /**
-     * Prints the current score state of the game.
+     * Prints the score or the winner of a single game state.
+     *
+     * @param lastGameState the state to print.
+     */
+    void print(TennisGameState lastGameState) {
+        TennisGameStateLineRenderer renderer = findRenderer(lastGameState.player1().id(),
+                lastGameState.player2().id());
+        byte[] line = renderer != null ? renderer.line(lastGameState) : null;
+        sink.writeLine(line != null ? line : format(lastGameState));
+    }
+
+    /**
+     * Prints the states of a game straight from their pool indices.
+     *
+     * @param pooledGameStates the states to print.
+     */
+    private void print(PooledTennisGameStates pooledGameStates) {
+        TennisGameStatePool pool = pooledGameStates.pool();
+        TennisGameStateLineRenderer renderer = getRenderer(pool.player1Id(), pool.player2Id());
+        for (int position = 0; position < pooledGameStates.size(); position++) {
+            sink.writeLine(renderer.line(pooledGameStates.index(position)));
+        }
+    }
+
+    /**
+     * Prints the winner or the final score of a game outcome.
+     *
+     * @param tennisGameOutcome the outcome to print.
+     */
+    void print(TennisGameOutcome tennisGameOutcome) {
+        sink.writeLine(getRenderer(tennisGameOutcome.player1().id(), tennisGameOutcome.player2().id())
+                .outcomeLine(tennisGameOutcome));
+    }
+
+    /**
+     * @return the metrics the printed games are recorded to.
+     */
+    TennisGameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Signals the sink that every line of the current game was printed.
+     */
+    void endGame() {
+        sink.endGame();
+    }
+
+    /**
+     * Writes every line buffered by the sink.
+     */
+    void flush() {
+        sink.flush();
+    }
+
+    /**
+     * Returns the renderer of the game between the two given players, building it
+     * on first use, or a new one once {@link #MAX_RENDERERS} renderers are kept.
+     */
+    private TennisGameStateLineRenderer getRenderer(char player1Id, char player2Id) {
+        TennisGameStateLineRenderer renderer = findRenderer(player1Id, player2Id);
+        return renderer != null ? renderer : new TennisGameStateLineRenderer(player1Id, player2Id, charset);
+    }
+
+    /**
+     * @return the kept renderer of the two given players, built on first use, or
+     *         {@code null} once {@link #MAX_RENDERERS} renderers are kept.
+     */
+    private TennisGameStateLineRenderer findRenderer(char player1Id, char player2Id) {
+        TennisGameStateLineRenderer renderer = lastRenderer;
+        if (renderer != null && renderer.player1Id() == player1Id && renderer.player2Id() == player2Id) {
+            return renderer;
+        }
+        int key = player1Id << Character.SIZE | player2Id;
+        renderer = renderers.get(key);
+        if (renderer == null) {
+            if (renderers.size() >= MAX_RENDERERS) {
+                return null;
+            }
+            renderer = renderers.computeIfAbsent(key,
+                    k -> new TennisGameStateLineRenderer(player1Id, player2Id, charset));
+        }
+        lastRenderer = renderer;
+        return renderer;
+    }
+
+    /**
+     * Formats the line of a state the renderers do not cover, the last point
+     * winner of which is not one of the players.
      * 
      * @param lastGameState the last recorded state of the game.
      */
-    private void print(TennisGameState lastGameState) {
-        printer.accept(String.format(
-                "%c > Player %c: %s / Player %c: %s",
-                lastGameState.currentWinnerId(),
-                lastGameState.player1().id(),
-                lastGameState.player1().tennisScore().getLibelle(),
-                lastGameState.player2().id(),
-                lastGameState.player2().tennisScore().getLibelle()));
+    private byte[] format(TennisGameState lastGameState) {
+        String line;
+        if (lastGameState.isFinished()) {
+            // read from the scores rather than through an Optional
+            TennisPlayer tennisPlayer = lastGameState.player1().tennisScore() == TennisScore.WIN
+                    ? lastGameState.player1()
+                    : lastGameState.player2();
+            line = String.format("%c > Player %c wins the game", tennisPlayer.id(), tennisPlayer.id());
+        } else {
+            line = String.format(
+                    "%c > Player %c: %s / Player %c: %s",
+                    lastGameState.currentWinnerId(),
+                    lastGameState.player1().id(),
+                    lastGameState.player1().tennisScore().getLibelle(),
+                    lastGameState.player2().id(),
+                    lastGameState.player2().tennisScore().getLibelle());
+        }
+        return (line + System.lineSeparator()).getBytes(charset);
     }
 }
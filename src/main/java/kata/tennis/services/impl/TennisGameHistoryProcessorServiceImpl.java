@@ -1,14 +1,27 @@
 package kata.tennis.services.impl;
 
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import kata.tennis.domain.TennisGameErrorCode;
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameOutcome;
 import kata.tennis.domain.TennisPlayer;
 import kata.tennis.domain.TennisScore;
 import kata.tennis.domain.state.TennisGameState;
 import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameMetrics.Stage;
 import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.events.TennisGameStageEvent;
 import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
 import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
 
 /**
@@ -18,6 +31,22 @@ import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
  */
 public class TennisGameHistoryProcessorServiceImpl implements TennisGameHistoryProcessorService {
     private final TennisGameStateService tennisGameStateService;
+    private final TennisGameMetrics metrics;
+
+    /**
+     * Constructs a new instance of {@code TennisGameHistoryProcessorServiceImpl}
+     * recording the games it processes, their points, latencies and errors.
+     * Streamed histories are not recorded.
+     *
+     * @param tennisGameStateService The service responsible for managing the state
+     *                               of a tennis game.
+     * @param metrics                the metrics the games are recorded to.
+     */
+    public TennisGameHistoryProcessorServiceImpl(TennisGameStateService tennisGameStateService,
+            TennisGameMetrics metrics) {
+        this.tennisGameStateService = tennisGameStateService;
+        this.metrics = metrics;
+    }
 
     /**
      * Constructs a new instance of {@code TennisGameHistoryProcessorServiceImpl}.
@@ -30,22 +59,24 @@ public class TennisGameHistoryProcessorServiceImpl implements TennisGameHistoryP
      *                               of a tennis game.
      */
     public TennisGameHistoryProcessorServiceImpl(TennisGameStateService tennisGameStateService) {
-        this.tennisGameStateService = tennisGameStateService;
+        this(tennisGameStateService, TennisGameMetrics.NOOP);
     }
 
     /**
      * Constructs a new instance of {@code TennisGameHistoryProcessorServiceImpl}.
-     * Initializes the {@link TennisGameStateService}.
+     * Initializes the {@link TennisGameStateService} with the pool of canonical
+     * game states.
      */
     public TennisGameHistoryProcessorServiceImpl() {
-        this.tennisGameStateService = new TennisGameStateServiceImpl();
+        this(new TennisGameStatePoolServiceImpl());
     }
 
     /**
      * {@inheritDoc}
      * <p>
      * This implementation generates a sequence of game states from the game history
-     * string.
+     * string, and emits a {@link TennisGameStageEvent} for the detection of the
+     * players and another one for the generation of the states.
      * </p>
      * 
      * @param gameHistory the history of the game in a specific format that will be
@@ -61,16 +92,185 @@ public class TennisGameHistoryProcessorServiceImpl implements TennisGameHistoryP
     @Override
     public List<TennisGameState> generateGameStatesFromHistory(String gameHistory)
             throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
-        List<TennisGameState> states = new ArrayList<>();
-        TennisGameState initialGameState = generateInitialGameStateFromHistory(gameHistory);
+        return generate(gameHistory);
+    }
+
+    /**
+     * Generates the game states of a packed history, decoding its points while
+     * they are applied.
+     *
+     * @param gameHistory the packed history of the game.
+     * @return a list of {@link TennisGameState} representing the states of the game
+     *         after each point.
+     * @throws GameAlreadyFinishedException if the game history indicates that the
+     *                                      game has already finished.
+     * @see #generateGameStatesFromHistory(String)
+     */
+    public List<TennisGameState> generateGameStatesFromHistory(PackedTennisGameHistory gameHistory)
+            throws GameAlreadyFinishedException {
+        return generate(gameHistory);
+    }
+
+    private List<TennisGameState> generate(CharSequence gameHistory) {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        List<TennisGameState> states;
+        try {
+            states = TennisGameStageEvent.isTypeEnabled() ? generateRecordedGameStates(gameHistory)
+                    : generateGameStates(gameHistory, generateInitialGameStateFromHistory(gameHistory));
+        } catch (RuntimeException e) {
+            metrics.recordError(Stage.PROCESSOR, e);
+            throw e;
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordGame(Stage.PROCESSOR, states.size(), System.nanoTime() - start);
+        }
+        return states;
+    }
+
+    private List<TennisGameState> generateGameStates(CharSequence gameHistory, TennisGameState initialGameState) {
+        // sized up front, the list never grows
+        List<TennisGameState> states = new ArrayList<>(gameHistory.length());
         TennisGameState lastGameState = initialGameState;
-        for (var currentWinnerId : gameHistory.toCharArray()) {
-            lastGameState = tennisGameStateService.getNextGameState(lastGameState, currentWinnerId);
+        for (int i = 0; i < gameHistory.length(); i++) {
+            lastGameState = tennisGameStateService.getNextGameState(lastGameState, gameHistory.charAt(i));
             states.add(lastGameState);
         }
         return states;
     }
 
+    /**
+     * Generates the states of the history while recording the detection of the
+     * players and the generation of the states as {@link TennisGameStageEvent}s.
+     * Only the stage which rejected an invalid history is reported.
+     */
+    private List<TennisGameState> generateRecordedGameStates(CharSequence gameHistory) {
+        TennisGameStageEvent detectionEvent = new TennisGameStageEvent(TennisGameStageEvent.PLAYER_DETECTION);
+        TennisGameStageEvent generationEvent = new TennisGameStageEvent(TennisGameStageEvent.STATE_GENERATION);
+        TennisGameStageEvent currentEvent = detectionEvent;
+        try {
+            detectionEvent.begin();
+            TennisGameState initialGameState = generateInitialGameStateFromHistory(gameHistory);
+            detectionEvent.end();
+            currentEvent = generationEvent;
+            generationEvent.begin();
+            List<TennisGameState> states = generateGameStates(gameHistory, initialGameState);
+            generationEvent.end();
+            TennisGameState lastGameState = states.get(states.size() - 1);
+            detectionEvent.describe(gameHistory, lastGameState);
+            detectionEvent.commit();
+            generationEvent.describe(gameHistory, lastGameState);
+            generationEvent.commit();
+            return states;
+        } catch (RuntimeException e) {
+            currentEvent.describe(gameHistory, e);
+            currentEvent.commit();
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the history point by point and detects the
+     * players on the fly.
+     * </p>
+     */
+    @Override
+    public Stream<TennisGameState> streamGameStatesFromHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        return stream(new TennisGameStateIterator(tennisGameStateService, gameHistory));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation reads the history through a fixed size buffer and
+     * detects the players on the fly.
+     * </p>
+     */
+    @Override
+    public Stream<TennisGameState> streamGameStatesFromHistory(Reader gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        return stream(new TennisGameStateIterator(tennisGameStateService, gameHistory));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation validates the players up front, as
+     * {@link #generateGameStatesFromHistory(String)} does, then only keeps the
+     * last game state while walking the history.
+     * </p>
+     */
+    @Override
+    public TennisGameOutcome evaluateGameHistory(CharSequence gameHistory)
+            throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        int pointsCount = gameHistory.length();
+        TennisGameState lastGameState;
+        try {
+            lastGameState = generateInitialGameStateFromHistory(gameHistory);
+            for (int i = 0; i < pointsCount; i++) {
+                lastGameState = tennisGameStateService.getNextGameState(lastGameState, gameHistory.charAt(i));
+            }
+        } catch (RuntimeException e) {
+            metrics.recordError(Stage.PROCESSOR, e);
+            throw e;
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordGame(Stage.PROCESSOR, pointsCount, System.nanoTime() - start);
+        }
+        return outcomeOf(lastGameState, pointsCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation checks whether the game is finished before applying
+     * each point rather than letting the rules throw, so that only a rules
+     * service rejecting the scores of a point may still raise an exception,
+     * caught and reported as {@link TennisGameErrorCode#UNSUPPORTED_GAME_STATUS}.
+     * Evaluations are not recorded to the metrics.
+     * </p>
+     */
+    @Override
+    public TennisGameEvaluation tryEvaluateGameHistory(CharSequence gameHistory) {
+        TennisGameState lastGameState = detectPlayers(gameHistory);
+        if (lastGameState == null) {
+            return TennisGameEvaluation.failure(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT,
+                    unsupportedPlayerPosition(gameHistory));
+        }
+        int pointsCount = gameHistory.length();
+        for (int i = 0; i < pointsCount; i++) {
+            if (lastGameState.isFinished()) {
+                return TennisGameEvaluation.failure(TennisGameErrorCode.GAME_ALREADY_FINISHED, i);
+            }
+            try {
+                lastGameState = tennisGameStateService.getNextGameState(lastGameState, gameHistory.charAt(i));
+            } catch (UnsupportedGameStatusException e) {
+                return TennisGameEvaluation.failure(TennisGameErrorCode.UNSUPPORTED_GAME_STATUS, i);
+            }
+        }
+        return TennisGameEvaluation.success(outcomeOf(lastGameState, pointsCount));
+    }
+
+    static TennisGameOutcome outcomeOf(TennisGameState lastGameState, int pointsCount) {
+        TennisPlayer player1 = lastGameState.player1();
+        TennisPlayer player2 = lastGameState.player2();
+        Character winnerId = null;
+        if (player1.tennisScore() == TennisScore.WIN) {
+            winnerId = player1.id();
+        } else if (player2.tennisScore() == TennisScore.WIN) {
+            winnerId = player2.id();
+        }
+        return new TennisGameOutcome(winnerId, player1, player2, pointsCount);
+    }
+
+    private static Stream<TennisGameState> stream(Iterator<TennisGameState> states) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(states, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     /**
      * Generates the initial state of the game from the game history string.
      * 
@@ -82,27 +282,73 @@ public class TennisGameHistoryProcessorServiceImpl implements TennisGameHistoryP
      * @throws UnsupportedPlayersCountException if the game history indicates an
      *                                          unsupported number of players.
      */
-    private TennisGameState generateInitialGameStateFromHistory(String gameHistory)
+    static TennisGameState generateInitialGameStateFromHistory(CharSequence gameHistory)
             throws UnsupportedPlayersCountException {
-        List<Character> playerIds = gameHistory.chars()
-                .mapToObj((c) -> (char) c)
-                .distinct()
-                .sorted()
-                .toList();
-        if (playerIds.size() > 2 || playerIds.isEmpty()) {
-            throw new UnsupportedPlayersCountException(
-                    String.format("'%s' not supported, should contain only two player identifiers", gameHistory));
+        TennisGameState initialGameState = detectPlayers(gameHistory);
+        if (initialGameState == null) {
+            throw unsupportedPlayersCount(gameHistory);
         }
-        if (playerIds.size() == 1) {
-            Character uniqueChar = playerIds.get(0);
-            Character nextCharacter = uniqueChar == 'Z' ? 'A' : (char) (uniqueChar + 1);
-            playerIds = List.of(uniqueChar, nextCharacter).stream()
-                    .sorted()
-                    .toList();
+        return initialGameState;
+    }
+
+    /**
+     * Detects the players of the history without throwing. The players of a
+     * {@link PackedTennisGameHistory} are read from its header.
+     *
+     * @return the initial state of the game, or {@code null} if the history
+     *         indicates an unsupported number of players.
+     */
+    static TennisGameState detectPlayers(CharSequence gameHistory) {
+        if (gameHistory instanceof PackedTennisGameHistory packedGameHistory) {
+            // the players of a packed history are in its header
+            return new TennisGameState(null, new TennisPlayer(packedGameHistory.getPlayer1Id(), TennisScore.ZERO),
+                    new TennisPlayer(packedGameHistory.getPlayer2Id(), TennisScore.ZERO));
+        }
+        if (gameHistory.isEmpty()) {
+            return null;
+        }
+        char firstPlayerId = gameHistory.charAt(0);
+        int secondPlayerId = -1;
+        for (int i = 1; i < gameHistory.length(); i++) {
+            char playerId = gameHistory.charAt(i);
+            if (playerId == firstPlayerId || playerId == secondPlayerId) {
+                continue;
+            }
+            if (secondPlayerId != -1) {
+                return null;
+            }
+            secondPlayerId = playerId;
+        }
+        if (secondPlayerId == -1) {
+            secondPlayerId = firstPlayerId == 'Z' ? 'A' : (char) (firstPlayerId + 1);
         }
 
-        TennisPlayer player1 = new TennisPlayer(playerIds.get(0), TennisScore.ZERO);
-        TennisPlayer player2 = new TennisPlayer(playerIds.get(1), TennisScore.ZERO);
+        TennisPlayer player1 = new TennisPlayer((char) Math.min(firstPlayerId, secondPlayerId), TennisScore.ZERO);
+        TennisPlayer player2 = new TennisPlayer((char) Math.max(firstPlayerId, secondPlayerId), TennisScore.ZERO);
         return new TennisGameState(null, player1, player2);
     }
+
+    /**
+     * Locates the first identifier of a third player in a history rejected by
+     * {@link #detectPlayers(CharSequence)}, the start of an empty history.
+     */
+    static int unsupportedPlayerPosition(CharSequence gameHistory) {
+        int secondPlayerId = -1;
+        for (int i = 1; i < gameHistory.length(); i++) {
+            char playerId = gameHistory.charAt(i);
+            if (playerId == gameHistory.charAt(0) || playerId == secondPlayerId) {
+                continue;
+            }
+            if (secondPlayerId != -1) {
+                return i;
+            }
+            secondPlayerId = playerId;
+        }
+        return 0;
+    }
+
+    private static UnsupportedPlayersCountException unsupportedPlayersCount(CharSequence gameHistory) {
+        return new UnsupportedPlayersCountException(
+                String.format("'%s' not supported, should contain only two player identifiers", gameHistory));
+    }
 }
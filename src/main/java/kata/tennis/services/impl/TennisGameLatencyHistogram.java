@@ -0,0 +1,115 @@
+package kata.tennis.services.impl;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds, with log-linear buckets in
+ * the style of HdrHistogram.
+ * <p>
+ * Each power of two is split into {@value #SUB_BUCKETS} buckets, so a recorded
+ * value is known within 12.5%. Every bucket is a {@link LongAdder}, recording a
+ * value is a contention-free increment without any allocation.
+ * </p>
+ */
+public final class TennisGameLatencyHistogram {
+    static final int SUB_BUCKETS = 8;
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int BUCKETS_COUNT = bucketOf(Long.MAX_VALUE) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    public TennisGameLatencyHistogram() {
+        for (int bucket = 0; bucket < BUCKETS_COUNT; bucket++) {
+            buckets[bucket] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency, negative ones being recorded as zero.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        sum.add(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of the recorded latencies, in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the number of recorded latencies lower than the given power of
+     * two.
+     *
+     * @param exponent the exponent of the power of two, from 0 to 62.
+     * @return the number of latencies lower than {@code 2^exponent} nanoseconds.
+     */
+    public long getCountBelowPowerOfTwo(int exponent) {
+        int end = bucketOf(1L << exponent);
+        long below = 0;
+        for (int bucket = 0; bucket < end; bucket++) {
+            below += buckets[bucket].sum();
+        }
+        return below;
+    }
+
+    /**
+     * Returns the latency below which the given percentage of the recorded
+     * latencies fall.
+     *
+     * @param percentile the percentage, from 0 to 100.
+     * @return the highest latency of the bucket holding the percentile, in
+     *         nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] counts = new long[BUCKETS_COUNT];
+        for (int bucket = 0; bucket < BUCKETS_COUNT; bucket++) {
+            counts[bucket] = buckets[bucket].sum();
+            total += counts[bucket];
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return highestValueOf(bucket);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} have a bucket each, higher values are
+     * bucketed by their highest bit and the {@link #SUB_BUCKET_BITS} bits below
+     * it.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift & SUB_BUCKETS - 1);
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
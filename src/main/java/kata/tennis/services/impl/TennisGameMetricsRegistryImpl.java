@@ -0,0 +1,81 @@
+package kata.tennis.services.impl;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import kata.tennis.services.TennisGameMetrics;
+
+/**
+ * Implementation of {@link TennisGameMetrics} keeping every metric in memory
+ * with striped counters.
+ * <p>
+ * Games, points and errors are counted with {@link LongAdder}s and latencies
+ * are recorded in a {@link TennisGameLatencyHistogram} per stage, so that
+ * concurrent services never contend on a shared counter. Recording only
+ * allocates the first time an exception type is seen.
+ * </p>
+ */
+public class TennisGameMetricsRegistryImpl implements TennisGameMetrics {
+    private final Map<Stage, LongAdder> games = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> points = new EnumMap<>(Stage.class);
+    private final Map<Stage, TennisGameLatencyHistogram> latencies = new EnumMap<>(Stage.class);
+    private final Map<Stage, Map<String, LongAdder>> errors = new EnumMap<>(Stage.class);
+
+    public TennisGameMetricsRegistryImpl() {
+        for (Stage stage : Stage.values()) {
+            games.put(stage, new LongAdder());
+            points.put(stage, new LongAdder());
+            latencies.put(stage, new TennisGameLatencyHistogram());
+            errors.put(stage, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordPoints(Stage stage, long pointsCount) {
+        points.get(stage).add(pointsCount);
+    }
+
+    @Override
+    public void recordGame(Stage stage, long pointsCount, long latencyNanos) {
+        games.get(stage).increment();
+        points.get(stage).add(pointsCount);
+        latencies.get(stage).record(latencyNanos);
+    }
+
+    @Override
+    public void recordError(Stage stage, RuntimeException error) {
+        errors.get(stage).computeIfAbsent(error.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    public long getGamesCount(Stage stage) {
+        return games.get(stage).sum();
+    }
+
+    public long getPointsCount(Stage stage) {
+        return points.get(stage).sum();
+    }
+
+    /**
+     * @param stage the stage the errors were raised by.
+     * @return the number of errors raised by the stage, by simple name of their
+     *         exception type, in name order.
+     */
+    public Map<String, Long> getErrorsCounts(Stage stage) {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.get(stage).forEach((type, count) -> counts.put(type, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public TennisGameLatencyHistogram getLatencyHistogram(Stage stage) {
+        return latencies.get(stage);
+    }
+}
@@ -0,0 +1,65 @@
+package kata.tennis.services.impl;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Ordering and validation of the two players of a live game, shared by the
+ * services opening games from player identifiers.
+ * <p>
+ * Players are ordered by identifier, as when a history is processed, so that a
+ * live game goes through the exact same states as the processing of its
+ * history.
+ * </p>
+ */
+final class TennisGamePlayers {
+
+    private TennisGamePlayers() {
+    }
+
+    /**
+     * Builds the initial state of the game between the two given players.
+     *
+     * @param player1Id the identifier of a player.
+     * @param player2Id the identifier of the other player.
+     * @return the initial {@link TennisGameState}, players ordered by identifier.
+     * @throws UnsupportedPlayersCountException if both identifiers are the same.
+     */
+    static TennisGameState initialGameState(char player1Id, char player2Id) throws UnsupportedPlayersCountException {
+        if (player1Id == player2Id) {
+            throw new UnsupportedPlayersCountException(String.format(
+                    "'%c%c' not supported, should contain two different player identifiers", player1Id, player2Id));
+        }
+        return new TennisGameState(null,
+                new TennisPlayer((char) Math.min(player1Id, player2Id), TennisScore.ZERO),
+                new TennisPlayer((char) Math.max(player1Id, player2Id), TennisScore.ZERO));
+    }
+
+    /**
+     * Checks that the winner of a point is one of the players of the game.
+     *
+     * @param gameState the current state of the game.
+     * @param winnerId  the identifier of the winner of the point.
+     * @throws UnsupportedPlayersCountException if the winner is not a player of
+     *                                          the game.
+     */
+    static void checkWinner(TennisGameState gameState, char winnerId) throws UnsupportedPlayersCountException {
+        char player1Id = gameState.player1().id();
+        char player2Id = gameState.player2().id();
+        if (winnerId != player1Id && winnerId != player2Id) {
+            throw unsupportedWinner(winnerId, player1Id, player2Id);
+        }
+    }
+
+    /**
+     * @return the error raised when a point is won by none of the two given
+     *         players.
+     */
+    static UnsupportedPlayersCountException unsupportedWinner(char winnerId, char player1Id, char player2Id) {
+        return new UnsupportedPlayersCountException(String.format(
+                "'%c' not supported, should be one of the two player identifiers '%c' and '%c'",
+                winnerId, player1Id, player2Id));
+    }
+}
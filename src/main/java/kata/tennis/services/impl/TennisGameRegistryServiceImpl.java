@@ -0,0 +1,170 @@
+package kata.tennis.services.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameRegistryService;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnknownMatchException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Lock-free implementation of {@link TennisGameRegistryService}.
+ * <p>
+ * Each game holds its current state in its own {@link AtomicReference}: a point
+ * computes the next state with the {@link TennisGameStateService} rules and
+ * publishes it with a compare-and-set, retrying if another thread scored on
+ * the same game in the meantime. Threads scoring on different games never
+ * contend, and the match lookup is a {@link ConcurrentHashMap} read. With the
+ * default pooled rules, retries reuse the shared canonical states and allocate
+ * nothing.
+ * </p>
+ */
+public class TennisGameRegistryServiceImpl implements TennisGameRegistryService {
+    private final TennisGameStateService tennisGameStateService;
+    private final Map<String, AtomicReference<TennisGameState>> games = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new instance of {@code TennisGameRegistryServiceImpl}.
+     *
+     * @param tennisGameStateService the service advancing the state of the games.
+     */
+    public TennisGameRegistryServiceImpl(TennisGameStateService tennisGameStateService) {
+        this.tennisGameStateService = tennisGameStateService;
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameRegistryServiceImpl}.
+     * Initializes the {@link TennisGameStateService} with the pool of canonical
+     * game states.
+     */
+    public TennisGameRegistryServiceImpl() {
+        this(new TennisGameStatePoolServiceImpl());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation orders the players by identifier, as when a history is
+     * processed.
+     * </p>
+     */
+    @Override
+    public TennisGameState openGame(String matchId, Character player1Id, Character player2Id)
+            throws UnsupportedPlayersCountException {
+        TennisGameState initialState = TennisGamePlayers.initialGameState(player1Id, player2Id);
+        if (games.putIfAbsent(matchId, new AtomicReference<>(initialState)) != null) {
+            throw alreadyOpen(matchId);
+        }
+        return initialState;
+    }
+
+    @Override
+    public TennisGameState submitPoint(String matchId, Character winnerId)
+            throws UnknownMatchException, GameAlreadyFinishedException, UnsupportedPlayersCountException {
+        AtomicReference<TennisGameState> game = gameOf(matchId);
+        TennisGameState lastGameState = game.get();
+        TennisGamePlayers.checkWinner(lastGameState, winnerId);
+        while (true) {
+            TennisGameState nextGameState = tennisGameStateService.getNextGameState(lastGameState, winnerId);
+            if (game.compareAndSet(lastGameState, nextGameState)) {
+                return nextGameState;
+            }
+            lastGameState = game.get();
+        }
+    }
+
+    @Override
+    public Optional<TennisGameState> getGameState(String matchId) {
+        return Optional.ofNullable(games.get(matchId)).map(AtomicReference::get);
+    }
+
+    @Override
+    public Optional<TennisGameState> closeGame(String matchId) {
+        return Optional.ofNullable(games.remove(matchId)).map(AtomicReference::get);
+    }
+
+    @Override
+    public int getGamesCount() {
+        return games.size();
+    }
+
+    /**
+     * Builds the initial state of a game the match could open, without opening
+     * it.
+     *
+     * @throws UnsupportedPlayersCountException if both identifiers are the same.
+     * @throws IllegalStateException            if the match is already open.
+     */
+    TennisGameState initialGameState(String matchId, Character player1Id, Character player2Id)
+            throws UnsupportedPlayersCountException {
+        TennisGameState initialState = TennisGamePlayers.initialGameState(player1Id, player2Id);
+        if (games.containsKey(matchId)) {
+            throw alreadyOpen(matchId);
+        }
+        return initialState;
+    }
+
+    /**
+     * Computes the state of the game of the match once the given point is won,
+     * without applying it.
+     *
+     * @throws UnknownMatchException            if the match is not open.
+     * @throws GameAlreadyFinishedException     if the game is already finished.
+     * @throws UnsupportedPlayersCountException if the winner is not a player of
+     *                                          the game.
+     */
+    TennisGameState nextGameState(String matchId, Character winnerId)
+            throws UnknownMatchException, GameAlreadyFinishedException, UnsupportedPlayersCountException {
+        TennisGameState lastGameState = gameOf(matchId).get();
+        TennisGamePlayers.checkWinner(lastGameState, winnerId);
+        return tennisGameStateService.getNextGameState(lastGameState, winnerId);
+    }
+
+    /**
+     * Replaces the state of the open game of the match.
+     *
+     * @throws UnknownMatchException if the match is not open.
+     */
+    void setGameState(String matchId, TennisGameState state) throws UnknownMatchException {
+        gameOf(matchId).set(state);
+    }
+
+    /**
+     * Puts back a game in the given state, replacing the game of the match if
+     * one is open.
+     *
+     * @param matchId the identifier of the match.
+     * @param state   the state of the game.
+     */
+    void restoreGame(String matchId, TennisGameState state) {
+        games.put(matchId, new AtomicReference<>(state));
+    }
+
+    /**
+     * @return a copy of the current states of the open games, by match
+     *         identifier.
+     */
+    Map<String, TennisGameState> getGameStates() {
+        Map<String, TennisGameState> gameStates = new LinkedHashMap<>(games.size() * 4 / 3 + 1);
+        games.forEach((matchId, game) -> gameStates.put(matchId, game.get()));
+        return gameStates;
+    }
+
+    private AtomicReference<TennisGameState> gameOf(String matchId) throws UnknownMatchException {
+        AtomicReference<TennisGameState> game = games.get(matchId);
+        if (game == null) {
+            throw new UnknownMatchException(String.format("match '%s' is not open", matchId));
+        }
+        return game;
+    }
+
+    private static IllegalStateException alreadyOpen(String matchId) {
+        return new IllegalStateException(String.format("match '%s' is already open", matchId));
+    }
+}
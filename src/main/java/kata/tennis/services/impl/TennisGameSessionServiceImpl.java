@@ -0,0 +1,84 @@
+package kata.tennis.services.impl;
+
+import java.util.Optional;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameSession;
+import kata.tennis.services.TennisGameSessionService;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Implementation of {@link TennisGameSessionService} opening games which keep
+ * their current state and advance it with the {@link TennisGameStateService}.
+ * <p>
+ * Submitting a point is a single state transition, it never replays the
+ * previous points. Players are ordered by identifier, as when a history is
+ * processed.
+ * </p>
+ */
+public class TennisGameSessionServiceImpl implements TennisGameSessionService {
+    private final TennisGameStateService tennisGameStateService;
+
+    /**
+     * Constructs a new instance of {@code TennisGameSessionServiceImpl}.
+     *
+     * @param tennisGameStateService the service advancing the state of the games.
+     */
+    public TennisGameSessionServiceImpl(TennisGameStateService tennisGameStateService) {
+        this.tennisGameStateService = tennisGameStateService;
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameSessionServiceImpl}.
+     * Initializes the {@link TennisGameStateService} with the pool of canonical
+     * game states.
+     */
+    public TennisGameSessionServiceImpl() {
+        this(new TennisGameStatePoolServiceImpl());
+    }
+
+    @Override
+    public TennisGameSession openGame(Character player1Id, Character player2Id)
+            throws UnsupportedPlayersCountException {
+        return new TennisGameSessionImpl(TennisGamePlayers.initialGameState(player1Id, player2Id));
+    }
+
+    /**
+     * Live game holding its current state, safe for use by concurrent feeds.
+     */
+    private final class TennisGameSessionImpl implements TennisGameSession {
+        private TennisGameState currentState;
+        private int pointsCount;
+
+        private TennisGameSessionImpl(TennisGameState initialState) {
+            this.currentState = initialState;
+        }
+
+        @Override
+        public synchronized TennisGameState submitPoint(Character winnerId)
+                throws GameAlreadyFinishedException, UnsupportedPlayersCountException {
+            TennisGamePlayers.checkWinner(currentState, winnerId);
+            currentState = tennisGameStateService.getNextGameState(currentState, winnerId);
+            pointsCount++;
+            return currentState;
+        }
+
+        @Override
+        public synchronized TennisGameState getCurrentState() {
+            return currentState;
+        }
+
+        @Override
+        public synchronized Optional<TennisPlayer> getWinner() {
+            return currentState.winner();
+        }
+
+        @Override
+        public synchronized int getPointsCount() {
+            return pointsCount;
+        }
+    }
+}
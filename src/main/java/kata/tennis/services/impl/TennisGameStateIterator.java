@@ -0,0 +1,162 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+/**
+ * Lazy {@link Iterator} over the game states of a game history read in a
+ * single pass.
+ * <p>
+ * Players are detected on the fly, unless the history is packed: points are
+ * only held back while a single player identifier has been seen, which is
+ * bounded by the number of points a player needs to win a game. Errors are raised when the offending point is
+ * reached, once all the previous states have been returned.
+ * </p>
+ */
+final class TennisGameStateIterator implements Iterator<TennisGameState> {
+    // a fifth point from the same player is always invalid, whatever the opponent
+    private static final int MAX_PENDING_POINTS = 5;
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int END_OF_HISTORY = -1;
+
+    private final TennisGameStateService tennisGameStateService;
+    private final CharSequence charSequence;
+    private final Reader reader;
+    private final char[] buffer;
+    private int bufferPosition;
+    private int bufferLength;
+
+    private final char[] pendingPoints = new char[MAX_PENDING_POINTS];
+    private int pendingCount;
+    private int pendingPosition;
+
+    private TennisGameState lastGameState;
+    private TennisGameState nextGameState;
+
+    TennisGameStateIterator(TennisGameStateService tennisGameStateService, CharSequence gameHistory) {
+        this.tennisGameStateService = tennisGameStateService;
+        this.charSequence = gameHistory;
+        this.reader = null;
+        this.buffer = null;
+    }
+
+    TennisGameStateIterator(TennisGameStateService tennisGameStateService, Reader gameHistory) {
+        this.tennisGameStateService = tennisGameStateService;
+        this.charSequence = null;
+        this.reader = gameHistory;
+        this.buffer = new char[READ_BUFFER_SIZE];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UnsupportedPlayersCountException if the game history indicates an
+     *                                          unsupported number of players.
+     * @throws GameAlreadyFinishedException     if the next point is played after
+     *                                          the end of the game.
+     * @throws UncheckedIOException             if the history could not be read.
+     */
+    @Override
+    public boolean hasNext() throws UnsupportedPlayersCountException, GameAlreadyFinishedException {
+        if (nextGameState != null) {
+            return true;
+        }
+        if (lastGameState == null) {
+            lastGameState = readInitialGameState();
+        }
+        int currentWinnerId = nextPoint();
+        if (currentWinnerId == END_OF_HISTORY) {
+            return false;
+        }
+        char winnerId = (char) currentWinnerId;
+        if (winnerId != lastGameState.player1().id() && winnerId != lastGameState.player2().id()) {
+            throw new UnsupportedPlayersCountException(String.format(
+                    "'%c' not supported, should contain only two player identifiers", winnerId));
+        }
+        nextGameState = tennisGameStateService.getNextGameState(lastGameState, winnerId);
+        return true;
+    }
+
+    @Override
+    public TennisGameState next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        lastGameState = nextGameState;
+        nextGameState = null;
+        return lastGameState;
+    }
+
+    /**
+     * Reads points until both players are known, holding them back to be
+     * replayed once the initial state is built. The players of a
+     * {@link PackedTennisGameHistory} are read from its header.
+     */
+    private TennisGameState readInitialGameState() throws UnsupportedPlayersCountException {
+        if (charSequence instanceof PackedTennisGameHistory) {
+            return TennisGameHistoryProcessorServiceImpl.detectPlayers(charSequence);
+        }
+        int firstPlayerId = -1;
+        int secondPlayerId = -1;
+        while (pendingCount < MAX_PENDING_POINTS && secondPlayerId == -1) {
+            int point = read();
+            if (point == END_OF_HISTORY) {
+                break;
+            }
+            pendingPoints[pendingCount++] = (char) point;
+            if (firstPlayerId == -1) {
+                firstPlayerId = point;
+            } else if (point != firstPlayerId) {
+                secondPlayerId = point;
+            }
+        }
+        if (firstPlayerId == -1) {
+            throw new UnsupportedPlayersCountException(
+                    "'' not supported, should contain only two player identifiers");
+        }
+        if (secondPlayerId == -1) {
+            secondPlayerId = firstPlayerId == 'Z' ? 'A' : firstPlayerId + 1;
+        }
+        char player1Id = (char) Math.min(firstPlayerId, secondPlayerId);
+        char player2Id = (char) Math.max(firstPlayerId, secondPlayerId);
+        return new TennisGameState(null,
+                new TennisPlayer(player1Id, TennisScore.ZERO),
+                new TennisPlayer(player2Id, TennisScore.ZERO));
+    }
+
+    private int nextPoint() {
+        if (pendingPosition < pendingCount) {
+            return pendingPoints[pendingPosition++];
+        }
+        return read();
+    }
+
+    private int read() {
+        if (charSequence != null) {
+            return bufferPosition < charSequence.length() ? charSequence.charAt(bufferPosition++) : END_OF_HISTORY;
+        }
+        if (bufferPosition == bufferLength) {
+            try {
+                bufferLength = reader.read(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bufferPosition = 0;
+            if (bufferLength <= 0) {
+                bufferLength = 0;
+                return END_OF_HISTORY;
+            }
+        }
+        return buffer[bufferPosition++];
+    }
+}
@@ -0,0 +1,133 @@
+package kata.tennis.services.impl;
+
+import java.nio.charset.Charset;
+
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+
+/**
+ * Precomputed encoded output lines of a game between two given players.
+ * <p>
+ * Every score line and winner line printed by
+ * {@link TennisGameHistoryPrinterServiceImpl} for the
+ * {@link TennisGameStatePool} states of the game, as well as every outcome
+ * line, is formatted and encoded once, line separator included. Rendering a
+ * state is then a lookup of a shared byte array.
+ * </p>
+ */
+public final class TennisGameStateLineRenderer {
+    private static final TennisScore[] SCORES = TennisScore.values();
+    private static final int SCORES_COUNT = SCORES.length;
+
+    private final char player1Id;
+    private final char player2Id;
+    private final byte[][] lines;
+    private final byte[][] outcomeLines;
+
+    /**
+     * Constructs the renderer of the game between the two given players.
+     *
+     * @param player1Id the identifier of the first player.
+     * @param player2Id the identifier of the second player.
+     * @param charset   the charset the lines are encoded with.
+     */
+    public TennisGameStateLineRenderer(char player1Id, char player2Id, Charset charset) {
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        String lineSeparator = System.lineSeparator();
+        Character[] lastWinnerIds = { null, player1Id, player2Id };
+
+        this.lines = new byte[TennisGameStatePool.STATES_COUNT][];
+        for (int index = 0; index < TennisGameStatePool.STATES_COUNT; index++) {
+            TennisScore player1Score = SCORES[TennisGameStatePool.player1ScoreOrdinalOf(index)];
+            TennisScore player2Score = SCORES[TennisGameStatePool.player2ScoreOrdinalOf(index)];
+            String line;
+            if (player1Score == TennisScore.WIN || player2Score == TennisScore.WIN) {
+                line = winnerLine(player1Score == TennisScore.WIN ? player1Id : player2Id);
+            } else {
+                line = String.format("%c > %s", lastWinnerIds[TennisGameStatePool.slotOf(index)],
+                        scoresLine(player1Score, player2Score));
+            }
+            lines[index] = (line + lineSeparator).getBytes(charset);
+        }
+
+        this.outcomeLines = new byte[SCORES_COUNT * SCORES_COUNT][];
+        for (TennisScore player1Score : SCORES) {
+            for (TennisScore player2Score : SCORES) {
+                String line;
+                if (player1Score == TennisScore.WIN || player2Score == TennisScore.WIN) {
+                    line = winnerLine(player1Score == TennisScore.WIN ? player1Id : player2Id);
+                } else {
+                    line = scoresLine(player1Score, player2Score);
+                }
+                outcomeLines[player1Score.ordinal() * SCORES_COUNT + player2Score.ordinal()] = (line
+                        + lineSeparator).getBytes(charset);
+            }
+        }
+    }
+
+    public char player1Id() {
+        return player1Id;
+    }
+
+    public char player2Id() {
+        return player2Id;
+    }
+
+    /**
+     * Returns the encoded line of the given state.
+     *
+     * @param tennisGameState the state to render, its players must be the ones of
+     *                        this renderer.
+     * @return the shared encoded line, or {@code null} if the last point winner
+     *         is not one of the players.
+     */
+    public byte[] line(TennisGameState tennisGameState) {
+        Character currentWinnerId = tennisGameState.currentWinnerId();
+        int slot;
+        if (currentWinnerId == null) {
+            slot = TennisGameStatePool.NO_WINNER_SLOT;
+        } else if (currentWinnerId == player1Id) {
+            slot = TennisGameStatePool.PLAYER1_SLOT;
+        } else if (currentWinnerId == player2Id) {
+            slot = TennisGameStatePool.PLAYER2_SLOT;
+        } else {
+            return null;
+        }
+        return lines[TennisGameStatePool.indexOf(slot, tennisGameState.player1().tennisScore().ordinal(),
+                tennisGameState.player2().tennisScore().ordinal())];
+    }
+
+    /**
+     * Returns the encoded line of the state at the given
+     * {@link TennisGameStatePool} index.
+     *
+     * @param index the state index.
+     * @return the shared encoded line.
+     */
+    public byte[] line(int index) {
+        return lines[index];
+    }
+
+    /**
+     * Returns the encoded line of the given outcome.
+     *
+     * @param tennisGameOutcome the outcome to render, its players must be the ones
+     *                          of this renderer.
+     * @return the shared encoded line.
+     */
+    public byte[] outcomeLine(TennisGameOutcome tennisGameOutcome) {
+        return outcomeLines[tennisGameOutcome.player1().tennisScore().ordinal() * SCORES_COUNT
+                + tennisGameOutcome.player2().tennisScore().ordinal()];
+    }
+
+    private String winnerLine(char winnerId) {
+        return String.format("%c > Player %c wins the game", winnerId, winnerId);
+    }
+
+    private String scoresLine(TennisScore player1Score, TennisScore player2Score) {
+        return String.format("Player %c: %s / Player %c: %s",
+                player1Id, player1Score.getLibelle(), player2Id, player2Score.getLibelle());
+    }
+}
@@ -0,0 +1,234 @@
+package kata.tennis.services.impl;
+
+import java.util.Optional;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameStateService;
+
+/**
+ * Canonical pool of every {@link TennisGameState} of a game between two given
+ * players.
+ * <p>
+ * A state is identified by an index combining the slot of the last point
+ * winner ({@link #NO_WINNER_SLOT}, {@link #PLAYER1_SLOT} or
+ * {@link #PLAYER2_SLOT}) with the score ordinals of both players. Every state,
+ * its winner and its successors on a point won by either player are built
+ * once, so walking a game through the pool never allocates and states can be
+ * compared by identity.
+ * </p>
+ * <p>
+ * {@link #walk(CharSequence, StateVisitor)} walks a whole history, for the
+ * services storing the indices of its states rather than the states.
+ * </p>
+ */
+public class TennisGameStatePool {
+    public static final int NO_WINNER_SLOT = 0;
+    public static final int PLAYER1_SLOT = 1;
+    public static final int PLAYER2_SLOT = 2;
+    /**
+     * Number of distinct state indexes of a pool.
+     */
+    public static final int STATES_COUNT = 3 * TennisScore.values().length * TennisScore.values().length;
+    /**
+     * Marker returned by {@link #next(int, int)} when the point could not be
+     * applied (the game is finished or the scores are not supported).
+     */
+    public static final int NO_STATE = -1;
+
+    private static final TennisScore[] SCORES = TennisScore.values();
+    private static final int SCORES_COUNT = SCORES.length;
+    /**
+     * Index of the state of a game before its first point.
+     */
+    public static final int INITIAL_INDEX = indexOf(NO_WINNER_SLOT, TennisScore.ZERO.ordinal(),
+            TennisScore.ZERO.ordinal());
+
+    private final char player1Id;
+    private final char player2Id;
+    private final TennisGameState[] states;
+    private final Optional<TennisPlayer>[] winners;
+    private final int[] transitions;
+
+    /**
+     * Constructs the pool of the game between the two given players.
+     *
+     * @param player1Id              the identifier of the first player.
+     * @param player2Id              the identifier of the second player.
+     * @param tennisGameStateService the service providing the game rules used to
+     *                               link states together.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public TennisGameStatePool(char player1Id, char player2Id, TennisGameStateService tennisGameStateService) {
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        TennisPlayer[] players1 = new TennisPlayer[SCORES_COUNT];
+        TennisPlayer[] players2 = new TennisPlayer[SCORES_COUNT];
+        for (TennisScore score : SCORES) {
+            players1[score.ordinal()] = new TennisPlayer(player1Id, score);
+            players2[score.ordinal()] = new TennisPlayer(player2Id, score);
+        }
+        Character[] lastWinnerIds = { null, player1Id, player2Id };
+
+        this.states = new TennisGameState[STATES_COUNT];
+        this.winners = new Optional[STATES_COUNT];
+        for (int index = 0; index < STATES_COUNT; index++) {
+            TennisGameState state = new TennisGameState(lastWinnerIds[slotOf(index)],
+                    players1[player1ScoreOrdinalOf(index)], players2[player2ScoreOrdinalOf(index)]);
+            states[index] = state;
+            winners[index] = state.winner();
+        }
+
+        this.transitions = new int[STATES_COUNT * 2];
+        for (int index = 0; index < STATES_COUNT; index++) {
+            transitions[index * 2] = link(tennisGameStateService, states[index], player1Id);
+            transitions[index * 2 + 1] = link(tennisGameStateService, states[index], player2Id);
+        }
+    }
+
+    /**
+     * Computes the index of the state with the given last point winner slot and
+     * scores.
+     *
+     * @param slot                the slot of the last point winner.
+     * @param player1ScoreOrdinal the score ordinal of the first player.
+     * @param player2ScoreOrdinal the score ordinal of the second player.
+     * @return the state index.
+     */
+    public static int indexOf(int slot, int player1ScoreOrdinal, int player2ScoreOrdinal) {
+        return (slot * SCORES_COUNT + player1ScoreOrdinal) * SCORES_COUNT + player2ScoreOrdinal;
+    }
+
+    public static int slotOf(int index) {
+        return index / (SCORES_COUNT * SCORES_COUNT);
+    }
+
+    public static int player1ScoreOrdinalOf(int index) {
+        return index / SCORES_COUNT % SCORES_COUNT;
+    }
+
+    public static int player2ScoreOrdinalOf(int index) {
+        return index % SCORES_COUNT;
+    }
+
+    public char player1Id() {
+        return player1Id;
+    }
+
+    public char player2Id() {
+        return player2Id;
+    }
+
+    /**
+     * Resolves the slot of the given player identifier.
+     *
+     * @param playerId the player identifier, may be {@code null}.
+     * @return {@link #PLAYER1_SLOT}, {@link #PLAYER2_SLOT}, {@link #NO_WINNER_SLOT}
+     *         for {@code null}, or {@link #NO_STATE} for an unknown player.
+     */
+    public int slotOf(Character playerId) {
+        if (playerId == null) {
+            return NO_WINNER_SLOT;
+        }
+        if (playerId == player1Id) {
+            return PLAYER1_SLOT;
+        }
+        return playerId == player2Id ? PLAYER2_SLOT : NO_STATE;
+    }
+
+    /**
+     * Resolves the index of the given state in this pool.
+     *
+     * @param tennisGameState the state to look up.
+     * @return the state index, or {@link #NO_STATE} if the state does not belong
+     *         to the game of this pool.
+     */
+    public int indexOf(TennisGameState tennisGameState) {
+        if (tennisGameState.player1().id() != player1Id || tennisGameState.player2().id() != player2Id) {
+            return NO_STATE;
+        }
+        int slot = slotOf(tennisGameState.currentWinnerId());
+        if (slot == NO_STATE) {
+            return NO_STATE;
+        }
+        return indexOf(slot, tennisGameState.player1().tennisScore().ordinal(),
+                tennisGameState.player2().tennisScore().ordinal());
+    }
+
+    public TennisGameState state(int index) {
+        return states[index];
+    }
+
+    public TennisGameState initialState() {
+        return states[INITIAL_INDEX];
+    }
+
+    /**
+     * Returns the precomputed winner of the state at the given index.
+     *
+     * @param index the state index.
+     * @return the winner of the state, if any.
+     */
+    public Optional<TennisPlayer> winner(int index) {
+        return winners[index];
+    }
+
+    /**
+     * Returns the index of the state following the given one when the player in
+     * the given slot wins the point.
+     *
+     * @param index      the current state index.
+     * @param winnerSlot {@link #PLAYER1_SLOT} or {@link #PLAYER2_SLOT}.
+     * @return the next state index, or {@link #NO_STATE} if the point could not
+     *         be applied.
+     */
+    public int next(int index, int winnerSlot) {
+        return transitions[index * 2 + winnerSlot - PLAYER1_SLOT];
+    }
+
+    /**
+     * Walks a history from the initial state, handing the index of the state
+     * following each point to the visitor, until the end of the history or the
+     * first point which could not be applied.
+     *
+     * @param gameHistory the history, played by the players of this pool.
+     * @param visitor     the visitor of the states.
+     * @return the position of the first point which could not be applied, or
+     *         the length of the history if every point was.
+     */
+    public int walk(CharSequence gameHistory, StateVisitor visitor) {
+        int index = INITIAL_INDEX;
+        for (int position = 0; position < gameHistory.length(); position++) {
+            index = next(index, gameHistory.charAt(position) == player1Id ? PLAYER1_SLOT : PLAYER2_SLOT);
+            if (index == NO_STATE) {
+                return position;
+            }
+            visitor.visit(position, index);
+        }
+        return gameHistory.length();
+    }
+
+    /**
+     * Visitor of the states of a history walked through a pool.
+     */
+    @FunctionalInterface
+    public interface StateVisitor {
+        /**
+         * @param position the position in the history of the point leading to
+         *                 the state.
+         * @param index    the index of the state.
+         */
+        void visit(int position, int index);
+    }
+
+    private int link(TennisGameStateService tennisGameStateService, TennisGameState state, char winnerId) {
+        TennisGameState next;
+        try {
+            next = tennisGameStateService.getNextGameState(state, winnerId);
+        } catch (IllegalArgumentException e) {
+            return NO_STATE;
+        }
+        return indexOf(next);
+    }
+}
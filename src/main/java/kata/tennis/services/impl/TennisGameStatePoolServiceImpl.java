@@ -0,0 +1,130 @@
+package kata.tennis.services.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.events.TennisGamePointEvent;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+
+/**
+ * Implementation of {@link TennisGameStateService} returning canonical states
+ * from a {@link TennisGameStatePool} per pair of players.
+ * <p>
+ * Pools are built lazily from the rules of a delegate
+ * {@link TennisGameStateService}, once per pair of player identifiers. Points
+ * which can not be resolved from a pool (finished games, unknown players) are
+ * handed to the delegate, which keeps the exact same error reporting.
+ * </p>
+ * <p>
+ * At most {@link #MAX_POOLS} pools are kept, so that a feed of ever new
+ * player identifiers cannot grow the memory without limit. Beyond them, points
+ * are handed to the delegate and {@link #getPool(char, char)} builds a pool
+ * which is not kept.
+ * </p>
+ */
+public class TennisGameStatePoolServiceImpl implements TennisGameStateService {
+    /**
+     * Maximum number of pairs of players whose pool is kept.
+     */
+    public static final int MAX_POOLS = 1 << 10;
+
+    private final TennisGameStateService tennisGameStateService;
+    private final Map<Integer, TennisGameStatePool> pools = new ConcurrentHashMap<>();
+    private volatile TennisGameStatePool lastPool;
+
+    /**
+     * Constructs a new instance of {@code TennisGameStatePoolServiceImpl}.
+     *
+     * @param tennisGameStateService the service providing the game rules the
+     *                               pools are built from.
+     */
+    public TennisGameStatePoolServiceImpl(TennisGameStateService tennisGameStateService) {
+        this.tennisGameStateService = tennisGameStateService;
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameStatePoolServiceImpl}.
+     * Initializes the {@link TennisGameStateService} providing the rules.
+     */
+    public TennisGameStatePoolServiceImpl() {
+        this(new TennisGameStateServiceImpl());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation resolves the next state from the pool of the players
+     * of the last game state, and returns the shared instance. Like the rules
+     * service it falls back to, it emits a {@link TennisGamePointEvent} when it
+     * is enabled.
+     * </p>
+     *
+     * @param lastGameState   the last recorded state of the tennis game.
+     * @param currentWinnerId the identifier of the player who won the current
+     *                        point.
+     * @return the canonical next {@link TennisGameState}.
+     * @throws GameAlreadyFinishedException if the game has already finished.
+     */
+    @Override
+    public TennisGameState getNextGameState(TennisGameState lastGameState, Character currentWinnerId)
+            throws GameAlreadyFinishedException {
+        TennisGameStatePool pool = findPool(lastGameState.player1().id(), lastGameState.player2().id());
+        if (pool == null) {
+            return tennisGameStateService.getNextGameState(lastGameState, currentWinnerId);
+        }
+        int index = pool.indexOf(lastGameState);
+        int winnerSlot = pool.slotOf(currentWinnerId);
+        if (index != TennisGameStatePool.NO_STATE && winnerSlot > TennisGameStatePool.NO_WINNER_SLOT) {
+            int next = pool.next(index, winnerSlot);
+            if (next != TennisGameStatePool.NO_STATE) {
+                TennisGameState nextGameState = pool.state(next);
+                if (TennisGamePointEvent.isTypeEnabled()) {
+                    TennisGamePointEvent pointEvent = new TennisGamePointEvent();
+                    pointEvent.describe(nextGameState);
+                    pointEvent.commit();
+                }
+                return nextGameState;
+            }
+        }
+        return tennisGameStateService.getNextGameState(lastGameState, currentWinnerId);
+    }
+
+    /**
+     * Returns the pool of the game between the two given players, building it on
+     * first use.
+     *
+     * @param player1Id the identifier of the first player.
+     * @param player2Id the identifier of the second player.
+     * @return the shared {@link TennisGameStatePool}, or a new one once
+     *         {@link #MAX_POOLS} pools are kept.
+     */
+    public TennisGameStatePool getPool(char player1Id, char player2Id) {
+        TennisGameStatePool pool = findPool(player1Id, player2Id);
+        return pool != null ? pool : new TennisGameStatePool(player1Id, player2Id, tennisGameStateService);
+    }
+
+    /**
+     * @return the kept pool of the two given players, built on first use, or
+     *         {@code null} once {@link #MAX_POOLS} pools are kept.
+     */
+    private TennisGameStatePool findPool(char player1Id, char player2Id) {
+        TennisGameStatePool pool = lastPool;
+        if (pool != null && pool.player1Id() == player1Id && pool.player2Id() == player2Id) {
+            return pool;
+        }
+        int key = player1Id << Character.SIZE | player2Id;
+        pool = pools.get(key);
+        if (pool == null) {
+            // a few racing threads may go slightly past the limit
+            if (pools.size() >= MAX_POOLS) {
+                return null;
+            }
+            pool = pools.computeIfAbsent(key,
+                    k -> new TennisGameStatePool(player1Id, player2Id, tennisGameStateService));
+        }
+        lastPool = pool;
+        return pool;
+    }
+}
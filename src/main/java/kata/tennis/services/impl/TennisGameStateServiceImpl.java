@@ -3,8 +3,11 @@ package kata.tennis.services.impl;
 import kata.tennis.domain.TennisPlayer;
 import kata.tennis.domain.state.TennisGameState;
 import kata.tennis.domain.state.TennisScoreState;
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameMetrics.Stage;
 import kata.tennis.services.TennisGameStateService;
 import kata.tennis.services.TennisScoreStateService;
+import kata.tennis.services.events.TennisGamePointEvent;
 import kata.tennis.services.exceptions.GameAlreadyFinishedException;
 
 /**
@@ -13,6 +16,20 @@ import kata.tennis.services.exceptions.GameAlreadyFinishedException;
  */
 public class TennisGameStateServiceImpl implements TennisGameStateService {
         private final TennisScoreStateService tennisScoreService;
+        private final TennisGameMetrics metrics;
+
+        /**
+         * Constructs a new instance of {@code TennisGameStateServiceImpl} counting
+         * its transitions and errors.
+         *
+         * @param tennisScoreService The service responsible for managing tennis score
+         *                           states.
+         * @param metrics            the metrics the transitions are recorded to.
+         */
+        public TennisGameStateServiceImpl(TennisScoreStateService tennisScoreService, TennisGameMetrics metrics) {
+                this.tennisScoreService = tennisScoreService;
+                this.metrics = metrics;
+        }
 
         /**
          * Constructs a new instance of {@code TennisGameStateServiceImpl}.
@@ -25,22 +42,24 @@ public class TennisGameStateServiceImpl implements TennisGameStateService {
          *                           states.
          */
         public TennisGameStateServiceImpl(TennisScoreStateService tennisScoreService) {
-                this.tennisScoreService = tennisScoreService;
+                this(tennisScoreService, TennisGameMetrics.NOOP);
         }
 
         /**
          * Constructs a new instance of {@code TennisGameStateServiceImpl}.
-         * Initializes the {@link TennisScoreStateService}.
+         * Initializes the {@link TennisScoreStateService} with the compiled
+         * transition table of the default scoring rules.
          */
         public TennisGameStateServiceImpl() {
-                this.tennisScoreService = new TennisScoreStateServiceImpl();
+                this(new TennisScoreStateTableServiceImpl());
         }
 
         /**
          * {@inheritDoc}
          * <p>
          * This implementation determines the next state of the game based on the last
-         * game state and the current point winner.
+         * game state and the current point winner, and emits a
+         * {@link TennisGamePointEvent} when it is enabled.
          * </p>
          * 
          * @param lastGameState   the last recorded state of the tennis game.
@@ -53,27 +72,38 @@ public class TennisGameStateServiceImpl implements TennisGameStateService {
         @Override
         public TennisGameState getNextGameState(TennisGameState lastGameState, Character currentWinnerId)
                         throws GameAlreadyFinishedException {
-                if (lastGameState.winner().isPresent()) {
-                        throw new GameAlreadyFinishedException(String.format(
+                if (lastGameState.isFinished()) {
+                        GameAlreadyFinishedException error = new GameAlreadyFinishedException(String.format(
                                         "Player %c already won this game, you could not proceed with this point !",
                                         lastGameState.winner().get().id()));
+                        metrics.recordError(Stage.TRANSITION, error);
+                        throw error;
                 }
-                TennisPlayer pointWinner = lastGameState.player1().id().equals((char) currentWinnerId)
-                                ? lastGameState.player1()
-                                : lastGameState.player2();
-                TennisPlayer pointLoser = lastGameState.player1().id().equals((char) currentWinnerId)
-                                ? lastGameState.player2()
-                                : lastGameState.player1();
-                TennisScoreState currentScore = new TennisScoreState(pointWinner.tennisScore(),
-                                pointLoser.tennisScore());
-                TennisScoreState newScore = tennisScoreService.getNextScoreState(currentScore);
+                boolean player1WonPoint = lastGameState.player1().id() == currentWinnerId.charValue();
+                TennisPlayer pointWinner = player1WonPoint ? lastGameState.player1() : lastGameState.player2();
+                TennisPlayer pointLoser = player1WonPoint ? lastGameState.player2() : lastGameState.player1();
+                TennisScoreState newScore;
+                try {
+                        newScore = tennisScoreService.getNextScoreState(pointWinner.tennisScore(),
+                                        pointLoser.tennisScore());
+                } catch (RuntimeException e) {
+                        metrics.recordError(Stage.TRANSITION, e);
+                        throw e;
+                }
+                metrics.recordPoints(Stage.TRANSITION, 1);
                 TennisPlayer newPointWinner = new TennisPlayer(pointWinner.id(), newScore.winnerScore());
-                TennisPlayer newPointLoser = new TennisPlayer(pointLoser.id(), newScore.loserScore());
-                TennisPlayer newPlayer1 = newPointWinner.id().equals(lastGameState.player1().id()) ? newPointWinner
-                                : newPointLoser;
-                TennisPlayer newPlayer2 = newPointWinner.id().equals(lastGameState.player1().id()) ? newPointLoser
-                                : newPointWinner;
-                return new TennisGameState(currentWinnerId, newPlayer1, newPlayer2);
+                // the loser keeps its score on most points, and its player with it
+                TennisPlayer newPointLoser = pointLoser.tennisScore() == newScore.loserScore() ? pointLoser
+                                : new TennisPlayer(pointLoser.id(), newScore.loserScore());
+                TennisPlayer newPlayer1 = player1WonPoint ? newPointWinner : newPointLoser;
+                TennisPlayer newPlayer2 = player1WonPoint ? newPointLoser : newPointWinner;
+                TennisGameState newGameState = new TennisGameState(currentWinnerId, newPlayer1, newPlayer2);
+                if (TennisGamePointEvent.isTypeEnabled()) {
+                        TennisGamePointEvent pointEvent = new TennisGamePointEvent();
+                        pointEvent.describe(newGameState);
+                        pointEvent.commit();
+                }
+                return newGameState;
         }
 
 }
@@ -0,0 +1,104 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
+
+/**
+ * Implementation of {@link TennisGameOutputSink} writing to an
+ * {@link OutputStream}, such as {@link System#out}, through a heap buffer.
+ */
+public class TennisGameStreamOutputSinkImpl extends AbstractTennisGameOutputSink {
+    /**
+     * Default capacity of the buffer, 64 KiB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 << 10;
+
+    private final OutputStream output;
+    private final boolean closeOutput;
+    private final byte[] buffer;
+    private int bufferLength;
+
+    /**
+     * Constructs a new instance of {@code TennisGameStreamOutputSinkImpl}.
+     *
+     * @param output      the stream the lines are written to.
+     * @param bufferSize  the capacity of the buffer.
+     * @param flushPolicy the policy deciding when the buffer is written.
+     * @param closeOutput whether the stream is closed with the sink, or only
+     *                    flushed, as {@link System#out} should be.
+     */
+    public TennisGameStreamOutputSinkImpl(OutputStream output, int bufferSize,
+            TennisGameOutputFlushPolicy flushPolicy, boolean closeOutput) {
+        super(flushPolicy);
+        this.output = output;
+        this.closeOutput = closeOutput;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameStreamOutputSinkImpl}.
+     *
+     * @param output      the stream the lines are written to, closed with the
+     *                    sink.
+     * @param bufferSize  the capacity of the buffer.
+     * @param flushPolicy the policy deciding when the buffer is written.
+     */
+    public TennisGameStreamOutputSinkImpl(OutputStream output, int bufferSize,
+            TennisGameOutputFlushPolicy flushPolicy) {
+        this(output, bufferSize, flushPolicy, true);
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisGameStreamOutputSinkImpl} with a
+     * buffer of {@link #DEFAULT_BUFFER_SIZE}.
+     *
+     * @param output      the stream the lines are written to, closed with the
+     *                    sink.
+     * @param flushPolicy the policy deciding when the buffer is written.
+     */
+    public TennisGameStreamOutputSinkImpl(OutputStream output, TennisGameOutputFlushPolicy flushPolicy) {
+        this(output, DEFAULT_BUFFER_SIZE, flushPolicy);
+    }
+
+    @Override
+    protected int remaining() {
+        return buffer.length - bufferLength;
+    }
+
+    @Override
+    protected int buffered() {
+        return bufferLength;
+    }
+
+    @Override
+    protected void buffer(byte[] line) {
+        System.arraycopy(line, 0, buffer, bufferLength, line.length);
+        bufferLength += line.length;
+    }
+
+    @Override
+    protected void drain() throws IOException {
+        output.write(buffer, 0, bufferLength);
+        bufferLength = 0;
+    }
+
+    @Override
+    protected void writeDirectly(byte[] line) throws IOException {
+        output.write(line);
+    }
+
+    @Override
+    protected void flushDestination() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    protected void closeDestination() throws IOException {
+        if (closeOutput) {
+            output.close();
+        }
+    }
+}
@@ -78,7 +78,7 @@ public class TennisScoreStateServiceImpl implements TennisScoreStateService {
                         throws UnsupportedGameStatusException {
                 TennisScoreState currentTennisScoreState = new TennisScoreState(winnerScore, loserScore);
                 return Optional
-                                .of(scoreWinMutationsBasedOnCurrentTennisScoreState.getOrDefault(
+                                .ofNullable(scoreWinMutationsBasedOnCurrentTennisScoreState.getOrDefault(
                                                 currentTennisScoreState,
                                                 scoreWinMutations.get(winnerScore)))
                                 .orElseThrow(() -> {
@@ -0,0 +1,108 @@
+package kata.tennis.services.impl;
+
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisScoreState;
+import kata.tennis.services.TennisScoreStateService;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
+
+/**
+ * Implementation of {@link TennisScoreStateService} backed by a dense
+ * transition table.
+ * <p>
+ * The table is compiled once from a rules {@link TennisScoreStateService}
+ * (the map based {@link TennisScoreStateServiceImpl} by default) by evaluating
+ * it over every (winner score, loser score) pair. Each cell holds a canonical,
+ * pre-built {@link TennisScoreState}, so resolving a point is a single array
+ * access and never allocates. Pairs rejected by the rules are kept as empty
+ * cells and rejected the same way at lookup time.
+ * </p>
+ */
+public class TennisScoreStateTableServiceImpl implements TennisScoreStateService {
+
+    private static final TennisScore[] SCORES = TennisScore.values();
+    private static final int SCORES_COUNT = SCORES.length;
+
+    private final TennisScoreState[] transitions;
+
+    /**
+     * Constructs a new instance of {@code TennisScoreStateTableServiceImpl}
+     * compiling the given rules into a transition table.
+     *
+     * @param rules the score state service providing the mutation rules to
+     *              compile.
+     */
+    public TennisScoreStateTableServiceImpl(TennisScoreStateService rules) {
+        TennisScoreState[][] canonicalStates = new TennisScoreState[SCORES_COUNT][SCORES_COUNT];
+        for (TennisScore winnerScore : SCORES) {
+            for (TennisScore loserScore : SCORES) {
+                canonicalStates[winnerScore.ordinal()][loserScore.ordinal()] = new TennisScoreState(winnerScore,
+                        loserScore);
+            }
+        }
+        this.transitions = new TennisScoreState[SCORES_COUNT * SCORES_COUNT];
+        for (TennisScore winnerScore : SCORES) {
+            for (TennisScore loserScore : SCORES) {
+                TennisScoreState next;
+                try {
+                    next = rules.getNextScoreState(canonicalStates[winnerScore.ordinal()][loserScore.ordinal()]);
+                } catch (UnsupportedGameStatusException e) {
+                    continue;
+                }
+                transitions[index(winnerScore, loserScore)] = canonicalStates[next.winnerScore().ordinal()][next
+                        .loserScore().ordinal()];
+            }
+        }
+    }
+
+    /**
+     * Constructs a new instance of {@code TennisScoreStateTableServiceImpl}.
+     * Compiles the default rules of {@link TennisScoreStateServiceImpl}.
+     */
+    public TennisScoreStateTableServiceImpl() {
+        this(new TennisScoreStateServiceImpl());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation resolves the next score state from the compiled
+     * transition table.
+     * </p>
+     *
+     * @param currentScoreState the current score state of the tennis game.
+     * @return the canonical next {@link TennisScoreState}.
+     */
+    @Override
+    public TennisScoreState getNextScoreState(TennisScoreState currentScoreState)
+            throws UnsupportedGameStatusException {
+        return getNextScoreState(currentScoreState.winnerScore(), currentScoreState.loserScore());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation resolves the next score state from the compiled
+     * transition table without any allocation.
+     * </p>
+     *
+     * @param winnerScore the current score of the player who won the point.
+     * @param loserScore  the current score of the player who lost the point.
+     * @return the canonical next {@link TennisScoreState}.
+     */
+    @Override
+    public TennisScoreState getNextScoreState(TennisScore winnerScore, TennisScore loserScore)
+            throws UnsupportedGameStatusException {
+        TennisScoreState next = transitions[index(winnerScore, loserScore)];
+        if (next == null) {
+            throw new UnsupportedGameStatusException(String.format(
+                    "unsupported current game status for winner status : "
+                            + "[%s] and loser status : [%s]; could not be processed !",
+                    winnerScore.name(), loserScore.name()));
+        }
+        return next;
+    }
+
+    private static int index(TennisScore winnerScore, TennisScore loserScore) {
+        return winnerScore.ordinal() * SCORES_COUNT + loserScore.ordinal();
+    }
+}
@@ -0,0 +1,162 @@
+package kata.tennis.services.impl;
+
+import java.util.Arrays;
+
+import kata.tennis.domain.TennisScore;
+
+/**
+ * Transition function of a slice of a game history over the scores of both
+ * players.
+ * <p>
+ * For every pair of scores the game may be in before the slice, it gives the
+ * pair of scores after the slice, or the offset in the slice of the first point
+ * which could not be applied. Transitions of consecutive slices compose with
+ * {@link #andThen(TennisScoreTransition)}, an associative operation, so the
+ * transition of a whole history can be computed slice by slice in parallel and
+ * combined with a prefix scan.
+ * </p>
+ */
+final class TennisScoreTransition {
+    /**
+     * Number of pairs of scores, the domain of a transition.
+     */
+    static final int SCORES_PAIRS_COUNT = TennisScore.values().length * TennisScore.values().length;
+    /**
+     * Marker returned by {@link #errorOffset(int)} when every point of the slice
+     * could be applied.
+     */
+    static final long NO_ERROR = -1;
+
+    private final byte[] scoresPairs;
+    private final long[] errorOffsets;
+    private final long length;
+
+    private TennisScoreTransition(byte[] scoresPairs, long[] errorOffsets, long length) {
+        this.scoresPairs = scoresPairs;
+        this.errorOffsets = errorOffsets;
+        this.length = length;
+    }
+
+    /**
+     * Computes the transition of the points of the given slice of a history.
+     * <p>
+     * Every pair of scores is walked through the slice in lock step. Walks which
+     * reach the same pair of scores are merged, and failed walks are dropped, so
+     * that once the walks have converged the slice is only walked once.
+     * </p>
+     *
+     * @param pool        the pool of the players of the history.
+     * @param gameHistory the history, made of the two players identifiers only.
+     * @param from        the offset of the first point of the slice, inclusive.
+     * @param to          the offset of the last point of the slice, exclusive.
+     * @return the transition of the slice.
+     */
+    static TennisScoreTransition of(TennisGameStatePool pool, CharSequence gameHistory, int from, int to) {
+        byte[] scoresPairs = new byte[SCORES_PAIRS_COUNT];
+        long[] errorOffsets = new long[SCORES_PAIRS_COUNT];
+        Arrays.fill(errorOffsets, NO_ERROR);
+        // each walk is led by the first pair of scores which reached its current
+        // pair, the pairs it absorbed point to it.
+        int[] leaders = new int[SCORES_PAIRS_COUNT];
+        int[] walks = new int[SCORES_PAIRS_COUNT];
+        int[] currents = new int[SCORES_PAIRS_COUNT];
+        int[] seenAt = new int[SCORES_PAIRS_COUNT];
+        int[] seenBy = new int[SCORES_PAIRS_COUNT];
+        Arrays.fill(seenAt, -1);
+        int walksCount = SCORES_PAIRS_COUNT;
+        for (int scoresPair = 0; scoresPair < SCORES_PAIRS_COUNT; scoresPair++) {
+            leaders[scoresPair] = scoresPair;
+            walks[scoresPair] = scoresPair;
+            currents[scoresPair] = scoresPair;
+        }
+        int point = from;
+        for (; point < to && walksCount > 1; point++) {
+            int winnerSlot = ParallelTennisGameHistoryProcessorServiceImpl.winnerSlot(pool,
+                    gameHistory.charAt(point));
+            int kept = 0;
+            for (int i = 0; i < walksCount; i++) {
+                int walk = walks[i];
+                int next = pool.next(currents[walk], winnerSlot);
+                if (next == TennisGameStatePool.NO_STATE) {
+                    errorOffsets[walk] = point - from;
+                    continue;
+                }
+                int nextScoresPair = next % SCORES_PAIRS_COUNT;
+                if (seenAt[nextScoresPair] == point) {
+                    leaders[walk] = seenBy[nextScoresPair];
+                    continue;
+                }
+                seenAt[nextScoresPair] = point;
+                seenBy[nextScoresPair] = walk;
+                currents[walk] = nextScoresPair;
+                walks[kept++] = walk;
+            }
+            walksCount = kept;
+        }
+        if (walksCount == 1) {
+            int walk = walks[0];
+            int current = currents[walk];
+            for (; point < to; point++) {
+                int winnerSlot = ParallelTennisGameHistoryProcessorServiceImpl.winnerSlot(pool,
+                        gameHistory.charAt(point));
+                int next = pool.next(current, winnerSlot);
+                if (next == TennisGameStatePool.NO_STATE) {
+                    errorOffsets[walk] = point - from;
+                    break;
+                }
+                current = next % SCORES_PAIRS_COUNT;
+            }
+            currents[walk] = current;
+        }
+        for (int scoresPair = 0; scoresPair < SCORES_PAIRS_COUNT; scoresPair++) {
+            int leader = scoresPair;
+            while (leaders[leader] != leader) {
+                leader = leaders[leader];
+            }
+            scoresPairs[scoresPair] = (byte) currents[leader];
+            errorOffsets[scoresPair] = errorOffsets[leader];
+        }
+        return new TennisScoreTransition(scoresPairs, errorOffsets, to - from);
+    }
+
+    /**
+     * Composes this transition with the transition of the slice following this
+     * one.
+     *
+     * @param next the transition of the following slice.
+     * @return the transition of both slices.
+     */
+    TennisScoreTransition andThen(TennisScoreTransition next) {
+        byte[] scoresPairs = new byte[SCORES_PAIRS_COUNT];
+        long[] errorOffsets = new long[SCORES_PAIRS_COUNT];
+        for (int scoresPair = 0; scoresPair < SCORES_PAIRS_COUNT; scoresPair++) {
+            if (this.errorOffsets[scoresPair] != NO_ERROR) {
+                errorOffsets[scoresPair] = this.errorOffsets[scoresPair];
+                continue;
+            }
+            int middle = this.scoresPairs[scoresPair];
+            scoresPairs[scoresPair] = next.scoresPairs[middle];
+            errorOffsets[scoresPair] = next.errorOffsets[middle] == NO_ERROR ? NO_ERROR
+                    : length + next.errorOffsets[middle];
+        }
+        return new TennisScoreTransition(scoresPairs, errorOffsets, length + next.length);
+    }
+
+    /**
+     * @param scoresPair the pair of scores before the slice.
+     * @return the pair of scores after the slice, meaningless if a point could
+     *         not be applied.
+     */
+    int scoresPair(int scoresPair) {
+        return scoresPairs[scoresPair];
+    }
+
+    /**
+     * @param scoresPair the pair of scores before the slice.
+     * @return the offset in the slice of the first point which could not be
+     *         applied, or {@link #NO_ERROR}.
+     */
+    long errorOffset(int scoresPair) {
+        return errorOffsets[scoresPair];
+    }
+}
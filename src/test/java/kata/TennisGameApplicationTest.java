@@ -0,0 +1,174 @@
+package kata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TennisGameApplicationTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+
+    @BeforeEach
+    public void setUpStreams() {
+        System.setOut(new PrintStream(outContent));
+        System.setErr(new PrintStream(errContent));
+    }
+
+    @AfterEach
+    public void restoreStreams() {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void test_single_history() throws IOException {
+        // given
+        String expectedOutput = """
+                A > Player A: 15 / Player B: 0
+                B > Player A: 15 / Player B: 15
+                """;
+        // when
+        TennisGameApplication.main(new String[] { "AB" });
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+    }
+
+    @Test
+    public void test_many_histories() throws IOException {
+        // given
+        String expectedOutput = """
+                A > Player A: 15 / Player B: 0
+                B > Player A: 15 / Player B: 15
+                """;
+        // when
+        TennisGameApplication.main(new String[] { "ABC", "AB" });
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+        assertEquals("ABC > 'ABC' not supported, should contain only two player identifiers"
+                + System.lineSeparator(), errContent.toString());
+    }
+
+    @Test
+    public void test_file_of_histories() throws IOException {
+        // given
+        Path file = tempDir.resolve("histories.txt");
+        Files.writeString(file, "AAAA\nABC\nAB\n");
+        String expectedOutput = """
+                A > Player A wins the game
+                Player A: 15 / Player B: 15
+                """;
+        // when
+        TennisGameApplication.main(new String[] { "--file", file.toString() });
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+        assertEquals("line 2 > unsupported players count at position 2" + System.lineSeparator(),
+                errContent.toString());
+    }
+
+    @Test
+    public void test_two_histories() throws IOException {
+        // given
+        String expectedOutput = """
+                A > Player A: 15 / Player B: 0
+                B > Player B: 15 / Player C: 0
+                """;
+        // when
+        TennisGameApplication.main(new String[] { "A", "B" });
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+    }
+
+    @Test
+    public void test_output_file() throws IOException {
+        // given
+        Path output = tempDir.resolve("scores.txt");
+        String expectedOutput = """
+                A > Player A: 15 / Player B: 0
+                A > Player A: 30 / Player B: 0
+                """;
+        // when
+        TennisGameApplication.main(new String[] { "--output", output.toString(), "--flush", "line", "AA" });
+        // then
+        assertEquals(expectedOutput, Files.readString(output));
+        assertEquals("", outContent.toString());
+    }
+
+    @Test
+    public void test_async_printer() throws IOException {
+        // given
+        String expectedOutput = """
+                A > Player A: 15 / Player B: 0
+                B > Player A: 15 / Player B: 15
+                """;
+        // when
+        TennisGameApplication.main(new String[] { "--async", "AB", "AB" });
+        // then
+        assertEquals(expectedOutput + expectedOutput, outContent.toString());
+    }
+
+    @Test
+    public void test_metrics_file() throws IOException {
+        // given
+        Path metrics = tempDir.resolve("metrics.prom");
+        // when
+        TennisGameApplication.main(new String[] { "--metrics", metrics.toString(), "AAAA" });
+        // then
+        String exported = Files.readString(metrics);
+        assertTrue(exported.contains("tennis_games_total{stage=\"runner\"} 1\n"), exported);
+        assertTrue(exported.contains("tennis_points_total{stage=\"runner\"} 4\n"), exported);
+    }
+
+    @Test
+    public void test_cache() throws IOException {
+        // given
+        String expectedOutput = """
+                A > Player A: 15 / Player B: 0
+                B > Player A: 15 / Player B: 15
+                X > Player X: 15 / Player Y: 0
+                Y > Player X: 15 / Player Y: 15
+                """;
+        // when
+        TennisGameApplication.main(new String[] { "--cache", "AB", "XY" });
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+    }
+
+    @Test
+    public void test_cache_metrics() throws IOException {
+        // given
+        Path metrics = tempDir.resolve("metrics.prom");
+        // when
+        TennisGameApplication.main(new String[] { "--cache", "--metrics", metrics.toString(), "AB", "XY" });
+        // then
+        String exported = Files.readString(metrics);
+        assertTrue(exported.contains("tennis_games_total{stage=\"processor\"} 2\n"), exported);
+        // the histories are scored in parallel, both may miss
+        assertTrue(exported.contains("tennis_cache_requests_total{result=\"hit\"} "), exported);
+        assertTrue(exported.contains("tennis_cache_requests_total{result=\"miss\"} "), exported);
+    }
+
+    @Test
+    public void test_option_without_value() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> TennisGameApplication.main(new String[] { "AB", "--file" }));
+        // then
+        assertEquals("'--file' should be followed by a value", exception.getMessage());
+    }
+}
@@ -1,14 +1,30 @@
 package kata.tennis;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import kata.tennis.domain.TennisGameHistoryResult;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.impl.TennisGameHistoryPrinterServiceImpl;
+import kata.tennis.services.impl.TennisGameMetricsRegistryImpl;
+import kata.tennis.services.impl.TennisGameStreamOutputSinkImpl;
 import kata.tennis.services.exceptions.GameAlreadyFinishedException;
 import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
 
@@ -306,6 +322,29 @@ public class GameRunnerTest {
         assertEquals(expectedOutput, outContent.toString());
     }
 
+    @Test
+    public void test_batch_of_histories() {
+        // given
+        List<String> gameHistories = List.of("AAAA", "ABC", "BBB");
+        String expectedOutput = """
+                A > Player A: 15 / Player B: 0
+                A > Player A: 30 / Player B: 0
+                A > Player A: 40 / Player B: 0
+                A > Player A wins the game
+                B > Player B: 15 / Player C: 0
+                B > Player B: 30 / Player C: 0
+                B > Player B: 40 / Player C: 0
+                """;
+        // when
+        List<TennisGameHistoryResult<List<TennisGameState>>> failures = gameRunner
+                .printGameScoresFromHistories(gameHistories);
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+        assertEquals(1, failures.size());
+        assertEquals("ABC", failures.get(0).gameHistory());
+        assertInstanceOf(UnsupportedPlayersCountException.class, failures.get(0).error());
+    }
+
     // --------- failing cases ----------//
 
     @Test
@@ -343,4 +382,68 @@ public class GameRunnerTest {
         // then
         assertInstanceOf(GameAlreadyFinishedException.class, thrown);
     }
+
+    @Test
+    public void test_metrics() {
+        // given
+        TennisGameMetricsRegistryImpl registry = new TennisGameMetricsRegistryImpl();
+        GameRunner meteredGameRunner = new GameRunner(new TennisGameHistoryPrinterServiceImpl(
+                new TennisGameStreamOutputSinkImpl(System.out, TennisGameOutputFlushPolicy.perGame()),
+                Charset.defaultCharset(), registry), registry);
+        // when
+        meteredGameRunner.printGameScoresFromHistory("AAAA");
+        meteredGameRunner.printGameScoresFromHistory("AB");
+        assertThrows(GameAlreadyFinishedException.class, () -> {
+            meteredGameRunner.printGameScoresFromHistory("AAAAB");
+        });
+        // then
+        assertEquals(2, registry.getGamesCount(Stage.RUNNER));
+        assertEquals(6, registry.getPointsCount(Stage.RUNNER));
+        assertEquals(2, registry.getLatencyHistogram(Stage.RUNNER).getCount());
+        assertEquals(Map.of("GameAlreadyFinishedException", 1L), registry.getErrorsCounts(Stage.RUNNER));
+        assertEquals(2, registry.getGamesCount(Stage.PRINTER));
+        assertEquals(2, registry.getGamesCount(Stage.PROCESSOR));
+    }
+
+    @Test
+    public void test_flight_recorder_events(@TempDir Path tempDir) throws IOException {
+        // given
+        Path recordingFile = tempDir.resolve("runner.jfr");
+        // builds the pool of the players before recording
+        gameRunner.printGameScoresFromHistory("AB");
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable("kata.tennis.GameStage");
+            recording.enable("kata.tennis.GamePoint");
+            recording.start();
+            gameRunner.printGameScoresFromHistory("ABAAA");
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getThread().getJavaThreadId() == Thread.currentThread().getId())
+                .toList();
+        List<String> stages = events.stream()
+                .filter(event -> event.getEventType().getName().equals("kata.tennis.GameStage"))
+                .map(event -> String.format("%s %d %c %c %s", event.getString("stage"),
+                        event.getInt("historyLength"), event.getChar("player1Id"), event.getChar("player2Id"),
+                        event.getString("outcome")))
+                .toList();
+        List<String> points = events.stream()
+                .filter(event -> event.getEventType().getName().equals("kata.tennis.GamePoint"))
+                .map(event -> String.format("%c %s %s", event.getChar("pointWinnerId"),
+                        event.getString("player1Score"), event.getString("player2Score")))
+                .toList();
+        assertEquals(List.of(
+                "player detection 5 A B Player A wins the game",
+                "state generation 5 A B Player A wins the game",
+                "printing 5 A B Player A wins the game"), stages);
+        assertEquals(List.of(
+                "A FIFTEEN ZERO",
+                "B FIFTEEN FIFTEEN",
+                "A THIRTY FIFTEEN",
+                "A FORTY FIFTEEN",
+                "A WIN LOSE"), points);
+    }
 }
@@ -0,0 +1,24 @@
+package kata.tennis.services;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class TennisGameOutputFlushPolicyTest {
+
+    @Test
+    public void test_parse() {
+        assertEquals(TennisGameOutputFlushPolicy.perLine(), TennisGameOutputFlushPolicy.parse("line"));
+        assertEquals(TennisGameOutputFlushPolicy.perGame(), TennisGameOutputFlushPolicy.parse("game"));
+        assertEquals(TennisGameOutputFlushPolicy.bySize(4096), TennisGameOutputFlushPolicy.parse("size=4096"));
+        assertEquals(TennisGameOutputFlushPolicy.byTime(Duration.ofMillis(250)),
+                TennisGameOutputFlushPolicy.parse("time=250"));
+    }
+
+    @Test
+    public void test_unsupported_policy() {
+        assertThrows(IllegalArgumentException.class, () -> TennisGameOutputFlushPolicy.parse("never"));
+    }
+}
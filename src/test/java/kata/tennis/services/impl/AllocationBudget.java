@@ -0,0 +1,82 @@
+package kata.tennis.services.impl;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Test harness measuring the bytes allocated by the current thread with the
+ * {@link com.sun.management.ThreadMXBean} allocation counters, and failing a
+ * test when a run allocates more than its declared budget.
+ * <p>
+ * Runs are first repeated until the JIT compiled them, so that escape analysis
+ * removes what it would remove in production. The allocations are then
+ * measured over several rounds and the lowest round is kept, which filters
+ * out the allocations of the JVM itself, e.g. of a compilation, landing in the
+ * middle of a round.
+ * </p>
+ */
+final class AllocationBudget {
+    private static final int WARMUP_RUNS = 20_000;
+    private static final int MEASURED_RUNS = 2_000;
+    private static final int ROUNDS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationBudget() {
+    }
+
+    /**
+     * Measures the bytes allocated per unit of work by the given run.
+     *
+     * @param unitsPerRun the number of units of work, e.g. points, done by a run.
+     * @param run         the run to measure.
+     * @return the bytes allocated per unit, in the lowest round.
+     */
+    static double measure(long unitsPerRun, Runnable run) {
+        assumeTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported(), "thread allocation counters not supported");
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.run();
+        }
+        long lowest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocatedBefore = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < MEASURED_RUNS; i++) {
+                run.run();
+            }
+            lowest = Math.min(lowest, THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore);
+        }
+        return (double) lowest / MEASURED_RUNS / unitsPerRun;
+    }
+
+    /**
+     * Skips the current test unless references are compressed, for budgets
+     * counting the sizes of the allocated objects.
+     */
+    static void assumeCompressedOops() {
+        HotSpotDiagnosticMXBean diagnosticMXBean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        assumeTrue(diagnosticMXBean != null
+                && Boolean.parseBoolean(diagnosticMXBean.getVMOption("UseCompressedOops").getValue()),
+                "object sizes assume compressed references");
+    }
+
+    /**
+     * Fails when the given run allocates more than the given budget per unit of
+     * work.
+     *
+     * @param name        the name of the measured work, for the failure message.
+     * @param budget      the bytes a unit of work may allocate.
+     * @param unitsPerRun the number of units of work done by a run.
+     * @param run         the run to measure.
+     */
+    static void assertWithinBudget(String name, double budget, long unitsPerRun, Runnable run) {
+        double allocated = measure(unitsPerRun, run);
+        assertTrue(allocated <= budget, () -> String.format("%s allocates %.1f bytes per unit, over its budget of %.1f",
+                name, allocated, budget));
+    }
+}
@@ -0,0 +1,34 @@
+package kata.tennis.services.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class AsciiCharSequenceTest {
+
+    ByteBuffer buffer = ByteBuffer.wrap("AABB\nABAB".getBytes(StandardCharsets.US_ASCII));
+
+    @Test
+    public void test_view_over_bytes() {
+        // given
+        AsciiCharSequence line = new AsciiCharSequence(buffer).reset(5, 4);
+        // then
+        assertEquals(4, line.length());
+        assertEquals('B', line.charAt(1));
+        assertEquals("ABAB", line.toString());
+        assertEquals("BA", line.subSequence(1, 3).toString());
+    }
+
+    @Test
+    public void test_out_of_bounds() {
+        AsciiCharSequence line = new AsciiCharSequence(buffer, 0, 4);
+        assertThrows(IndexOutOfBoundsException.class, () -> line.charAt(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> line.charAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> line.subSequence(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> line.subSequence(0, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> line.subSequence(3, 2));
+    }
+}
@@ -0,0 +1,146 @@
+package kata.tennis.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+
+public class AsyncTennisGameHistoryPrinterServiceImplTest {
+
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @Test
+    public void test_same_output_as_synchronous_printer() {
+        // given
+        ByteArrayOutputStream expectedOutput = new ByteArrayOutputStream();
+        TennisGameHistoryPrinterService synchronousPrinter = new TennisGameHistoryPrinterServiceImpl(expectedOutput,
+                StandardCharsets.UTF_8);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsyncTennisGameHistoryPrinterServiceImpl printer = new AsyncTennisGameHistoryPrinterServiceImpl(
+                new TennisGameHistoryPrinterServiceImpl(output, StandardCharsets.UTF_8), 4);
+        List<TennisGameState> states = processor.generateGameStatesFromHistory("AABABBABABBAABBB");
+        TennisGameOutcome outcome = processor.evaluateGameHistory("AABABB");
+        // when
+        for (int game = 0; game < 200; game++) {
+            synchronousPrinter.printScoreFromGameStates(states);
+            synchronousPrinter.printGameOutcome(outcome);
+            printer.printScoreFromGameStates(states);
+            printer.printGameOutcome(outcome);
+        }
+        printer.close();
+        // then
+        assertEquals(expectedOutput.toString(StandardCharsets.UTF_8), output.toString(StandardCharsets.UTF_8));
+        assertTrue(printer.getStallsCount() > 0);
+    }
+
+    @Test
+    public void test_printer_metrics_are_recorded_by_the_writer() {
+        // given
+        TennisGameMetricsRegistryImpl metrics = new TennisGameMetricsRegistryImpl();
+        AsyncTennisGameHistoryPrinterServiceImpl printer = new AsyncTennisGameHistoryPrinterServiceImpl(
+                new TennisGameHistoryPrinterServiceImpl(new TennisGameStreamOutputSinkImpl(
+                        OutputStream.nullOutputStream(), TennisGameOutputFlushPolicy.perGame()),
+                        StandardCharsets.UTF_8, metrics));
+        // when
+        printer.printScoreFromGameStates(processor.generateGameStatesFromHistory("AABABB"));
+        printer.printGameOutcome(processor.evaluateGameHistory("AAAA"));
+        printer.close();
+        // then
+        assertEquals(2, metrics.getGamesCount(Stage.PRINTER));
+        assertEquals(10, metrics.getPointsCount(Stage.PRINTER));
+        assertEquals(2, metrics.getLatencyHistogram(Stage.PRINTER).getCount());
+    }
+
+    @Test
+    public void test_flush_waits_for_the_writer() {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsyncTennisGameHistoryPrinterServiceImpl printer = new AsyncTennisGameHistoryPrinterServiceImpl(
+                new TennisGameHistoryPrinterServiceImpl(output, StandardCharsets.UTF_8));
+        // when
+        printer.printScoreFromGameStates(processor.generateGameStatesFromHistory("AAAA"));
+        printer.flush();
+        // then
+        assertEquals(4, output.toString(StandardCharsets.UTF_8).lines().count());
+        printer.close();
+        printer.close();
+        assertThrows(IllegalStateException.class,
+                () -> printer.printGameOutcome(processor.evaluateGameHistory("AAAA")));
+    }
+
+    @Test
+    public void test_writer_failure_is_reported() {
+        // given
+        OutputStream failingOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken pipe");
+            }
+        };
+        TennisGameMetricsRegistryImpl metrics = new TennisGameMetricsRegistryImpl();
+        AsyncTennisGameHistoryPrinterServiceImpl printer = new AsyncTennisGameHistoryPrinterServiceImpl(
+                new TennisGameHistoryPrinterServiceImpl(new TennisGameStreamOutputSinkImpl(failingOutput,
+                        TennisGameOutputFlushPolicy.perGame()), StandardCharsets.UTF_8, metrics), 2);
+        List<TennisGameState> states = processor.generateGameStatesFromHistory("AABABBABAA");
+        // when / then
+        assertThrows(UncheckedIOException.class, () -> {
+            for (int game = 0; game < 100; game++) {
+                printer.printScoreFromGameStates(states);
+            }
+            printer.flush();
+        });
+        assertThrows(UncheckedIOException.class, printer::close);
+        assertEquals(Map.of("UncheckedIOException", 1L), metrics.getErrorsCounts(Stage.PRINTER));
+    }
+
+    @Test
+    public void test_writer_failure_is_reported_on_the_next_publication() {
+        // given
+        OutputStream failingOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken pipe");
+            }
+        };
+        AsyncTennisGameHistoryPrinterServiceImpl printer = new AsyncTennisGameHistoryPrinterServiceImpl(
+                new TennisGameHistoryPrinterServiceImpl(failingOutput, StandardCharsets.UTF_8));
+        printer.printScoreFromGameStates(processor.generateGameStatesFromHistory("AAAA"));
+        assertThrows(UncheckedIOException.class, printer::flush);
+        // when / then: the ring has room, the failure is still reported
+        assertThrows(UncheckedIOException.class,
+                () -> printer.printGameOutcome(processor.evaluateGameHistory("AAAA")));
+    }
+
+    @Test
+    public void test_idle_writer_is_woken_up() throws InterruptedException {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AsyncTennisGameHistoryPrinterServiceImpl printer = new AsyncTennisGameHistoryPrinterServiceImpl(
+                new TennisGameHistoryPrinterServiceImpl(output, StandardCharsets.UTF_8));
+        // when
+        for (int game = 0; game < 3; game++) {
+            // lets the writer drain the ring and park
+            Thread.sleep(20);
+            printer.printGameOutcome(processor.evaluateGameHistory("AAAA"));
+            printer.flush();
+        }
+        printer.close();
+        // then
+        assertEquals(3, output.toString(StandardCharsets.UTF_8).lines().count());
+    }
+}
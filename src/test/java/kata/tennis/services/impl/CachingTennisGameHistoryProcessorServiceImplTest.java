@@ -0,0 +1,181 @@
+package kata.tennis.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+
+public class CachingTennisGameHistoryProcessorServiceImplTest {
+
+    TennisGameHistoryProcessorService sequential = new TennisGameHistoryProcessorServiceImpl();
+    TennisGameHistoryCache cache = new TennisGameHistoryCache();
+    CachingTennisGameHistoryProcessorServiceImpl caching = new CachingTennisGameHistoryProcessorServiceImpl(
+            new TennisGameStatePoolServiceImpl(), cache);
+
+    // cached states must give the same states, outcomes and errors as the
+    // sequential processing, on a miss as well as on a hit.
+    @ParameterizedTest
+    @MethodSource("provideGameHistories")
+    void test_caching_is_equivalent_to_sequential(String gameHistory) {
+        RuntimeException expected;
+        try {
+            // when
+            var expectedStates = sequential.generateGameStatesFromHistory(gameHistory);
+            var expectedOutcome = sequential.evaluateGameHistory(gameHistory);
+            // then
+            assertEquals(expectedStates, caching.generateGameStatesFromHistory(gameHistory));
+            assertEquals(expectedStates, caching.generateGameStatesFromHistory(gameHistory));
+            assertEquals(expectedOutcome, caching.evaluateGameHistory(gameHistory));
+            assertEquals(sequential.tryEvaluateGameHistory(gameHistory), caching.tryEvaluateGameHistory(gameHistory));
+            return;
+        } catch (IllegalArgumentException e) {
+            expected = e;
+        }
+        RuntimeException generateError = assertThrows(expected.getClass(),
+                () -> caching.generateGameStatesFromHistory(gameHistory));
+        RuntimeException evaluateError = assertThrows(expected.getClass(),
+                () -> caching.evaluateGameHistory(gameHistory));
+        assertEquals(expected.getMessage(), generateError.getMessage());
+        assertEquals(expected.getMessage(), evaluateError.getMessage());
+        assertEquals(sequential.tryEvaluateGameHistory(gameHistory), caching.tryEvaluateGameHistory(gameHistory));
+    }
+
+    @Test
+    void test_histories_of_other_players_share_an_entry() {
+        // when
+        caching.generateGameStatesFromHistory("AABA");
+        var states = caching.generateGameStatesFromHistory("XXYX");
+        var outcome = caching.evaluateGameHistory("MMNMM");
+        // then
+        assertEquals(sequential.generateGameStatesFromHistory("XXYX"), states);
+        assertEquals(sequential.evaluateGameHistory("MMNMM"), outcome);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(2, cache.getMissesCount());
+    }
+
+    @Test
+    void test_long_histories_and_streams_are_not_cached() {
+        // given
+        String gameHistory = "AAABBB" + "AB".repeat(TennisGameHistoryCache.MAX_HISTORY_LENGTH);
+        // when then
+        assertEquals(sequential.generateGameStatesFromHistory(gameHistory),
+                caching.generateGameStatesFromHistory(gameHistory));
+        assertEquals(sequential.streamGameStatesFromHistory("ABAA").toList(),
+                caching.streamGameStatesFromHistory("ABAA").toList());
+        assertEquals(sequential.streamGameStatesFromHistory("ABAA").toList(),
+                caching.streamGameStatesFromHistory(new StringReader("ABAA")).toList());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHitsCount() + cache.getMissesCount());
+    }
+
+    @Test
+    void test_cached_states_are_rendered_with_the_actual_players() {
+        // given
+        ByteArrayOutputStream cachedOutput = new ByteArrayOutputStream();
+        ByteArrayOutputStream expectedOutput = new ByteArrayOutputStream();
+        TennisGameHistoryPrinterService cachedPrinter = new TennisGameHistoryPrinterServiceImpl(cachedOutput,
+                StandardCharsets.UTF_8);
+        TennisGameHistoryPrinterService expectedPrinter = new TennisGameHistoryPrinterServiceImpl(expectedOutput,
+                StandardCharsets.UTF_8);
+        // when
+        for (String gameHistory : new String[] { "AABAA", "XXYXX", "ZZZ", "YYXYY" }) {
+            cachedPrinter.printScoreFromGameStates(caching.generateGameStatesFromHistory(gameHistory));
+            expectedPrinter.printScoreFromGameStates(sequential.generateGameStatesFromHistory(gameHistory));
+        }
+        // then
+        assertEquals(expectedOutput.toString(StandardCharsets.UTF_8), cachedOutput.toString(StandardCharsets.UTF_8));
+        assertEquals(1, cache.getHitsCount());
+    }
+
+    @Test
+    void test_hits_and_misses_are_recorded_to_the_metrics() {
+        // given
+        TennisGameMetricsRegistryImpl metrics = new TennisGameMetricsRegistryImpl();
+        CachingTennisGameHistoryProcessorServiceImpl measured = new CachingTennisGameHistoryProcessorServiceImpl(
+                new TennisGameStatePoolServiceImpl(), cache, metrics);
+        // when
+        measured.generateGameStatesFromHistory("ABAB");
+        measured.evaluateGameHistory("XYXY");
+        measured.tryEvaluateGameHistory("ABAB");
+        assertThrows(GameAlreadyFinishedException.class, () -> measured.generateGameStatesFromHistory("AAAAB"));
+        // then
+        assertEquals(2, metrics.getGamesCount(Stage.PROCESSOR));
+        assertEquals(8, metrics.getPointsCount(Stage.PROCESSOR));
+        assertEquals(2, metrics.getLatencyHistogram(Stage.PROCESSOR).getCount());
+        assertEquals(Map.of("GameAlreadyFinishedException", 1L), metrics.getErrorsCounts(Stage.PROCESSOR));
+    }
+
+    @Test
+    void test_hits_and_misses_are_recorded_as_stage_events(@TempDir Path tempDir) throws IOException {
+        // given
+        Path recordingFile = tempDir.resolve("stages.jfr");
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable("kata.tennis.GameStage");
+            recording.start();
+            caching.generateGameStatesFromHistory("ABAB");
+            caching.generateGameStatesFromHistory("XYXY");
+            assertThrows(GameAlreadyFinishedException.class, () -> caching.generateGameStatesFromHistory("AAAAB"));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        // then
+        List<String> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getThread().getJavaThreadId() == Thread.currentThread().getId())
+                .map(event -> event.getString("stage") + " " + event.getInt("historyLength") + " "
+                        + event.getString("outcome"))
+                .toList();
+        assertEquals(List.of(
+                "player detection 4 in progress",
+                "state generation 4 in progress",
+                "player detection 4 in progress",
+                "state generation 4 in progress",
+                "state generation 5 GameAlreadyFinishedException"), events);
+    }
+
+    @Test
+    void test_default_cache() {
+        // given
+        CachingTennisGameHistoryProcessorServiceImpl defaultCaching = new CachingTennisGameHistoryProcessorServiceImpl();
+        // when
+        defaultCaching.evaluateGameHistory("ABAB");
+        defaultCaching.evaluateGameHistory("CDCD");
+        // then
+        assertEquals(1, defaultCaching.getCache().getHitsCount());
+        assertEquals(1, defaultCaching.getCache().getMissesCount());
+    }
+
+    static Stream<Arguments> provideGameHistories() {
+        return Stream.of(
+                Arguments.of("A"),
+                Arguments.of("Z"),
+                Arguments.of("BBB"),
+                Arguments.of("AAAA"),
+                Arguments.of("ABABABBB"),
+                Arguments.of("YXYXYXXX"),
+                Arguments.of(""),
+                Arguments.of("ABC"),
+                Arguments.of("AAAAB"),
+                Arguments.of("AB".repeat(40)));
+    }
+}
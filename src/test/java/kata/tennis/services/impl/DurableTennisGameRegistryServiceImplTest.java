@@ -0,0 +1,275 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnknownMatchException;
+
+public class DurableTennisGameRegistryServiceImplTest {
+    private static final int SMALL_SEGMENT_SIZE = 256;
+
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void test_games_are_recovered_after_reopening() {
+        // given
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            registry.openGame("final", 'B', 'A');
+            registry.openGame("semi", 'C', 'D');
+            registry.openGame("quarter", 'E', 'F');
+            for (char point : "ABBAA".toCharArray()) {
+                registry.submitPoint("final", point);
+            }
+            registry.submitPoint("semi", 'D');
+            registry.closeGame("quarter");
+        }
+        // when
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            // then
+            assertEquals(2, registry.getGamesCount());
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("ABBAA").get(4)),
+                    registry.getGameState("final"));
+            assertEquals(Optional.of(new TennisGameState('D', new TennisPlayer('C', TennisScore.ZERO),
+                    new TennisPlayer('D', TennisScore.FIFTEEN))), registry.getGameState("semi"));
+            assertEquals(Optional.empty(), registry.getGameState("quarter"));
+            // the recovered games go on
+            assertEquals(processor.generateGameStatesFromHistory("ABBAAA").get(5), registry.submitPoint("final", 'A'));
+        }
+    }
+
+    @Test
+    public void test_rejected_changes_are_not_recorded() {
+        // given
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            registry.openGame("final", 'A', 'B');
+            for (char point : "AAAA".toCharArray()) {
+                registry.submitPoint("final", point);
+            }
+            // when
+            assertThrows(GameAlreadyFinishedException.class, () -> registry.submitPoint("final", 'B'));
+            assertThrows(UnknownMatchException.class, () -> registry.submitPoint("semi", 'B'));
+            assertThrows(IllegalStateException.class, () -> registry.openGame("final", 'A', 'B'));
+            assertEquals(Optional.empty(), registry.closeGame("semi"));
+        }
+        // then
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("AAAA").get(3)),
+                    registry.getGameState("final"));
+            assertEquals(1, registry.getGamesCount());
+        }
+    }
+
+    @Test
+    public void test_recovery_replays_the_records_following_the_snapshot() throws IOException {
+        // given: a snapshot every 4 records, on segments of a few records
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), SMALL_SEGMENT_SIZE, 4)) {
+            registry.openGame("final", 'A', 'B');
+            for (char point : "ABABABAB".toCharArray()) {
+                registry.submitPoint("final", point);
+            }
+            registry.openGame("semi", 'C', 'D');
+            for (char point : "CDC".toCharArray()) {
+                registry.submitPoint("semi", point);
+            }
+        }
+        // then: the covered segments and older snapshots are deleted
+        assertEquals(List.of("snapshot-00000000000000000011.log"), files("snapshot-"));
+        assertEquals(List.of("segment-00000000000000000009.log"), files("segment-"));
+        // when
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), SMALL_SEGMENT_SIZE, 4)) {
+            // then
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("ABABABAB").get(7)),
+                    registry.getGameState("final"));
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("CDC").get(2)),
+                    registry.getGameState("semi"));
+        }
+    }
+
+    @Test
+    public void test_explicit_snapshot() throws IOException {
+        // given
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            registry.openGame("final", 'A', 'B');
+            registry.submitPoint("final", 'B');
+            // when
+            registry.snapshot();
+            registry.submitPoint("final", 'B');
+        }
+        // then
+        assertEquals(List.of("snapshot-00000000000000000001.log"), files("snapshot-"));
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            assertEquals(Optional.of(new TennisGameState('B', new TennisPlayer('A', TennisScore.ZERO),
+                    new TennisPlayer('B', TennisScore.THIRTY))), registry.getGameState("final"));
+        }
+    }
+
+    @Test
+    public void test_recovery_stops_at_a_torn_record() throws IOException {
+        // given: the last point is cut by a crash
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            registry.openGame("final", 'A', 'B');
+            registry.submitPoint("final", 'A');
+            registry.submitPoint("final", 'A');
+        }
+        Path segment = directory.resolve(files("segment-").get(0));
+        int recordSize = 4 + 15 + "final".length() + 4;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // corrupts the checksum of the third record
+            channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 }), 3L * recordSize - 4);
+        }
+        // when
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            // then
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("A").get(0)),
+                    registry.getGameState("final"));
+            registry.submitPoint("final", 'B');
+        }
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("AB").get(1)),
+                    registry.getGameState("final"));
+        }
+    }
+
+    @Test
+    public void test_segments_following_a_gap_are_dropped() throws IOException {
+        // given
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), SMALL_SEGMENT_SIZE, Long.MAX_VALUE)) {
+            registry.openGame("final", 'A', 'B');
+            for (char point : "AB".repeat(13).toCharArray()) {
+                registry.submitPoint("final", point);
+            }
+        }
+        List<String> segments = files("segment-");
+        assertEquals(3, segments.size());
+        Files.delete(directory.resolve(segments.get(1)));
+        // when
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), SMALL_SEGMENT_SIZE, Long.MAX_VALUE)) {
+            // then: only the points of the first segment are replayed
+            assertEquals(List.of(segments.get(0)), files("segment-"));
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("ABABABAB").get(7)),
+                    registry.getGameState("final"));
+        }
+    }
+
+    @Test
+    public void test_match_id_too_long() {
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), SMALL_SEGMENT_SIZE, 4)) {
+            assertThrows(IllegalArgumentException.class, () -> registry.openGame("m".repeat(SMALL_SEGMENT_SIZE),
+                    'A', 'B'));
+            assertEquals(Optional.empty(), registry.getGameState("m".repeat(SMALL_SEGMENT_SIZE)));
+            assertEquals(0, registry.getGamesCount());
+        }
+    }
+
+    @Test
+    public void test_changes_which_cannot_be_recorded_are_undone() {
+        // given: a registry whose log is closed
+        DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory);
+        registry.openGame("final", 'A', 'B');
+        registry.submitPoint("final", 'A');
+        TennisGameState lastGameState = registry.getGameState("final").orElseThrow();
+        registry.close();
+        // when
+        assertThrows(IllegalStateException.class, () -> registry.openGame("semi", 'C', 'D'));
+        assertThrows(IllegalStateException.class, () -> registry.submitPoint("final", 'A'));
+        assertThrows(IllegalStateException.class, () -> registry.closeGame("final"));
+        // then
+        assertEquals(Optional.empty(), registry.getGameState("semi"));
+        assertEquals(Optional.of(lastGameState), registry.getGameState("final"));
+        assertEquals(1, registry.getGamesCount());
+    }
+
+    @Test
+    public void test_grouped_forces() {
+        // given: records forced by groups of seven
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), SMALL_SEGMENT_SIZE, Long.MAX_VALUE, 7)) {
+            registry.openGame("final", 'A', 'B');
+            for (char point : "ABABABAB".toCharArray()) {
+                registry.submitPoint("final", point);
+            }
+            // when
+            registry.force();
+            registry.submitPoint("final", 'A');
+        }
+        // then
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), SMALL_SEGMENT_SIZE, Long.MAX_VALUE, 7)) {
+            assertEquals(Optional.of(processor.generateGameStatesFromHistory("ABABABABA").get(8)),
+                    registry.getGameState("final"));
+        }
+    }
+
+    @Test
+    public void test_corrupted_snapshot() throws IOException {
+        // given
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            registry.openGame("final", 'A', 'B');
+            registry.snapshot();
+        }
+        Files.write(directory.resolve(files("snapshot-").get(0)), new byte[] { 0, 1, 2 });
+        // when then
+        assertThrows(UncheckedIOException.class, () -> new DurableTennisGameRegistryServiceImpl(directory));
+    }
+
+    @Test
+    public void test_many_games_recovery() throws IOException {
+        // given
+        int gamesCount = 20_000;
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory,
+                new TennisGameStatePoolServiceImpl(), DurableTennisGameRegistryServiceImpl.DEFAULT_SEGMENT_SIZE,
+                DurableTennisGameRegistryServiceImpl.DEFAULT_SNAPSHOT_INTERVAL, 1 << 10)) {
+            for (int game = 0; game < gamesCount; game++) {
+                registry.openGame("match-" + game, 'A', 'B');
+                for (char point : "ABAA".toCharArray()) {
+                    registry.submitPoint("match-" + game, point);
+                }
+            }
+        }
+        // when
+        try (DurableTennisGameRegistryServiceImpl registry = new DurableTennisGameRegistryServiceImpl(directory)) {
+            // then
+            assertEquals(gamesCount, registry.getGamesCount());
+            TennisGameState expected = processor.generateGameStatesFromHistory("ABAA").get(3);
+            for (int game = 0; game < gamesCount; game++) {
+                assertEquals(Optional.of(expected), registry.getGameState("match-" + game));
+            }
+        }
+        assertEquals(List.of("snapshot-00000000000000065535.log"), files("snapshot-"));
+    }
+
+    private List<String> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
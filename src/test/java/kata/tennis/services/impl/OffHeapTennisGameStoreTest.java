@@ -0,0 +1,103 @@
+package kata.tennis.services.impl;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class OffHeapTennisGameStoreTest {
+
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @Test
+    public void test_stored_games_are_read_back() {
+        // given: chunks of a few states and games only
+        OffHeapTennisGameStore store = new OffHeapTennisGameStore(new TennisGameStatePoolServiceImpl(), 30);
+        List<String> gameHistories = IntStream.range(0, 500)
+                .mapToObj(i -> "XY".repeat(i % 7) + (i % 2 == 0 ? "XX" : "YY"))
+                .toList();
+        // when
+        for (int i = 0; i < gameHistories.size(); i++) {
+            assertEquals(i, store.add(gameHistories.get(i)));
+        }
+        // then
+        assertEquals(gameHistories.size(), store.getGamesCount());
+        assertEquals(gameHistories.stream().mapToLong(String::length).sum(), store.getStatesCount());
+        for (int i = 0; i < gameHistories.size(); i++) {
+            assertEquals(processor.generateGameStatesFromHistory(gameHistories.get(i)), store.getGameStates(i));
+            assertEquals(processor.evaluateGameHistory(gameHistories.get(i)), store.getGameOutcome(i));
+        }
+    }
+
+    @Test
+    public void test_views_return_the_pooled_states() {
+        // given
+        TennisGameStatePoolServiceImpl poolService = new TennisGameStatePoolServiceImpl();
+        OffHeapTennisGameStore store = new OffHeapTennisGameStore(poolService, OffHeapTennisGameStore.DEFAULT_CHUNK_SIZE);
+        store.add("ABBA");
+        // when
+        List<TennisGameState> states = store.getGameStates(0);
+        // then
+        assertSame(poolService.getNextGameState(poolService.getPool('A', 'B').initialState(), 'A'), states.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> states.add(states.get(0)));
+        assertThrows(IndexOutOfBoundsException.class, () -> states.get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getGameStates(1));
+    }
+
+    @Test
+    public void test_rejected_games_are_not_stored() {
+        // given
+        OffHeapTennisGameStore store = new OffHeapTennisGameStore();
+        store.add("AAAA");
+        // when
+        assertThrows(GameAlreadyFinishedException.class, () -> store.add("BBBBB"));
+        assertThrows(UnsupportedPlayersCountException.class, () -> store.add("ABC"));
+        store.add("BABB");
+        // then
+        assertEquals(2, store.getGamesCount());
+        assertEquals(8, store.getStatesCount());
+        assertEquals(processor.generateGameStatesFromHistory("BABB"), store.getGameStates(1));
+    }
+
+    @Test
+    public void test_cleared_store_is_filled_again() {
+        // given
+        OffHeapTennisGameStore store = new OffHeapTennisGameStore(new TennisGameStatePoolServiceImpl(), 16);
+        for (int i = 0; i < 20; i++) {
+            store.add("ABABAA");
+        }
+        // when
+        store.clear();
+        store.add("BBBB");
+        // then
+        assertEquals(1, store.getGamesCount());
+        assertEquals(4, store.getStatesCount());
+        assertEquals(processor.generateGameStatesFromHistory("BBBB"), store.getGameStates(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getGameStates(1));
+    }
+
+    @Test
+    public void test_closed_store_drops_its_games() {
+        // given
+        OffHeapTennisGameStore store = new OffHeapTennisGameStore();
+        store.add("AAAA");
+        List<TennisGameState> states = store.getGameStates(0);
+        // when
+        store.close();
+        store.close();
+        // then
+        assertEquals(0, store.getGamesCount());
+        assertThrows(IllegalStateException.class, () -> store.add("AAAA"));
+        assertThrows(IllegalStateException.class, () -> store.getGameStates(0));
+        assertThrows(IllegalStateException.class, store::clear);
+        assertThrows(IndexOutOfBoundsException.class, () -> states.get(0));
+    }
+}
@@ -0,0 +1,155 @@
+package kata.tennis.services.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class PackedTennisGameHistoryTest {
+
+    TennisGameHistoryProcessorServiceImpl processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @ParameterizedTest
+    @MethodSource("provideHistories")
+    void test_packed_history_is_processed_as_the_history(String gameHistory) throws IOException {
+        // given
+        PackedTennisGameHistory packed = PackedTennisGameHistory.of(gameHistory);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        packed.writeTo(outputStream);
+        PackedTennisGameHistory read = PackedTennisGameHistory.readFrom(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+        // then
+        assertEquals(gameHistory, packed.toString());
+        assertEquals(gameHistory, read.toString());
+        assertEquals(packed.getEncodedSize(), outputStream.size());
+        assertEquals(processor.generateGameStatesFromHistory(gameHistory),
+                processor.generateGameStatesFromHistory(read));
+        assertEquals(processor.evaluateGameHistory(gameHistory), processor.evaluateGameHistory(read));
+        assertEquals(processor.tryEvaluateGameHistory(gameHistory), processor.tryEvaluateGameHistory(read));
+    }
+
+    private static Stream<String> provideHistories() {
+        return Stream.of("A", "AAAA", "ABABAA", "BBAB", "ZZZZ", "YXYXYXYXYXYXXX");
+    }
+
+    @Test
+    public void test_packed_history_is_streamed_with_the_players_of_its_header() {
+        // given: a history between A and C won by A only
+        ByteBuffer buffer = ByteBuffer.allocate(PackedTennisGameHistory.HEADER_SIZE + 1)
+                .putChar('A').putChar('C').putInt(4).put((byte) 0).flip();
+        PackedTennisGameHistory packed = PackedTennisGameHistory.wrap(buffer);
+        // when
+        List<TennisGameState> states = processor.streamGameStatesFromHistory(packed).toList();
+        // then
+        assertEquals(processor.generateGameStatesFromHistory(packed), states);
+        assertEquals(new TennisPlayer('C', TennisScore.LOSE), states.get(3).player2());
+        assertEquals(TennisScore.WIN, states.get(3).player1().tennisScore());
+    }
+
+    @Test
+    public void test_packed_history_is_eight_times_smaller() {
+        // given
+        String gameHistory = "AB".repeat(4096);
+        // when
+        PackedTennisGameHistory packed = PackedTennisGameHistory.of(gameHistory);
+        // then
+        assertEquals(PackedTennisGameHistory.HEADER_SIZE + gameHistory.length() / 8, packed.getEncodedSize());
+        assertEquals('A', packed.getPlayer1Id());
+        assertEquals('B', packed.getPlayer2Id());
+        assertFalse(packed.isWonByPlayer2(0));
+        assertTrue(packed.isWonByPlayer2(1));
+        assertEquals("BAB", packed.subSequence(1, 4).toString());
+    }
+
+    @Test
+    public void test_buffer_of_histories() throws IOException {
+        // given
+        String[] gameHistories = { "ABBA", "CCCDDDDD", "E".repeat(20) };
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+        for (String gameHistory : gameHistories) {
+            PackedTennisGameHistory.of(gameHistory).writeTo(buffer);
+        }
+        buffer.flip();
+        // when
+        String[] read = new String[gameHistories.length];
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (int i = 0; i < read.length; i++) {
+            PackedTennisGameHistory packed = PackedTennisGameHistory.wrap(buffer);
+            packed.writeTo(outputStream);
+            read[i] = packed.toString();
+        }
+        // then
+        assertEquals(Arrays.asList(gameHistories), Arrays.asList(read));
+        assertFalse(buffer.hasRemaining());
+        assertEquals(buffer.limit(), outputStream.size());
+    }
+
+    @Test
+    public void test_stream_of_histories() throws IOException {
+        // given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        PackedTennisGameHistory.of("ABBA").writeTo(outputStream);
+        PackedTennisGameHistory.wrap(toBuffer(PackedTennisGameHistory.of("CDDDD"))).writeTo(outputStream);
+        InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        // when then
+        assertEquals("ABBA", PackedTennisGameHistory.readFrom(inputStream).toString());
+        assertEquals("CDDDD", PackedTennisGameHistory.readFrom(inputStream).toString());
+        assertNull(PackedTennisGameHistory.readFrom(inputStream));
+    }
+
+    @Test
+    public void test_invalid_histories() {
+        // given
+        byte[] bytes = toBuffer(PackedTennisGameHistory.of("ABBAAB")).array();
+        byte[] unorderedPlayers = bytes.clone();
+        unorderedPlayers[1] = 'C';
+        byte[] noPoints = bytes.clone();
+        noPoints[7] = 0;
+        // when then
+        assertThrows(UnsupportedPlayersCountException.class, () -> PackedTennisGameHistory.of("ABC"));
+        assertThrows(UnsupportedPlayersCountException.class, () -> PackedTennisGameHistory.of(""));
+        assertThrows(GameAlreadyFinishedException.class,
+                () -> processor.generateGameStatesFromHistory(PackedTennisGameHistory.of("AAAAA")));
+        assertThrows(IndexOutOfBoundsException.class, () -> PackedTennisGameHistory.of("AB").charAt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> PackedTennisGameHistory.of("AB").subSequence(1, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedTennisGameHistory.wrap(ByteBuffer.wrap(bytes, 0, 4)));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedTennisGameHistory.wrap(ByteBuffer.wrap(bytes, 0, 8)));
+        assertThrows(IllegalArgumentException.class, () -> PackedTennisGameHistory.wrap(ByteBuffer.wrap(noPoints)));
+        assertThrows(EOFException.class,
+                () -> PackedTennisGameHistory.readFrom(new ByteArrayInputStream(bytes, 0, 4)));
+        assertThrows(EOFException.class,
+                () -> PackedTennisGameHistory.readFrom(new ByteArrayInputStream(bytes, 0, 8)));
+        assertThrows(StreamCorruptedException.class,
+                () -> PackedTennisGameHistory.readFrom(new ByteArrayInputStream(unorderedPlayers)));
+    }
+
+    private static ByteBuffer toBuffer(PackedTennisGameHistory packed) {
+        ByteBuffer buffer = ByteBuffer.allocate(packed.getEncodedSize());
+        packed.writeTo(buffer);
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,126 @@
+package kata.tennis.services.impl;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class PackedTennisGameStateTest {
+
+    TennisGameStateService rules = new TennisGameStateServiceImpl();
+
+    // packed transitions must agree with the rules over every state of a game,
+    // including the rejected ones.
+    @ParameterizedTest
+    @MethodSource("provideAllGameStates")
+    void test_packed_next_is_equivalent_to_rules(
+            // given
+            Character lastWinnerId,
+            TennisScore xTennisScore,
+            TennisScore yTennisScore,
+            char currentPointWinner) {
+        TennisGameState lastGameState = new TennisGameState(lastWinnerId,
+                new TennisPlayer('X', xTennisScore),
+                new TennisPlayer('Y', yTennisScore));
+        long packed = PackedTennisGameState.pack(lastGameState);
+        assertEquals(lastGameState, PackedTennisGameState.toGameState(packed));
+        TennisGameState expected;
+        try {
+            expected = rules.getNextGameState(lastGameState, currentPointWinner);
+        } catch (IllegalArgumentException e) {
+            // then
+            assertThrows(e.getClass(), () -> PackedTennisGameState.next(packed, currentPointWinner));
+            return;
+        }
+        // when
+        long next = PackedTennisGameState.next(packed, currentPointWinner);
+        // then
+        assertEquals(expected, PackedTennisGameState.toGameState(next));
+    }
+
+    @Test
+    void test_packed_game() {
+        // given
+        long state = PackedTennisGameState.initial('A', 'B');
+        // when
+        for (char point : "AABABBBAAA".toCharArray()) {
+            state = PackedTennisGameState.next(state, point);
+        }
+        // then
+        assertEquals('A', PackedTennisGameState.player1Id(state));
+        assertEquals('B', PackedTennisGameState.player2Id(state));
+        assertEquals(TennisScore.WIN, PackedTennisGameState.player1Score(state));
+        assertEquals(TennisScore.LOSE, PackedTennisGameState.player2Score(state));
+        assertEquals(TennisGameStatePool.PLAYER1_SLOT, PackedTennisGameState.currentWinnerSlot(state));
+        assertTrue(PackedTennisGameState.isFinished(state));
+        assertEquals('A', PackedTennisGameState.winnerIdOf(state));
+    }
+
+    @Test
+    void test_winner_of_unfinished_and_player2_games() {
+        long state = PackedTennisGameState.initial('A', 'B');
+        assertFalse(PackedTennisGameState.isFinished(state));
+        assertEquals(0, PackedTennisGameState.winnerIdOf(state));
+        for (int point = 0; point < 4; point++) {
+            state = PackedTennisGameState.next(state, 'B');
+        }
+        assertEquals('B', PackedTennisGameState.winnerIdOf(state));
+        long finished = state;
+        GameAlreadyFinishedException thrown = assertThrows(GameAlreadyFinishedException.class,
+                () -> PackedTennisGameState.next(finished, 'A'));
+        assertEquals("Player B already won this game, you could not proceed with this point !", thrown.getMessage());
+    }
+
+    @Test
+    void test_decode_from_pool() {
+        // given
+        TennisGameStatePool pool = new TennisGameStatePoolServiceImpl().getPool('A', 'B');
+        long state = PackedTennisGameState.next(PackedTennisGameState.initial('A', 'B'), 'B');
+        // when
+        TennisGameState decoded = PackedTennisGameState.toGameState(state, pool);
+        // then
+        assertSame(pool.state(pool.indexOf(decoded)), decoded);
+        assertEquals(PackedTennisGameState.toGameState(state), decoded);
+    }
+
+    @Test
+    void test_UnsupportedPlayersCountException() {
+        long state = PackedTennisGameState.initial('A', 'B');
+        assertThrows(UnsupportedPlayersCountException.class, () -> PackedTennisGameState.next(state, 'C'));
+        assertThrows(UnsupportedPlayersCountException.class, () -> PackedTennisGameState.pack(
+                new TennisGameState('C', new TennisPlayer('A', TennisScore.ZERO),
+                        new TennisPlayer('B', TennisScore.ZERO))));
+    }
+
+    @Test
+    void test_UnsupportedGameStatusException() {
+        long state = PackedTennisGameState.pack(new TennisGameState(null,
+                new TennisPlayer('A', TennisScore.LOSE), new TennisPlayer('B', TennisScore.ZERO)));
+        assertThrows(UnsupportedGameStatusException.class, () -> PackedTennisGameState.next(state, 'A'));
+    }
+
+    static Stream<Arguments> provideAllGameStates() {
+        Character[] winnerIds = { null, 'X', 'Y' };
+        return Arrays.stream(winnerIds)
+                .flatMap(lastWinnerId -> Arrays.stream(TennisScore.values())
+                        .flatMap(xScore -> Arrays.stream(TennisScore.values())
+                                .flatMap(yScore -> Stream.of('X', 'Y')
+                                        .map(winnerId -> Arguments.of(lastWinnerId, xScore, yScore, winnerId)))));
+    }
+}
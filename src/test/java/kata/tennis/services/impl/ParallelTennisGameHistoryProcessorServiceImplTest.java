@@ -0,0 +1,81 @@
+package kata.tennis.services.impl;
+
+import java.io.StringReader;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import kata.tennis.services.TennisGameHistoryProcessorService;
+
+public class ParallelTennisGameHistoryProcessorServiceImplTest {
+
+    TennisGameHistoryProcessorService sequential = new TennisGameHistoryProcessorServiceImpl();
+    TennisGameHistoryProcessorService parallel = new ParallelTennisGameHistoryProcessorServiceImpl(
+            new TennisGameStatePoolServiceImpl(), 1);
+
+    // parallel scoring must give the same states, outcomes and errors as the
+    // sequential processing, whichever slice the game ends or fails in.
+    @ParameterizedTest
+    @MethodSource("provideGameHistories")
+    void test_parallel_is_equivalent_to_sequential(String gameHistory) {
+        RuntimeException expected;
+        try {
+            // when
+            var expectedStates = sequential.generateGameStatesFromHistory(gameHistory);
+            var expectedOutcome = sequential.evaluateGameHistory(gameHistory);
+            // then
+            assertEquals(expectedStates, parallel.generateGameStatesFromHistory(gameHistory));
+            assertEquals(expectedOutcome, parallel.evaluateGameHistory(gameHistory));
+            return;
+        } catch (IllegalArgumentException e) {
+            expected = e;
+        }
+        RuntimeException generateError = assertThrows(expected.getClass(),
+                () -> parallel.generateGameStatesFromHistory(gameHistory));
+        RuntimeException evaluateError = assertThrows(expected.getClass(),
+                () -> parallel.evaluateGameHistory(gameHistory));
+        assertEquals(expected.getMessage(), generateError.getMessage());
+        assertEquals(expected.getMessage(), evaluateError.getMessage());
+    }
+
+    @Test
+    void test_short_histories_and_streams_are_sequential() {
+        // given
+        TennisGameHistoryProcessorService defaultParallel = new ParallelTennisGameHistoryProcessorServiceImpl();
+        String gameHistory = "ABABAA";
+        // then
+        assertEquals(sequential.generateGameStatesFromHistory(gameHistory),
+                defaultParallel.generateGameStatesFromHistory(gameHistory));
+        assertEquals(sequential.evaluateGameHistory(gameHistory), defaultParallel.evaluateGameHistory(gameHistory));
+        assertEquals(sequential.tryEvaluateGameHistory(gameHistory),
+                defaultParallel.tryEvaluateGameHistory(gameHistory));
+        assertEquals(sequential.streamGameStatesFromHistory(gameHistory).toList(),
+                defaultParallel.streamGameStatesFromHistory(gameHistory).toList());
+        assertEquals(sequential.streamGameStatesFromHistory(gameHistory).toList(),
+                defaultParallel.streamGameStatesFromHistory(new StringReader(gameHistory)).toList());
+    }
+
+    static Stream<Arguments> provideGameHistories() {
+        String deuces = "AAABBB" + "AB".repeat(60_000);
+        return Stream.of(
+                Arguments.of("A"),
+                Arguments.of("Z"),
+                Arguments.of("BBB"),
+                Arguments.of(""),
+                Arguments.of("ABC"),
+                Arguments.of(deuces + "AA"),
+                Arguments.of(deuces + "BB"),
+                Arguments.of(deuces),
+                Arguments.of(deuces.replace('A', 'X').replace('B', 'Y') + "Y"),
+                Arguments.of("AB".repeat(40_000) + "BB" + "AB".repeat(40_000)),
+                Arguments.of(deuces + "AA" + "B"),
+                Arguments.of("AAAA" + "B".repeat(100_000)),
+                Arguments.of(deuces + "C"),
+                Arguments.of("C" + deuces));
+    }
+}
@@ -0,0 +1,144 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.TennisGameMetricsExporter;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+
+public class PrometheusTennisGameMetricsExporterImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    TennisGameMetricsRegistryImpl registry = new TennisGameMetricsRegistryImpl();
+
+    @Test
+    public void test_text_format() throws IOException {
+        // given
+        registry.recordGame(Stage.PROCESSOR, 4, 1_500);
+        registry.recordGame(Stage.PROCESSOR, 6, 3_000_000);
+        registry.recordError(Stage.PROCESSOR, new GameAlreadyFinishedException("finished"));
+        StringBuilder text = new StringBuilder();
+        // when
+        new PrometheusTennisGameMetricsExporterImpl(registry, tempDir.resolve("metrics.prom")).write(text);
+        // then
+        String metrics = text.toString();
+        assertTrue(metrics.contains("# TYPE tennis_games_total counter\n"));
+        assertTrue(metrics.contains("tennis_games_total{stage=\"processor\"} 2\n"));
+        assertTrue(metrics.contains("tennis_games_total{stage=\"runner\"} 0\n"));
+        assertTrue(metrics.contains("tennis_points_total{stage=\"processor\"} 10\n"));
+        assertTrue(metrics.contains(
+                "tennis_errors_total{stage=\"processor\",type=\"GameAlreadyFinishedException\"} 1\n"));
+        assertTrue(metrics.contains("# TYPE tennis_stage_latency_seconds histogram\n"));
+        assertTrue(metrics.contains("tennis_stage_latency_seconds_bucket{stage=\"processor\",le=\"1.024E-6\"} 0\n"));
+        assertTrue(metrics.contains("tennis_stage_latency_seconds_bucket{stage=\"processor\",le=\"2.048E-6\"} 1\n"));
+        assertTrue(metrics.contains("tennis_stage_latency_seconds_bucket{stage=\"processor\",le=\"+Inf\"} 2\n"));
+        assertTrue(metrics.contains("tennis_stage_latency_seconds_sum{stage=\"processor\"} 0.0030015\n"));
+        assertTrue(metrics.contains("tennis_stage_latency_seconds_count{stage=\"processor\"} 2\n"));
+    }
+
+    @Test
+    public void test_cache_counts() throws IOException {
+        // given
+        TennisGameHistoryCache cache = new TennisGameHistoryCache(1);
+        CachingTennisGameHistoryProcessorServiceImpl caching = new CachingTennisGameHistoryProcessorServiceImpl(
+                new TennisGameStatePoolServiceImpl(), cache);
+        for (String gameHistory : new String[] { "AB", "XY", "AA", "AAA", "ABA" }) {
+            caching.evaluateGameHistory(gameHistory);
+        }
+        StringBuilder text = new StringBuilder();
+        StringBuilder withoutCache = new StringBuilder();
+        // when
+        new PrometheusTennisGameMetricsExporterImpl(registry, cache, tempDir.resolve("metrics.prom")).write(text);
+        new PrometheusTennisGameMetricsExporterImpl(registry, tempDir.resolve("metrics.prom")).write(withoutCache);
+        // then
+        String metrics = text.toString();
+        assertTrue(metrics.contains("# TYPE tennis_cache_requests_total counter\n"));
+        assertTrue(metrics.contains("tennis_cache_requests_total{result=\"hit\"} 1\n"));
+        assertTrue(metrics.contains("tennis_cache_requests_total{result=\"miss\"} 4\n"));
+        assertTrue(metrics.contains("tennis_cache_evictions_total " + cache.getEvictionsCount() + "\n"));
+        assertTrue(metrics.startsWith(withoutCache.toString()));
+        assertFalse(withoutCache.toString().contains("tennis_cache"));
+    }
+
+    @Test
+    public void test_export_to_file() throws IOException {
+        // given
+        Path file = tempDir.resolve("metrics.prom");
+        TennisGameMetricsExporter exporter = new PrometheusTennisGameMetricsExporterImpl(registry, file);
+        registry.recordGame(Stage.RUNNER, 4, 1_000);
+        StringBuilder expected = new StringBuilder();
+        new PrometheusTennisGameMetricsExporterImpl(registry, file).write(expected);
+        // when
+        exporter.close();
+        // then
+        assertEquals(expected.toString(), Files.readString(file));
+        assertEquals(1, Files.list(tempDir).count());
+    }
+
+    @Test
+    public void test_periodic_export() throws IOException, InterruptedException {
+        // given
+        Path file = tempDir.resolve("metrics.prom");
+        TennisGameMetricsExporter exporter = new PrometheusTennisGameMetricsExporterImpl(registry, file,
+                Duration.ofMillis(10));
+        // when
+        try {
+            while (!Files.exists(file)) {
+                Thread.sleep(5);
+            }
+        } finally {
+            exporter.close();
+        }
+        // then
+        assertTrue(Files.readString(file).contains("tennis_games_total{stage=\"runner\"} 0\n"));
+        assertTrue(Files.readString(file).contains("tennis_metrics_export_failures_total 0\n"));
+    }
+
+    @Test
+    public void test_periodic_export_goes_on_after_a_failure() throws IOException, InterruptedException {
+        // given: a directory created once the first exports failed
+        Path directory = tempDir.resolve("later");
+        Path file = directory.resolve("metrics.prom");
+        TennisGameHistoryCache cache = new TennisGameHistoryCache();
+        PrometheusTennisGameMetricsExporterImpl exporter = new PrometheusTennisGameMetricsExporterImpl(registry,
+                cache, file, Duration.ofMillis(10));
+        // when
+        try {
+            while (exporter.getFailedExportsCount() == 0) {
+                Thread.sleep(5);
+            }
+            Files.createDirectories(directory);
+            while (!Files.exists(file)) {
+                Thread.sleep(5);
+            }
+        } finally {
+            exporter.close();
+        }
+        // then
+        String metrics = Files.readString(file);
+        assertTrue(metrics.contains("tennis_cache_evictions_total 0\n"));
+        assertTrue(exporter.getFailedExportsCount() > 0);
+        assertTrue(metrics.contains("tennis_metrics_export_failures_total " + exporter.getFailedExportsCount()
+                + "\n"));
+    }
+
+    @Test
+    public void test_export_failure() {
+        TennisGameMetricsExporter exporter = new PrometheusTennisGameMetricsExporterImpl(registry,
+                tempDir.resolve("missing").resolve("metrics.prom"));
+        assertThrows(UncheckedIOException.class, exporter::export);
+    }
+}
@@ -0,0 +1,116 @@
+package kata.tennis.services.impl;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.TennisScoreStateService;
+
+/**
+ * Allocation budgets of the scoring hot path, in bytes per point or per game.
+ * A change making a service allocate more than its budget fails here, before
+ * it doubles the garbage collection pressure in production.
+ */
+public class TennisGameAllocationBudgetTest {
+    // a long deuce battle, the per game allocations are negligible per point
+    private static final String LONG_HISTORY = "AAABBB" + "AB".repeat(497);
+    private static final String SHORT_HISTORY = "AABBAA";
+
+    TennisGameHistoryProcessorService processorService = new TennisGameHistoryProcessorServiceImpl();
+
+    @Test
+    public void test_score_table_allocates_nothing_per_point() {
+        // given
+        TennisScoreStateService service = new TennisScoreStateTableServiceImpl();
+        // when then
+        AllocationBudget.assertWithinBudget("score table point", 0, 2, () -> {
+            service.getNextScoreState(TennisScore.FORTY, TennisScore.ADVANTAGE);
+            service.getNextScoreState(TennisScore.DEUCE, TennisScore.DEUCE);
+        });
+    }
+
+    @Test
+    public void test_state_pool_allocates_nothing_per_point() {
+        // given
+        TennisGameStateService service = new TennisGameStatePoolServiceImpl();
+        TennisGameState lastGameState = new TennisGameState(null, new TennisPlayer('A', TennisScore.FIFTEEN),
+                new TennisPlayer('B', TennisScore.ZERO));
+        // when then
+        AllocationBudget.assertWithinBudget("pooled game state point", 0, 1,
+                () -> service.getNextGameState(lastGameState, 'A'));
+    }
+
+    @Test
+    public void test_state_rules_allocate_the_new_state_only() {
+        // given
+        TennisGameStateService service = new TennisGameStateServiceImpl();
+        TennisGameState lastGameState = new TennisGameState(null, new TennisPlayer('A', TennisScore.FIFTEEN),
+                new TennisPlayer('B', TennisScore.ZERO));
+        // when then
+        AllocationBudget.assumeCompressedOops();
+        // the state and the player of the point winner, the loser keeps its score
+        AllocationBudget.assertWithinBudget("game state point", 48, 1,
+                () -> service.getNextGameState(lastGameState, 'A'));
+    }
+
+    @Test
+    public void test_evaluation_allocates_nothing_per_point() {
+        // when then
+        AllocationBudget.assertWithinBudget("evaluated point", 1, LONG_HISTORY.length(),
+                () -> processorService.evaluateGameHistory(LONG_HISTORY));
+    }
+
+    @Test
+    public void test_evaluation_allocates_the_outcome_per_game() {
+        // when then
+        AllocationBudget.assumeCompressedOops();
+        // the initial state and the outcome
+        AllocationBudget.assertWithinBudget("evaluated game", 112, 1,
+                () -> processorService.evaluateGameHistory(SHORT_HISTORY));
+    }
+
+    @Test
+    public void test_generation_allocates_a_reference_per_point() {
+        // when then
+        // a slot of the list of states, uncompressed references included
+        AllocationBudget.assertWithinBudget("generated point", 8, LONG_HISTORY.length(),
+                () -> processorService.generateGameStatesFromHistory(LONG_HISTORY));
+    }
+
+    @Test
+    public void test_generation_allocates_the_list_per_game() {
+        // when then
+        AllocationBudget.assumeCompressedOops();
+        // the initial state and the list of states
+        AllocationBudget.assertWithinBudget("generated game", 160, 1,
+                () -> processorService.generateGameStatesFromHistory(SHORT_HISTORY));
+    }
+
+    @Test
+    public void test_printing_allocates_nothing_per_state() {
+        // given: states of the rules, not of a pool, up to the winner
+        TennisGameHistoryPrinterServiceImpl printer = new TennisGameHistoryPrinterServiceImpl(
+                OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+        List<TennisGameState> states = new TennisGameHistoryProcessorServiceImpl(new TennisGameStateServiceImpl())
+                .generateGameStatesFromHistory(LONG_HISTORY);
+        // when then
+        AllocationBudget.assertWithinBudget("printed state", 0, states.size(),
+                () -> printer.printScoreFromGameStates(states));
+    }
+
+    @Test
+    public void test_rejection_without_exceptions_allocates_the_evaluation() {
+        // when then
+        AllocationBudget.assumeCompressedOops();
+        // the initial state and the evaluation, no exception nor message
+        AllocationBudget.assertWithinBudget("rejected game", 104, 1,
+                () -> processorService.tryEvaluateGameHistory("AAAAB"));
+    }
+}
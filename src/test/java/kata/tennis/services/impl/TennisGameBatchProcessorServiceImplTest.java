@@ -0,0 +1,223 @@
+package kata.tennis.services.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.domain.TennisGameErrorCode;
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameEvaluationSummary;
+import kata.tennis.domain.TennisGameHistoryResult;
+import kata.tennis.domain.TennisGameOutcome;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.domain.state.TennisGameStateColumns;
+import kata.tennis.services.TennisGameBatchProcessorService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class TennisGameBatchProcessorServiceImplTest {
+
+    // Tests are designed around the SOLID principle of Dependency Inversion,
+    // focusing on the TennisGameBatchProcessorService interface rather than its
+    // specific implementation.
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+    TennisGameBatchProcessorService service = new TennisGameBatchProcessorServiceImpl();
+
+    @Test
+    public void test_results_keep_input_order() {
+        // given
+        List<String> gameHistories = IntStream.range(0, 1_000)
+                .mapToObj(i -> "AB".repeat(i % 4) + (i % 2 == 0 ? "AA" : "BB"))
+                .toList();
+        // when
+        List<TennisGameHistoryResult<List<TennisGameState>>> results = service
+                .generateGameStatesFromHistories(gameHistories);
+        // then
+        assertEquals(gameHistories.size(), results.size());
+        for (int i = 0; i < gameHistories.size(); i++) {
+            assertEquals(gameHistories.get(i), results.get(i).gameHistory());
+            assertEquals(processor.generateGameStatesFromHistory(gameHistories.get(i)), results.get(i).value());
+        }
+    }
+
+    @Test
+    public void test_streamed_results_keep_input_order() {
+        // given
+        List<String> gameHistories = IntStream.range(0, 1_000)
+                .mapToObj(i -> i % 7 == 0 ? "ABC" : "AB".repeat(i % 4) + (i % 2 == 0 ? "AA" : "BB"))
+                .toList();
+        List<TennisGameHistoryResult<List<TennisGameState>>> results = new ArrayList<>();
+        // when
+        service.generateGameStatesFromHistories(gameHistories, results::add);
+        // then
+        assertEquals(gameHistories, results.stream().map(TennisGameHistoryResult::gameHistory).toList());
+        for (int i = 0; i < gameHistories.size(); i++) {
+            if (i % 7 == 0) {
+                assertInstanceOf(UnsupportedPlayersCountException.class, results.get(i).error());
+            } else {
+                assertEquals(processor.generateGameStatesFromHistory(gameHistories.get(i)), results.get(i).value());
+            }
+        }
+    }
+
+    @Test
+    public void test_each_failing_history_gets_its_own_error() {
+        // given
+        List<String> gameHistories = List.of("AAAA", "ABC", "BBBB", "AAAAB", "");
+        // when
+        List<TennisGameHistoryResult<TennisGameOutcome>> results = service.evaluateGameHistories(gameHistories);
+        // then
+        assertTrue(results.get(0).isSuccess());
+        assertEquals('A', results.get(0).value().winnerId());
+        assertFalse(results.get(1).isSuccess());
+        assertInstanceOf(UnsupportedPlayersCountException.class, results.get(1).error());
+        assertEquals('B', results.get(2).value().winnerId());
+        assertInstanceOf(GameAlreadyFinishedException.class, results.get(3).error());
+        assertInstanceOf(UnsupportedPlayersCountException.class, results.get(4).error());
+    }
+
+    @Test
+    public void test_evaluations_without_exceptions_keep_input_order() {
+        // given
+        List<String> gameHistories = List.of("AAAA", "ABC", "BBBB", "AAAAB", "");
+        // when
+        List<TennisGameEvaluation> evaluations = service.tryEvaluateGameHistories(gameHistories);
+        // then
+        assertEquals(List.of(
+                TennisGameEvaluation.success(processor.evaluateGameHistory("AAAA")),
+                TennisGameEvaluation.failure(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT, 2),
+                TennisGameEvaluation.success(processor.evaluateGameHistory("BBBB")),
+                TennisGameEvaluation.failure(TennisGameErrorCode.GAME_ALREADY_FINISHED, 4),
+                TennisGameEvaluation.failure(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT, 0)), evaluations);
+    }
+
+    @Test
+    public void test_summary_aggregates_the_errors() {
+        // given
+        List<String> gameHistories = IntStream.range(0, 10_000)
+                .mapToObj(i -> switch (i % 4) {
+                    case 0 -> "AAAA";
+                    case 1 -> "ABA";
+                    case 2 -> "AAAAB";
+                    default -> "ABC";
+                })
+                .toList();
+        // when
+        TennisGameEvaluationSummary summary = service.summarizeGameHistories(gameHistories);
+        // then
+        assertEquals(10_000, summary.gamesCount());
+        assertEquals(2_500, summary.finishedGamesCount());
+        assertEquals(2_500 * 4 + 2_500 * 3, summary.pointsCount());
+        assertEquals(Map.of(
+                TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT, 2_500L,
+                TennisGameErrorCode.GAME_ALREADY_FINISHED, 2_500L,
+                TennisGameErrorCode.UNSUPPORTED_GAME_STATUS, 0L), summary.errorsCounts());
+        assertEquals(5_000, summary.getErrorsCount());
+    }
+
+    @Test
+    public void test_columns_hold_the_states_of_every_history() {
+        // given
+        List<String> gameHistories = IntStream.range(0, 1_000)
+                .mapToObj(i -> switch (i % 5) {
+                    case 0 -> "ABC";
+                    case 1 -> "AAAAB";
+                    case 2 -> "XY".repeat(200) + "YY";
+                    default -> "AB".repeat(i % 4) + (i % 2 == 0 ? "AA" : "BB");
+                })
+                .toList();
+        // when
+        TennisGameStateColumns columns = service.generateGameStateColumnsFromHistories(gameHistories);
+        // then
+        assertEquals(gameHistories.size(), columns.getGamesCount());
+        for (int i = 0; i < gameHistories.size(); i++) {
+            TennisGameEvaluation evaluation = processor.tryEvaluateGameHistory(gameHistories.get(i));
+            assertEquals(evaluation.errorCode(), columns.getErrorCode(i));
+            assertEquals(evaluation.errorPosition(), columns.getErrorPosition(i));
+            assertEquals(evaluation.isSuccess() ? processor.generateGameStatesFromHistory(gameHistories.get(i))
+                    : List.of(), columns.getGameStates(i));
+        }
+        assertEquals(columns.getGameOffset(columns.getGamesCount()), columns.getStatesCount());
+    }
+
+    @Test
+    public void test_columns_layout() {
+        // when
+        TennisGameStateColumns columns = service.generateGameStateColumnsFromHistories(List.of("ABA", "ABC", "YY"));
+        // then
+        assertEquals(3, columns.getGamesCount());
+        assertEquals(5, columns.getStatesCount());
+        assertEquals(List.of(0, 3, 3, 5), IntStream.rangeClosed(0, 3).map(columns::getGameOffset).boxed().toList());
+        assertEquals('Y', columns.getPlayer1Id(2));
+        assertEquals('Z', columns.getPlayer2Id(2));
+        assertArrayEquals(new byte[] { TennisGameStateColumns.PLAYER1, TennisGameStateColumns.PLAYER2,
+                TennisGameStateColumns.PLAYER1, TennisGameStateColumns.PLAYER1, TennisGameStateColumns.PLAYER1 },
+                Arrays.copyOf(columns.getWinnerSlots(), 5));
+        assertArrayEquals(new byte[] { 1, 1, 2, 1, 2 }, Arrays.copyOf(columns.getPlayer1ScoreOrdinals(), 5));
+        assertArrayEquals(new byte[] { 0, 1, 1, 0, 0 }, Arrays.copyOf(columns.getPlayer2ScoreOrdinals(), 5));
+    }
+
+    @Test
+    public void test_released_columns_are_reused() {
+        // given
+        TennisGameStateColumns columns = service.generateGameStateColumnsFromHistories(List.of("AAAA"));
+        // when
+        service.releaseGameStateColumns(columns);
+        TennisGameStateColumns reused = service.generateGameStateColumnsFromHistories(List.of("BABB"));
+        // then
+        assertSame(columns, reused);
+        assertEquals(1, reused.getGamesCount());
+        assertEquals(processor.generateGameStatesFromHistory("BABB"), reused.getGameStates(0));
+    }
+
+    @Test
+    public void test_oversized_columns_are_not_reused() {
+        // given: a batch of more than a million states
+        List<String> gameHistories = Collections.nCopies(20_000, "AAABBB" + "AB".repeat(30));
+        TennisGameStateColumns columns = service.generateGameStateColumnsFromHistories(gameHistories);
+        // when
+        service.releaseGameStateColumns(columns);
+        TennisGameStateColumns next = service.generateGameStateColumnsFromHistories(List.of("BABB"));
+        // then
+        assertNotSame(columns, next);
+        assertEquals(processor.generateGameStatesFromHistory("BABB"), next.getGameStates(0));
+    }
+
+    @Test
+    public void test_columns_of_unsupported_game_status() {
+        // given: rules refusing any point played at deuce
+        TennisGameStateService rules = new TennisGameStateServiceImpl();
+        TennisGameStateService refusingRules = (lastGameState, currentWinnerId) -> {
+            if (lastGameState.player1().tennisScore() == TennisScore.DEUCE) {
+                throw new UnsupportedGameStatusException("deuce not supported");
+            }
+            return rules.getNextGameState(lastGameState, currentWinnerId);
+        };
+        TennisGameBatchProcessorService refusingService = new TennisGameBatchProcessorServiceImpl(
+                new TennisGameStatePoolServiceImpl(refusingRules));
+        // when
+        TennisGameStateColumns columns = refusingService.generateGameStateColumnsFromHistories(
+                List.of("ABABAB", "ABABABA"));
+        // then
+        assertEquals(null, columns.getErrorCode(0));
+        assertEquals(TennisGameErrorCode.UNSUPPORTED_GAME_STATUS, columns.getErrorCode(1));
+        assertEquals(6, columns.getErrorPosition(1));
+        assertEquals(6, columns.getStatesCount());
+    }
+}
@@ -0,0 +1,157 @@
+package kata.tennis.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
+
+public class TennisGameChannelOutputSinkImplTest {
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final WritableByteChannel channel = Channels.newChannel(outContent);
+
+    @Test
+    public void test_flush_per_line() {
+        // given
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(channel, TennisGameOutputFlushPolicy.perLine());
+        // when
+        sink.writeLine(line("A > Player A: 15 / Player B: 0"));
+        // then
+        assertEquals("A > Player A: 15 / Player B: 0\n", output());
+    }
+
+    @Test
+    public void test_flush_per_game() {
+        // given
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(channel, TennisGameOutputFlushPolicy.perGame());
+        // when
+        sink.writeLine(line("first"));
+        sink.writeLine(line("second"));
+        // then
+        assertEquals("", output());
+        sink.endGame();
+        assertEquals("first\nsecond\n", output());
+    }
+
+    @Test
+    public void test_flush_by_size() {
+        // given
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(channel, 1024,
+                TennisGameOutputFlushPolicy.bySize(10));
+        // when
+        sink.writeLine(line("first"));
+        sink.endGame();
+        // then
+        assertEquals("", output());
+        sink.writeLine(line("second"));
+        assertEquals("first\nsecond\n", output());
+    }
+
+    @Test
+    public void test_flush_by_time() {
+        // given
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(channel,
+                TennisGameOutputFlushPolicy.byTime(Duration.ZERO));
+        // when
+        sink.writeLine(line("first"));
+        // then
+        assertEquals("first\n", output());
+        TennisGameOutputSink lazySink = new TennisGameChannelOutputSinkImpl(channel,
+                TennisGameOutputFlushPolicy.byTime(Duration.ofDays(1)));
+        lazySink.writeLine(line("second"));
+        lazySink.endGame();
+        assertEquals("first\n", output());
+        lazySink.close();
+    }
+
+    @Test
+    public void test_idle_sink_is_flushed_by_time() throws InterruptedException {
+        // given
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(channel,
+                TennisGameOutputFlushPolicy.byTime(Duration.ofMillis(10)));
+        // when: nothing is written after the line
+        sink.writeLine(line("first"));
+        // then
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (output().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("first\n", output());
+        sink.close();
+    }
+
+    @Test
+    public void test_full_buffer_and_large_lines() {
+        // given
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(channel, 8,
+                TennisGameOutputFlushPolicy.perGame());
+        // when
+        sink.writeLine(line("abc"));
+        sink.writeLine(line("defg"));
+        sink.writeLine(line("a line larger than the buffer"));
+        // then
+        assertEquals("abc\ndefg\na line larger than the buffer\n", output());
+    }
+
+    @Test
+    public void test_close() {
+        // given
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(channel, TennisGameOutputFlushPolicy.perGame());
+        sink.writeLine(line("last"));
+        // when
+        sink.close();
+        // then
+        assertEquals("last\n", output());
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    public void test_UncheckedIOException() {
+        // given
+        WritableByteChannel failingChannel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("broken pipe");
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() throws IOException {
+                throw new IOException("broken pipe");
+            }
+        };
+        TennisGameOutputSink sink = new TennisGameChannelOutputSinkImpl(failingChannel, 4,
+                TennisGameOutputFlushPolicy.perGame());
+        // when / then
+        assertThrows(UncheckedIOException.class, () -> sink.writeLine(line("too long")));
+        sink.writeLine(line("ok"));
+        assertThrows(UncheckedIOException.class, sink::flush);
+        TennisGameOutputSink emptySink = new TennisGameChannelOutputSinkImpl(failingChannel,
+                TennisGameOutputFlushPolicy.perGame());
+        assertThrows(UncheckedIOException.class, emptySink::close);
+    }
+
+    private byte[] line(String line) {
+        return (line + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private String output() {
+        return outContent.toString(StandardCharsets.US_ASCII);
+    }
+}
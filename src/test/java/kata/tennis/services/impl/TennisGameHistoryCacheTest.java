@@ -0,0 +1,74 @@
+package kata.tennis.services.impl;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+public class TennisGameHistoryCacheTest {
+
+    TennisGameStatePoolServiceImpl poolService = new TennisGameStatePoolServiceImpl();
+
+    @Test
+    void test_keys_are_canonical() {
+        // given
+        TennisGameStatePool abPool = poolService.getPool('A', 'B');
+        TennisGameStatePool xyPool = poolService.getPool('X', 'Y');
+        // then
+        assertEquals(TennisGameHistoryCache.keyOf(abPool, "AABA"), TennisGameHistoryCache.keyOf(xyPool, "XXYX"));
+        assertEquals(0b11101, TennisGameHistoryCache.keyOf(xyPool, "YYXY"));
+        assertNotEquals(TennisGameHistoryCache.keyOf(abPool, "A"), TennisGameHistoryCache.keyOf(abPool, "AA"));
+        assertEquals(TennisGameHistoryCache.NO_KEY,
+                TennisGameHistoryCache.keyOf(abPool, "A".repeat(TennisGameHistoryCache.MAX_HISTORY_LENGTH + 1)));
+    }
+
+    @Test
+    void test_hits_and_misses() {
+        // given
+        TennisGameHistoryCache cache = new TennisGameHistoryCache();
+        byte[] indices = { 1, 2 };
+        // when
+        byte[] missed = cache.get(42);
+        cache.put(42, indices);
+        byte[] hit = cache.get(42);
+        // then
+        assertNull(missed);
+        assertArrayEquals(indices, hit);
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(1, cache.getMissesCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void test_least_recently_used_entries_are_evicted() {
+        // given a single entry per stripe
+        TennisGameHistoryCache cache = new TennisGameHistoryCache(1);
+        // when
+        IntStream.range(0, 1_000).forEach(key -> cache.put(key, new byte[0]));
+        cache.put(2_000, new byte[0]);
+        // then
+        assertEquals(16, cache.size());
+        assertEquals(1_001 - 16, cache.getEvictionsCount());
+        // the last entry put is the most recently used of its stripe
+        assertArrayEquals(new byte[0], cache.get(2_000));
+    }
+
+    @Test
+    void test_concurrent_accesses() {
+        // given
+        TennisGameHistoryCache cache = new TennisGameHistoryCache(256);
+        // when
+        IntStream.range(0, 100_000).parallel().forEach(i -> {
+            long key = i % 512;
+            if (cache.get(key) == null) {
+                cache.put(key, new byte[] { (byte) key });
+            }
+        });
+        // then
+        assertEquals(100_000, cache.getHitsCount() + cache.getMissesCount());
+        assertEquals(256, cache.size());
+    }
+}
@@ -0,0 +1,135 @@
+package kata.tennis.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import kata.tennis.domain.TennisGameErrorCode;
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameHistoryLineResult;
+import kata.tennis.services.TennisGameHistoryFileProcessorService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+
+public class TennisGameHistoryFileProcessorServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @Test
+    public void test_lines_are_evaluated_in_order() throws IOException {
+        // given
+        Path file = tempDir.resolve("histories.txt");
+        Files.writeString(file, "AAAA\nABC\r\nAABABB\n\nAAAAB\nBBBB");
+        TennisGameHistoryFileProcessorService service = new TennisGameHistoryFileProcessorServiceImpl();
+        List<TennisGameHistoryLineResult> results = new ArrayList<>();
+        // when
+        service.evaluateGameHistoryFile(file, results::add);
+        // then
+        assertEquals(6, results.size());
+        assertEquals(processor.evaluateGameHistory("AAAA"), results.get(0).outcome());
+        assertEquals(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT, results.get(1).errorCode());
+        assertEquals(2, results.get(1).errorPosition());
+        assertEquals(processor.evaluateGameHistory("AABABB"), results.get(2).outcome());
+        assertEquals(TennisGameEvaluation.NO_ERROR_POSITION, results.get(2).errorPosition());
+        assertEquals(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT, results.get(3).errorCode());
+        assertEquals(TennisGameErrorCode.GAME_ALREADY_FINISHED, results.get(4).errorCode());
+        assertEquals(4, results.get(4).errorPosition());
+        assertEquals('B', results.get(5).outcome().winnerId());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 1, results.get(i).lineNumber());
+        }
+    }
+
+    @Test
+    public void test_many_small_chunks() throws IOException {
+        // given
+        List<String> gameHistories = IntStream.range(0, 2_000)
+                .mapToObj(i -> "AB".repeat(i % 5) + (i % 3 == 0 ? "AA" : "BB"))
+                .toList();
+        Path file = tempDir.resolve("histories.txt");
+        Files.writeString(file, gameHistories.stream().collect(Collectors.joining("\n", "", "\n")));
+        TennisGameHistoryFileProcessorService service = new TennisGameHistoryFileProcessorServiceImpl(processor, 32);
+        List<TennisGameHistoryLineResult> results = new ArrayList<>();
+        // when
+        service.evaluateGameHistoryFile(file, results::add);
+        // then
+        assertEquals(gameHistories.size(), results.size());
+        for (int i = 0; i < gameHistories.size(); i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals(i + 1, results.get(i).lineNumber());
+            assertEquals(processor.evaluateGameHistory(gameHistories.get(i)), results.get(i).outcome());
+        }
+    }
+
+    @Test
+    public void test_results_are_handed_over_a_round_of_blocks_at_a_time() throws IOException {
+        // given: a single chunk holding more lines than a round of blocks
+        int linesCount = TennisGameHistoryFileProcessorServiceImpl.LINES_PER_BLOCK
+                * (TennisGameHistoryFileProcessorServiceImpl.BLOCKS_PER_ROUND + 1) + 7;
+        Path file = tempDir.resolve("histories.txt");
+        Files.writeString(file, "AAAA\n".repeat(linesCount - 1) + "ABC");
+        AtomicInteger evaluationsCount = new AtomicInteger();
+        TennisGameHistoryProcessorService countingProcessor = new TennisGameHistoryProcessorServiceImpl() {
+            @Override
+            public TennisGameEvaluation tryEvaluateGameHistory(CharSequence gameHistory) {
+                evaluationsCount.incrementAndGet();
+                return super.tryEvaluateGameHistory(gameHistory);
+            }
+        };
+        TennisGameHistoryFileProcessorService service = new TennisGameHistoryFileProcessorServiceImpl(
+                countingProcessor);
+        List<Long> lineNumbers = new ArrayList<>();
+        List<TennisGameHistoryLineResult> failures = new ArrayList<>();
+        int[] evaluationsAtFirstResult = { -1 };
+        // when
+        service.evaluateGameHistoryFile(file, result -> {
+            if (evaluationsAtFirstResult[0] == -1) {
+                evaluationsAtFirstResult[0] = evaluationsCount.get();
+            }
+            lineNumbers.add(result.lineNumber());
+            if (!result.isSuccess()) {
+                failures.add(result);
+            }
+        });
+        // then
+        assertEquals(TennisGameHistoryFileProcessorServiceImpl.LINES_PER_BLOCK
+                * TennisGameHistoryFileProcessorServiceImpl.BLOCKS_PER_ROUND, evaluationsAtFirstResult[0]);
+        assertEquals(LongStream.rangeClosed(1, linesCount).boxed().toList(), lineNumbers);
+        assertEquals(1, failures.size());
+        assertEquals(linesCount, failures.get(0).lineNumber());
+    }
+
+    @Test
+    public void test_line_longer_than_chunk() throws IOException {
+        // given
+        Path file = tempDir.resolve("histories.txt");
+        Files.writeString(file, "AABABBABABABABAA\nAAAA\n");
+        TennisGameHistoryFileProcessorService service = new TennisGameHistoryFileProcessorServiceImpl(processor, 8);
+        // when / then
+        assertThrows(UncheckedIOException.class, () -> service.evaluateGameHistoryFile(file, result -> {
+        }));
+    }
+
+    @Test
+    public void test_missing_file() {
+        TennisGameHistoryFileProcessorService service = new TennisGameHistoryFileProcessorServiceImpl();
+        assertThrows(UncheckedIOException.class,
+                () -> service.evaluateGameHistoryFile(tempDir.resolve("missing.txt"), result -> {
+                }));
+    }
+}
@@ -0,0 +1,90 @@
+package kata.tennis.services.impl;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryIndex;
+import kata.tennis.services.TennisGameHistoryIndexService;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class TennisGameHistoryIndexServiceImplTest {
+
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @ParameterizedTest
+    @MethodSource("provideGameHistories")
+    void test_state_at_every_point(String gameHistory, int checkpointInterval) {
+        // given
+        TennisGameHistoryIndexService service = new TennisGameHistoryIndexServiceImpl(
+                new TennisGameStatePoolServiceImpl(), checkpointInterval);
+        List<TennisGameState> expected = processor.generateGameStatesFromHistory(gameHistory);
+        // when
+        TennisGameHistoryIndex index = service.indexGameHistory(gameHistory);
+        // then
+        assertEquals(expected.size(), index.getPointsCount());
+        for (int point = expected.size() - 1; point >= 0; point--) {
+            assertEquals(expected.get(point), index.getGameStateAt(point));
+        }
+        assertEquals(expected, index.getGameStates(0, expected.size()));
+    }
+
+    @Test
+    void test_slices_read_in_any_order() {
+        // given
+        String gameHistory = "AAABBB" + "AB".repeat(500) + "BB";
+        List<TennisGameState> expected = processor.generateGameStatesFromHistory(gameHistory);
+        TennisGameHistoryIndex index = new TennisGameHistoryIndexServiceImpl().indexGameHistory(gameHistory);
+        // when
+        List<TennisGameState> slice = index.getGameStates(100, 900);
+        // then
+        assertEquals(800, slice.size());
+        assertEquals(expected.get(500), slice.get(400));
+        assertSame(slice.get(400), slice.get(400));
+        assertEquals(expected.get(501), slice.get(401));
+        assertEquals(expected.get(100), slice.get(0));
+        assertEquals(expected.subList(100, 900), slice);
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.get(800));
+        assertThrows(UnsupportedOperationException.class, () -> slice.set(0, expected.get(0)));
+    }
+
+    @Test
+    void test_out_of_bounds() {
+        TennisGameHistoryIndex index = new TennisGameHistoryIndexServiceImpl().indexGameHistory("ABA");
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getGameStateAt(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getGameStateAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.getGameStates(2, 4));
+        assertEquals(List.of(), index.getGameStates(3, 3));
+    }
+
+    @Test
+    void test_errors_as_processor() {
+        TennisGameHistoryIndexService service = new TennisGameHistoryIndexServiceImpl();
+        assertEquals(assertThrows(GameAlreadyFinishedException.class,
+                () -> processor.generateGameStatesFromHistory("AAAAB")).getMessage(),
+                assertThrows(GameAlreadyFinishedException.class,
+                        () -> service.indexGameHistory("AAAAB")).getMessage());
+        assertThrows(UnsupportedPlayersCountException.class, () -> service.indexGameHistory("ABC"));
+        assertThrows(UnsupportedPlayersCountException.class, () -> service.indexGameHistory(""));
+    }
+
+    static Stream<Arguments> provideGameHistories() {
+        return Stream.of(
+                Arguments.of("A", 1),
+                Arguments.of("ZZZZ", 64),
+                Arguments.of("AAABBB" + "AB".repeat(100) + "AA", 1),
+                Arguments.of("AAABBB" + "AB".repeat(100) + "AA", 7),
+                Arguments.of("AAABBB" + "AB".repeat(100), 64),
+                Arguments.of("AAABBB" + "AB".repeat(100), 0));
+    }
+}
@@ -1,17 +1,27 @@
 package kata.tennis.services.impl;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import kata.tennis.domain.TennisGameOutcome;
 import kata.tennis.domain.TennisPlayer;
 import kata.tennis.domain.TennisScore;
 import kata.tennis.domain.state.TennisGameState;
 import kata.tennis.services.TennisGameHistoryPrinterService;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.TennisGameOutputFlushPolicy;
 
 public class TennisGameHistoryPrinterServiceImplTest {
 
@@ -414,6 +424,142 @@ public class TennisGameHistoryPrinterServiceImplTest {
         assertEquals(expectedOutput, outContent.toString());
     }
 
+    @Test
+    public void test_game_outcomes() {
+        // given
+        TennisGameOutcome finished = new TennisGameOutcome('B',
+                new TennisPlayer('A', TennisScore.LOSE), new TennisPlayer('B', TennisScore.WIN), 4);
+        TennisGameOutcome unfinished = new TennisGameOutcome(null,
+                new TennisPlayer('A', TennisScore.ADVANTAGE), new TennisPlayer('B', TennisScore.FORTY), 9);
+        String expectedOutput = """
+                B > Player B wins the game
+                Player A: ADVANTAGE / Player B: 40
+                """;
+        // when
+        tennisGameHistoryPrinterService.printGameOutcome(finished);
+        tennisGameHistoryPrinterService.printGameOutcome(unfinished);
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+    }
+
+    @Test
+    public void test_states_outside_of_the_game() {
+        // given
+        List<TennisGameState> states = List.of(
+                state(null, TennisScore.ZERO, TennisScore.ZERO),
+                state('C', TennisScore.FIFTEEN, TennisScore.ZERO),
+                state('C', TennisScore.WIN, TennisScore.LOSE));
+        String expectedOutput = """
+                null > Player A: 0 / Player B: 0
+                C > Player A: 15 / Player B: 0
+                A > Player A wins the game
+                """;
+        // when
+        tennisGameHistoryPrinterService.printScoreFromGameStates(states);
+        // then
+        assertEquals(expectedOutput, outContent.toString());
+    }
+
+    @Test
+    public void test_long_game_to_given_output() {
+        // given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TennisGameHistoryPrinterService printer = new TennisGameHistoryPrinterServiceImpl(output,
+                StandardCharsets.UTF_8);
+        List<TennisGameState> states = Collections.nCopies(1_000,
+                state('B', TennisScore.FORTY, TennisScore.ADVANTAGE));
+        // when
+        printer.printScoreFromGameStates(states);
+        printer.printScoreFromGameStates(states.subList(0, 1));
+        // then
+        assertEquals(("B > Player A: 40 / Player B: ADVANTAGE" + System.lineSeparator()).repeat(1_001),
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void test_players_beyond_the_kept_renderers() {
+        // given: a printer keeping as many renderers as it can
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        TennisGameHistoryPrinterService printer = new TennisGameHistoryPrinterServiceImpl(output,
+                StandardCharsets.UTF_8);
+        for (int i = 0; i < TennisGameHistoryPrinterServiceImpl.MAX_RENDERERS; i++) {
+            printer.printGameOutcome(new TennisGameOutcome(null, new TennisPlayer((char) (0x4E00 + 2 * i),
+                    TennisScore.ZERO), new TennisPlayer((char) (0x4E01 + 2 * i), TennisScore.ZERO), 0));
+        }
+        output.reset();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        TennisGameHistoryPrinterService fresh = new TennisGameHistoryPrinterServiceImpl(expected,
+                StandardCharsets.UTF_8);
+        List<TennisGameState> pooledStates = new TennisGameHistoryProcessorServiceImpl()
+                .generateGameStatesFromHistory("XYXXX");
+        List<TennisGameState> states = List.of(state('X', 'X', TennisScore.FIFTEEN, 'Y', TennisScore.ZERO));
+        TennisGameOutcome outcome = new TennisGameOutcome('X', new TennisPlayer('X', TennisScore.WIN),
+                new TennisPlayer('Y', TennisScore.FORTY), 7);
+        // when
+        for (TennisGameHistoryPrinterService each : List.of(printer, fresh)) {
+            each.printScoreFromGameStates(pooledStates);
+            each.printScoreFromGameStates(states);
+            each.printGameOutcome(outcome);
+        }
+        // then
+        assertEquals(expected.toString(StandardCharsets.UTF_8), output.toString(StandardCharsets.UTF_8));
+        assertEquals(String.join(System.lineSeparator(),
+                "X > Player X: 15 / Player Y: 0",
+                "Y > Player X: 15 / Player Y: 15",
+                "X > Player X: 30 / Player Y: 15",
+                "X > Player X: 40 / Player Y: 15",
+                "X > Player X wins the game",
+                "X > Player X: 15 / Player Y: 0",
+                "X > Player X wins the game",
+                ""), output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void test_UncheckedIOException() {
+        // given
+        OutputStream failingOutput = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken output");
+            }
+        };
+        TennisGameHistoryPrinterService printer = new TennisGameHistoryPrinterServiceImpl(failingOutput,
+                StandardCharsets.UTF_8);
+        // when / then
+        assertThrows(UncheckedIOException.class, () -> printer
+                .printScoreFromGameStates(List.of(state('A', TennisScore.FIFTEEN, TennisScore.ZERO))));
+    }
+
+    @Test
+    public void test_metrics() {
+        // given
+        TennisGameMetricsRegistryImpl metrics = new TennisGameMetricsRegistryImpl();
+        TennisGameHistoryPrinterService measured = new TennisGameHistoryPrinterServiceImpl(
+                new TennisGameStreamOutputSinkImpl(OutputStream.nullOutputStream(),
+                        TennisGameOutputFlushPolicy.perGame()),
+                StandardCharsets.UTF_8, metrics);
+        TennisGameHistoryPrinterService failing = new TennisGameHistoryPrinterServiceImpl(
+                new TennisGameStreamOutputSinkImpl(new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        throw new IOException("disk full");
+                    }
+                }, TennisGameOutputFlushPolicy.perLine()), StandardCharsets.UTF_8, metrics);
+        // when
+        measured.printScoreFromGameStates(List.of(state('A', TennisScore.FIFTEEN, TennisScore.ZERO),
+                state('A', TennisScore.THIRTY, TennisScore.ZERO)));
+        measured.printGameOutcome(new TennisGameOutcome(null, new TennisPlayer('A', TennisScore.FIFTEEN),
+                new TennisPlayer('B', TennisScore.ZERO), 1));
+        assertThrows(UncheckedIOException.class, () -> failing
+                .printScoreFromGameStates(List.of(state('A', TennisScore.FIFTEEN, TennisScore.ZERO))));
+        assertThrows(UncheckedIOException.class, () -> failing.printGameOutcome(new TennisGameOutcome(null,
+                new TennisPlayer('A', TennisScore.FIFTEEN), new TennisPlayer('B', TennisScore.ZERO), 1)));
+        // then
+        assertEquals(2, metrics.getGamesCount(Stage.PRINTER));
+        assertEquals(3, metrics.getPointsCount(Stage.PRINTER));
+        assertEquals(Map.of("UncheckedIOException", 2L), metrics.getErrorsCounts(Stage.PRINTER));
+    }
+
     // helpers to create expected values easily
     private TennisGameState state(Character currentWinnerId, TennisScore aScore, TennisScore bScore) {
         return new TennisGameState(currentWinnerId,
@@ -1,17 +1,40 @@
 package kata.tennis.services.impl;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import kata.tennis.domain.TennisGameErrorCode;
+import kata.tennis.domain.TennisGameEvaluation;
+import kata.tennis.domain.TennisGameOutcome;
 import kata.tennis.domain.TennisPlayer;
 import kata.tennis.domain.TennisScore;
 import kata.tennis.domain.state.TennisGameState;
 import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameMetrics.Stage;
 import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
 import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
 
 public class TennisGameHistoryProcessorServiceImplTest {
@@ -327,6 +350,203 @@ public class TennisGameHistoryProcessorServiceImplTest {
         assertInstanceOf(GameAlreadyFinishedException.class, thrown);
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = { "AAAA", "BBB", "ZZ", "BA", "AABABBBAAA", "ABBAABABBAABBB", "XXYX" })
+    public void test_stream_is_equivalent_to_list(String gameHistory) {
+        // given
+        List<TennisGameState> expected = service.generateGameStatesFromHistory(gameHistory);
+        // when
+        List<TennisGameState> fromCharSequence = service.streamGameStatesFromHistory(gameHistory).toList();
+        List<TennisGameState> fromReader = service.streamGameStatesFromHistory(new StringReader(gameHistory))
+                .toList();
+        // then
+        assertEquals(expected, fromCharSequence);
+        assertEquals(expected, fromReader);
+    }
+
+    @Test
+    public void test_stream_long_history_from_reader() {
+        // given
+        String gameHistory = "AAABBB" + "AB".repeat(10_000) + "AA";
+        // when
+        List<TennisGameState> gameStates = service.streamGameStatesFromHistory(new StringReader(gameHistory))
+                .toList();
+        // then
+        assertEquals(service.generateGameStatesFromHistory(gameHistory), gameStates);
+    }
+
+    @Test
+    public void test_stream_emits_states_before_GameAlreadyFinishedException() {
+        // given
+        String gameHistory = "AAAAB";
+        List<TennisGameState> gameStates = new ArrayList<>();
+        // when
+        Exception thrown = assertThrows(GameAlreadyFinishedException.class, () -> {
+            service.streamGameStatesFromHistory(gameHistory).forEach(gameStates::add);
+        });
+        // then
+        assertInstanceOf(GameAlreadyFinishedException.class, thrown);
+        assertEquals(4, gameStates.size());
+    }
+
+    @Test
+    public void test_stream_GameAlreadyFinishedException_single_player() {
+        Iterator<TennisGameState> states = service.streamGameStatesFromHistory("AAAAAA").iterator();
+        for (int i = 0; i < 4; i++) {
+            states.next();
+        }
+        assertThrows(GameAlreadyFinishedException.class, states::hasNext);
+    }
+
+    @Test
+    public void test_stream_UnsupportedPlayersCountException() {
+        assertThrows(UnsupportedPlayersCountException.class,
+                () -> service.streamGameStatesFromHistory("ABC").toList());
+        assertThrows(UnsupportedPlayersCountException.class,
+                () -> service.streamGameStatesFromHistory(new StringReader("")).toList());
+    }
+
+    @Test
+    public void test_stream_exhausted() {
+        Iterator<TennisGameState> states = service.streamGameStatesFromHistory("A").iterator();
+        states.next();
+        assertFalse(states.hasNext());
+        assertThrows(NoSuchElementException.class, states::next);
+    }
+
+    @Test
+    public void test_stream_UncheckedIOException() {
+        Reader failingReader = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("broken history");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertThrows(UncheckedIOException.class, () -> service.streamGameStatesFromHistory(failingReader).toList());
+    }
+
+    @Test
+    public void test_evaluate_player_A_win() {
+        // given
+        String gameHistory = "AABABBBAAA";
+        TennisGameOutcome expected = new TennisGameOutcome('A',
+                new TennisPlayer('A', TennisScore.WIN),
+                new TennisPlayer('B', TennisScore.LOSE),
+                10);
+        // when
+        TennisGameOutcome outcome = service.evaluateGameHistory(gameHistory);
+        // then
+        assertEquals(expected, outcome);
+        assertTrue(outcome.isFinished());
+    }
+
+    @Test
+    public void test_evaluate_player_B_win() {
+        // given
+        String gameHistory = "ABBAABABBAABBB";
+        // when
+        TennisGameOutcome outcome = service.evaluateGameHistory(gameHistory);
+        // then
+        assertEquals('B', outcome.winnerId());
+        assertEquals(14, outcome.pointsCount());
+    }
+
+    @Test
+    public void test_evaluate_without_win() {
+        // given
+        String gameHistory = "AABABB";
+        TennisGameOutcome expected = new TennisGameOutcome(null,
+                new TennisPlayer('A', TennisScore.DEUCE),
+                new TennisPlayer('B', TennisScore.DEUCE),
+                6);
+        // when
+        TennisGameOutcome outcome = service.evaluateGameHistory(gameHistory);
+        // then
+        assertEquals(expected, outcome);
+        assertFalse(outcome.isFinished());
+    }
+
+    @Test
+    public void test_evaluate_exceptions() {
+        assertThrows(UnsupportedPlayersCountException.class, () -> service.evaluateGameHistory("ABC"));
+        assertThrows(UnsupportedPlayersCountException.class, () -> service.evaluateGameHistory(""));
+        assertThrows(UnsupportedPlayersCountException.class, () -> service.evaluateGameHistory("AAAACD"));
+        assertThrows(GameAlreadyFinishedException.class, () -> service.evaluateGameHistory("AAAAB"));
+    }
+
+    @Test
+    public void test_metrics() {
+        // given
+        TennisGameMetricsRegistryImpl metrics = new TennisGameMetricsRegistryImpl();
+        TennisGameHistoryProcessorService measured = new TennisGameHistoryProcessorServiceImpl(
+                new TennisGameStatePoolServiceImpl(), metrics);
+        // when
+        measured.generateGameStatesFromHistory("AAAA");
+        measured.evaluateGameHistory("ABA");
+        assertThrows(GameAlreadyFinishedException.class, () -> measured.generateGameStatesFromHistory("AAAAB"));
+        assertThrows(UnsupportedPlayersCountException.class, () -> measured.evaluateGameHistory("ABC"));
+        // then
+        assertEquals(2, metrics.getGamesCount(Stage.PROCESSOR));
+        assertEquals(7, metrics.getPointsCount(Stage.PROCESSOR));
+        assertEquals(2, metrics.getLatencyHistogram(Stage.PROCESSOR).getCount());
+        assertEquals(Map.of("GameAlreadyFinishedException", 1L, "UnsupportedPlayersCountException", 1L),
+                metrics.getErrorsCounts(Stage.PROCESSOR));
+    }
+
+    @Test
+    public void test_stage_events(@TempDir Path tempDir) throws IOException {
+        // given
+        Path recordingFile = tempDir.resolve("stages.jfr");
+        // when
+        try (Recording recording = new Recording()) {
+            recording.enable("kata.tennis.GameStage");
+            recording.start();
+            service.generateGameStatesFromHistory("ABAB");
+            assertThrows(UnsupportedPlayersCountException.class,
+                    () -> service.generateGameStatesFromHistory("ABC"));
+            assertThrows(GameAlreadyFinishedException.class,
+                    () -> service.generateGameStatesFromHistory("AAAAB"));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getThread().getJavaThreadId() == Thread.currentThread().getId())
+                .toList();
+        assertEquals(List.of(
+                "player detection 4 A B in progress",
+                "state generation 4 A B in progress",
+                "player detection 3 UnsupportedPlayersCountException",
+                "state generation 5 GameAlreadyFinishedException"),
+                events.stream().map(TennisGameHistoryProcessorServiceImplTest::describe).toList());
+    }
+
+    @Test
+    public void test_evaluation_without_exceptions() {
+        // given
+        TennisGameHistoryProcessorService rejectingRules = new TennisGameHistoryProcessorServiceImpl(
+                new TennisGameStateServiceImpl(scoreState -> {
+                    throw new UnsupportedGameStatusException("unsupported");
+                }));
+        // when then
+        assertEquals(TennisGameEvaluation.success(service.evaluateGameHistory("AABBA")),
+                service.tryEvaluateGameHistory("AABBA"));
+        assertEquals(TennisGameEvaluation.failure(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT, 0),
+                service.tryEvaluateGameHistory(""));
+        assertEquals(TennisGameEvaluation.failure(TennisGameErrorCode.UNSUPPORTED_PLAYERS_COUNT, 5),
+                service.tryEvaluateGameHistory("AABABCAB"));
+        assertEquals(TennisGameEvaluation.failure(TennisGameErrorCode.GAME_ALREADY_FINISHED, 4),
+                service.tryEvaluateGameHistory("BBBBAB"));
+        assertEquals(TennisGameEvaluation.failure(TennisGameErrorCode.UNSUPPORTED_GAME_STATUS, 0),
+                rejectingRules.tryEvaluateGameHistory("AB"));
+        assertFalse(service.tryEvaluateGameHistory("ABC").isSuccess());
+        assertNull(service.tryEvaluateGameHistory("ABC").outcome());
+    }
+
     // helpers to create expected values easily
     private TennisGameState state(Character currentWinnerId, TennisScore aScore, TennisScore bScore) {
         return new TennisGameState(currentWinnerId,
@@ -344,4 +564,11 @@ public class TennisGameHistoryProcessorServiceImplTest {
                 new TennisPlayer(id1, aScore),
                 new TennisPlayer(id2, bScore));
     }
+
+    private static String describe(RecordedEvent stageEvent) {
+        String players = stageEvent.getChar("player1Id") == 0 ? ""
+                : String.format(" %c %c", stageEvent.getChar("player1Id"), stageEvent.getChar("player2Id"));
+        return String.format("%s %d%s %s", stageEvent.getString("stage"), stageEvent.getInt("historyLength"),
+                players, stageEvent.getString("outcome"));
+    }
 }
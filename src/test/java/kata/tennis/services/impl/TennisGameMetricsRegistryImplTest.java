@@ -0,0 +1,104 @@
+package kata.tennis.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.services.TennisGameMetrics;
+import kata.tennis.services.TennisGameMetrics.Stage;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class TennisGameMetricsRegistryImplTest {
+
+    TennisGameMetricsRegistryImpl registry = new TennisGameMetricsRegistryImpl();
+
+    @Test
+    public void test_counters_by_stage() {
+        // when
+        registry.recordGame(Stage.PROCESSOR, 4, 1_000);
+        registry.recordGame(Stage.PROCESSOR, 6, 3_000);
+        registry.recordPoints(Stage.TRANSITION, 3);
+        registry.recordError(Stage.PROCESSOR, new GameAlreadyFinishedException("finished"));
+        registry.recordError(Stage.PROCESSOR, new GameAlreadyFinishedException("finished"));
+        registry.recordError(Stage.PROCESSOR, new UnsupportedPlayersCountException("players"));
+        // then
+        assertTrue(registry.isEnabled());
+        assertEquals(2, registry.getGamesCount(Stage.PROCESSOR));
+        assertEquals(10, registry.getPointsCount(Stage.PROCESSOR));
+        assertEquals(0, registry.getGamesCount(Stage.TRANSITION));
+        assertEquals(3, registry.getPointsCount(Stage.TRANSITION));
+        assertEquals(Map.of("GameAlreadyFinishedException", 2L, "UnsupportedPlayersCountException", 1L),
+                registry.getErrorsCounts(Stage.PROCESSOR));
+        assertEquals(Map.of(), registry.getErrorsCounts(Stage.PRINTER));
+        assertEquals(2, registry.getLatencyHistogram(Stage.PROCESSOR).getCount());
+        assertEquals(4_000, registry.getLatencyHistogram(Stage.PROCESSOR).getSum());
+    }
+
+    @Test
+    public void test_concurrent_recording() throws InterruptedException {
+        // given
+        List<Thread> threads = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            threads.add(new Thread(() -> {
+                for (int game = 0; game < 10_000; game++) {
+                    registry.recordGame(Stage.RUNNER, 4, game);
+                }
+            }));
+        }
+        // when
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // then
+        assertEquals(80_000, registry.getGamesCount(Stage.RUNNER));
+        assertEquals(320_000, registry.getPointsCount(Stage.RUNNER));
+        assertEquals(80_000, registry.getLatencyHistogram(Stage.RUNNER).getCount());
+    }
+
+    @Test
+    public void test_histogram_percentiles() {
+        // given
+        TennisGameLatencyHistogram histogram = new TennisGameLatencyHistogram();
+        // when
+        for (long nanos = 1; nanos <= 1_000; nanos++) {
+            histogram.record(nanos);
+        }
+        histogram.record(-5);
+        // then
+        assertEquals(1_001, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(500, histogram.getValueAtPercentile(50), 500 / 8);
+        assertEquals(990, histogram.getValueAtPercentile(99), 990 / 8);
+        assertEquals(1_000, histogram.getValueAtPercentile(100), 1_000 / 8);
+        assertEquals(8, histogram.getCountBelowPowerOfTwo(3));
+        assertEquals(1_001, histogram.getCountBelowPowerOfTwo(10));
+        assertEquals(0, new TennisGameLatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void test_histogram_buckets_cover_every_value() {
+        for (long value : new long[] { 0, 7, 8, 15, 16, 1_000_000, Long.MAX_VALUE }) {
+            int bucket = TennisGameLatencyHistogram.bucketOf(value);
+            assertTrue(TennisGameLatencyHistogram.highestValueOf(bucket) >= value);
+            assertTrue(bucket == 0 || TennisGameLatencyHistogram.highestValueOf(bucket - 1) < value);
+        }
+    }
+
+    @Test
+    public void test_noop_metrics() {
+        // when
+        TennisGameMetrics.NOOP.recordGame(Stage.RUNNER, 4, 1_000);
+        TennisGameMetrics.NOOP.recordPoints(Stage.RUNNER, 4);
+        TennisGameMetrics.NOOP.recordError(Stage.RUNNER, new IllegalStateException());
+        // then
+        assertFalse(TennisGameMetrics.NOOP.isEnabled());
+        assertEquals("transition", Stage.TRANSITION.getLabel());
+    }
+}
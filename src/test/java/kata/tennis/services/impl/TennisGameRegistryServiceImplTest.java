@@ -0,0 +1,115 @@
+package kata.tennis.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameRegistryService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnknownMatchException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class TennisGameRegistryServiceImplTest {
+
+    // Tests are designed around the SOLID principle of Dependency Inversion,
+    // focusing on the TennisGameRegistryService interface rather than its
+    // specific implementation.
+    TennisGameRegistryService registry = new TennisGameRegistryServiceImpl();
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @Test
+    public void test_games_go_through_the_history_states() {
+        // given
+        registry.openGame("final", 'B', 'A');
+        registry.openGame("semi", 'C', 'D');
+        // when
+        for (char point : "ABBAAA".toCharArray()) {
+            registry.submitPoint("final", point);
+        }
+        registry.submitPoint("semi", 'D');
+        // then
+        assertEquals(Optional.of(processor.generateGameStatesFromHistory("ABBAAA").get(5)),
+                registry.getGameState("final"));
+        assertEquals(Optional.of(new TennisGameState('D', new TennisPlayer('C', TennisScore.ZERO),
+                new TennisPlayer('D', TennisScore.FIFTEEN))), registry.getGameState("semi"));
+        assertEquals(2, registry.getGamesCount());
+    }
+
+    @Test
+    public void test_concurrent_points_on_many_games() throws Exception {
+        // given
+        int gamesCount = 1000;
+        for (int game = 0; game < gamesCount; game++) {
+            registry.openGame("match-" + game, 'A', 'B');
+        }
+        int threadsCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        // when: every thread tries to score the same points of every game, only
+        // four of them may be accepted per game
+        for (int thread = 0; thread < threadsCount; thread++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int game = 0; game < gamesCount; game++) {
+                    try {
+                        registry.submitPoint("match-" + game, 'A');
+                    } catch (GameAlreadyFinishedException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        // then
+        assertEquals(gamesCount * (threadsCount - 4), rejected.get());
+        for (int game = 0; game < gamesCount; game++) {
+            assertEquals(TennisScore.WIN, registry.getGameState("match-" + game).orElseThrow().player1().tennisScore());
+        }
+    }
+
+    @Test
+    public void test_close_game() {
+        // given
+        TennisGameState initialState = registry.openGame("final", 'A', 'B');
+        // when
+        Optional<TennisGameState> closed = registry.closeGame("final");
+        // then
+        assertEquals(Optional.of(initialState), closed);
+        assertEquals(Optional.empty(), registry.getGameState("final"));
+        assertEquals(Optional.empty(), registry.closeGame("final"));
+        assertEquals(0, registry.getGamesCount());
+    }
+
+    @Test
+    public void test_errors() {
+        registry.openGame("final", 'A', 'B');
+        assertThrows(IllegalStateException.class, () -> registry.openGame("final", 'C', 'D'));
+        assertThrows(UnsupportedPlayersCountException.class, () -> registry.openGame("semi", 'A', 'A'));
+        assertThrows(UnknownMatchException.class, () -> registry.submitPoint("semi", 'A'));
+        assertThrows(UnsupportedPlayersCountException.class, () -> registry.submitPoint("final", 'C'));
+        registry.submitPoint("final", 'B');
+        assertThrows(UnsupportedPlayersCountException.class, () -> registry.submitPoint("final", 'C'));
+        assertTrue(registry.getGameState("final").isPresent());
+    }
+}
@@ -0,0 +1,73 @@
+package kata.tennis.services.impl;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameHistoryProcessorService;
+import kata.tennis.services.TennisGameSession;
+import kata.tennis.services.TennisGameSessionService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedPlayersCountException;
+
+public class TennisGameSessionServiceImplTest {
+
+    // Tests are designed around the SOLID principle of Dependency Inversion,
+    // focusing on the TennisGameSessionService interface rather than its
+    // specific implementation.
+    TennisGameSessionService service = new TennisGameSessionServiceImpl();
+    TennisGameHistoryProcessorService processor = new TennisGameHistoryProcessorServiceImpl();
+
+    @Test
+    public void test_live_game_goes_through_the_history_states() {
+        // given
+        String gameHistory = "ABBAABABBAABBB";
+        List<TennisGameState> expected = processor.generateGameStatesFromHistory(gameHistory);
+        TennisGameSession session = service.openGame('B', 'A');
+        // when / then
+        for (int point = 0; point < gameHistory.length(); point++) {
+            assertEquals(expected.get(point), session.submitPoint(gameHistory.charAt(point)));
+            assertEquals(expected.get(point), session.getCurrentState());
+            assertEquals(point + 1, session.getPointsCount());
+        }
+        assertEquals(Optional.of(new TennisPlayer('B', TennisScore.WIN)), session.getWinner());
+    }
+
+    @Test
+    public void test_new_game() {
+        // when
+        TennisGameSession session = service.openGame('A', 'B');
+        // then
+        assertEquals(new TennisGameState(null, new TennisPlayer('A', TennisScore.ZERO),
+                new TennisPlayer('B', TennisScore.ZERO)), session.getCurrentState());
+        assertEquals(Optional.empty(), session.getWinner());
+        assertEquals(0, session.getPointsCount());
+    }
+
+    @Test
+    public void test_GameAlreadyFinishedException() {
+        // given
+        TennisGameSession session = service.openGame('A', 'B');
+        for (int point = 0; point < 4; point++) {
+            session.submitPoint('A');
+        }
+        // when / then
+        assertThrows(GameAlreadyFinishedException.class, () -> session.submitPoint('B'));
+        assertEquals(4, session.getPointsCount());
+    }
+
+    @Test
+    public void test_UnsupportedPlayersCountException() {
+        assertThrows(UnsupportedPlayersCountException.class, () -> service.openGame('A', 'A'));
+        TennisGameSession session = service.openGame('A', 'B');
+        assertThrows(UnsupportedPlayersCountException.class, () -> session.submitPoint('C'));
+        session.submitPoint('B');
+        assertThrows(UnsupportedPlayersCountException.class, () -> session.submitPoint('C'));
+    }
+}
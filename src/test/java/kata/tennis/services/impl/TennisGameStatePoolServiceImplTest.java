@@ -0,0 +1,153 @@
+package kata.tennis.services.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import kata.tennis.domain.TennisPlayer;
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+
+public class TennisGameStatePoolServiceImplTest {
+
+        TennisGameStateService rules = new TennisGameStateServiceImpl();
+        TennisGameStatePoolServiceImpl service = new TennisGameStatePoolServiceImpl();
+
+        // the pooled states must be equal to the ones computed by the rules over
+        // every (last winner, score, score, point winner) combination, including
+        // the rejected ones.
+        @ParameterizedTest
+        @MethodSource("provideAllGameStates")
+        void test_pool_is_equivalent_to_rules(
+                        // given
+                        Character lastWinnerId,
+                        TennisScore aTennisScore,
+                        TennisScore bTennisScore,
+                        Character currentPointWinner) {
+                TennisGameState lastGameState = new TennisGameState(lastWinnerId,
+                                new TennisPlayer('A', aTennisScore),
+                                new TennisPlayer('B', bTennisScore));
+                TennisGameState expected;
+                try {
+                        expected = rules.getNextGameState(lastGameState, currentPointWinner);
+                } catch (IllegalArgumentException e) {
+                        // then
+                        assertThrows(e.getClass(), () -> service.getNextGameState(lastGameState, currentPointWinner));
+                        return;
+                }
+                // when
+                TennisGameState newGameState = service.getNextGameState(lastGameState, currentPointWinner);
+                // then
+                assertEquals(expected, newGameState);
+        }
+
+        @Test
+        void test_states_are_shared() {
+                // given
+                TennisGameState lastGameState = new TennisGameState(null,
+                                new TennisPlayer('A', TennisScore.ZERO),
+                                new TennisPlayer('B', TennisScore.ZERO));
+                // when
+                TennisGameState first = service.getNextGameState(lastGameState, 'A');
+                TennisGameState second = service.getNextGameState(lastGameState, 'A');
+                TennisGameState other = service.getNextGameState(
+                                new TennisGameState(null, new TennisPlayer('X', TennisScore.ZERO),
+                                                new TennisPlayer('Y', TennisScore.ZERO)),
+                                'Y');
+                // then
+                assertSame(first, second);
+                assertSame(service.getPool('A', 'B').state(service.getPool('A', 'B').indexOf(first)), first);
+                assertEquals(new TennisGameState('Y', new TennisPlayer('X', TennisScore.ZERO),
+                                new TennisPlayer('Y', TennisScore.FIFTEEN)), other);
+        }
+
+        @Test
+        void test_pool_precomputes_winner_and_links() {
+                // given
+                TennisGameStatePool pool = service.getPool('A', 'B');
+                int index = pool.indexOf(pool.initialState());
+                // when
+                for (int point = 0; point < 4; point++) {
+                        index = pool.next(index, TennisGameStatePool.PLAYER2_SLOT);
+                }
+                // then
+                assertEquals(Optional.of(new TennisPlayer('B', TennisScore.WIN)), pool.winner(index));
+                assertSame(pool.winner(index), pool.winner(index));
+                assertEquals(TennisGameStatePool.NO_STATE, pool.next(index, TennisGameStatePool.PLAYER1_SLOT));
+                assertEquals(TennisGameStatePool.NO_STATE, pool.indexOf(new TennisGameState('C',
+                                new TennisPlayer('A', TennisScore.ZERO), new TennisPlayer('B', TennisScore.ZERO))));
+        }
+
+        @Test
+        void test_walk_stops_at_the_first_rejected_point() {
+                // given
+                TennisGameStatePool pool = service.getPool('A', 'B');
+                List<TennisGameState> states = new ArrayList<>();
+                // when
+                int rejectedPosition = pool.walk("ABAAAB", (position, index) -> {
+                        assertEquals(states.size(), position);
+                        states.add(pool.state(index));
+                });
+                // then
+                assertEquals(5, rejectedPosition);
+                assertEquals(rules.getNextGameState(states.get(3), 'A'), states.get(4));
+                assertEquals(2, pool.walk("AB", (position, index) -> {
+                }));
+                assertSame(pool.initialState(), pool.state(TennisGameStatePool.INITIAL_INDEX));
+        }
+
+        @Test
+        void test_players_beyond_the_kept_pools() {
+                // given: a service keeping as many pools as it can
+                for (int i = 0; i < TennisGameStatePoolServiceImpl.MAX_POOLS; i++) {
+                        service.getPool((char) (0x4E00 + 2 * i), (char) (0x4E01 + 2 * i));
+                }
+                TennisGameState lastGameState = new TennisGameState(null,
+                                new TennisPlayer('X', TennisScore.ZERO), new TennisPlayer('Y', TennisScore.ZERO));
+                // when
+                TennisGameState nextGameState = service.getNextGameState(lastGameState, 'X');
+                TennisGameStatePool pool = service.getPool('X', 'Y');
+                // then: the rules and unshared pools take over
+                assertEquals(rules.getNextGameState(lastGameState, 'X'), nextGameState);
+                assertNotSame(pool, service.getPool('X', 'Y'));
+                assertEquals(nextGameState, pool.state(pool.next(TennisGameStatePool.INITIAL_INDEX,
+                                TennisGameStatePool.PLAYER1_SLOT)));
+                assertSame(service.getPool((char) 0x4E00, (char) 0x4E01),
+                                service.getPool((char) 0x4E00, (char) 0x4E01));
+        }
+
+        @Test
+        void test_GameAlreadyFinishedException() {
+                // given
+                TennisGameState lastGameState = new TennisGameState('A',
+                                new TennisPlayer('A', TennisScore.WIN),
+                                new TennisPlayer('B', TennisScore.LOSE));
+                // when / then
+                assertThrows(GameAlreadyFinishedException.class, () -> service.getNextGameState(lastGameState, 'B'));
+        }
+
+        static Stream<Arguments> provideAllGameStates() {
+                Character[] winnerIds = { null, 'A', 'B', 'C' };
+                return Arrays.stream(winnerIds)
+                                .flatMap(lastWinnerId -> Arrays.stream(TennisScore.values())
+                                                .flatMap(aScore -> Arrays.stream(TennisScore.values())
+                                                                .flatMap(bScore -> Arrays.stream(winnerIds)
+                                                                                .skip(1)
+                                                                                .map(winnerId -> Arguments.of(
+                                                                                                lastWinnerId, aScore,
+                                                                                                bScore, winnerId)))));
+        }
+}
@@ -1,8 +1,11 @@
 package kata.tennis.services.impl;
 
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -10,7 +13,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 import kata.tennis.domain.TennisPlayer;
 import kata.tennis.domain.TennisScore;
 import kata.tennis.domain.state.TennisGameState;
+import kata.tennis.services.TennisGameMetrics.Stage;
 import kata.tennis.services.TennisGameStateService;
+import kata.tennis.services.exceptions.GameAlreadyFinishedException;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
 
 public class TennisGameStateServiceImplTest {
 
@@ -71,6 +77,31 @@ public class TennisGameStateServiceImplTest {
                 assertEquals(expectedGameState, newGameState);
         }
 
+        @Test
+        void test_metrics() {
+                // given
+                TennisGameMetricsRegistryImpl registry = new TennisGameMetricsRegistryImpl();
+                TennisGameStateService countedService = new TennisGameStateServiceImpl(
+                                new TennisScoreStateTableServiceImpl(), registry);
+                TennisGameStateService failingService = new TennisGameStateServiceImpl(scoreState -> {
+                        throw new UnsupportedGameStatusException("unsupported");
+                }, registry);
+                TennisGameState initialState = new TennisGameState(null, new TennisPlayer('A', TennisScore.ZERO),
+                                new TennisPlayer('B', TennisScore.ZERO));
+                TennisGameState finishedState = new TennisGameState('A', new TennisPlayer('A', TennisScore.WIN),
+                                new TennisPlayer('B', TennisScore.LOSE));
+                // when
+                countedService.getNextGameState(countedService.getNextGameState(initialState, 'A'), 'B');
+                assertThrows(GameAlreadyFinishedException.class,
+                                () -> countedService.getNextGameState(finishedState, 'B'));
+                assertThrows(UnsupportedGameStatusException.class,
+                                () -> failingService.getNextGameState(initialState, 'A'));
+                // then
+                assertEquals(2, registry.getPointsCount(Stage.TRANSITION));
+                assertEquals(Map.of("GameAlreadyFinishedException", 1L, "UnsupportedGameStatusException", 1L),
+                                registry.getErrorsCounts(Stage.TRANSITION));
+        }
+
         static Stream<Arguments> provideScoreStates() {
                 return Stream.of(
                                 Arguments.of(TennisScore.ZERO, TennisScore.ZERO,
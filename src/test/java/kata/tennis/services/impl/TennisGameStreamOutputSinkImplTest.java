@@ -0,0 +1,123 @@
+package kata.tennis.services.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import kata.tennis.services.TennisGameOutputFlushPolicy;
+import kata.tennis.services.TennisGameOutputSink;
+
+public class TennisGameStreamOutputSinkImplTest {
+
+    private boolean closed;
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream() {
+        @Override
+        public void close() throws IOException {
+            closed = true;
+        }
+    };
+
+    @Test
+    public void test_flush_per_game() {
+        // given
+        TennisGameOutputSink sink = new TennisGameStreamOutputSinkImpl(outContent,
+                TennisGameOutputFlushPolicy.perGame());
+        // when
+        sink.writeLine(line("first"));
+        // then
+        assertEquals("", output());
+        sink.endGame();
+        assertEquals("first\n", output());
+    }
+
+    @Test
+    public void test_full_buffer_and_large_lines() {
+        // given
+        TennisGameOutputSink sink = new TennisGameStreamOutputSinkImpl(outContent, 8,
+                TennisGameOutputFlushPolicy.perLine());
+        // when
+        sink.writeLine(line("abc"));
+        sink.writeLine(line("a line larger than the buffer"));
+        // then
+        assertEquals("abc\na line larger than the buffer\n", output());
+    }
+
+    @Test
+    public void test_close() {
+        // given
+        TennisGameOutputSink sink = new TennisGameStreamOutputSinkImpl(outContent,
+                TennisGameOutputFlushPolicy.bySize(1024));
+        sink.writeLine(line("last"));
+        // when
+        sink.close();
+        // then
+        assertEquals("last\n", output());
+        assertTrue(closed);
+    }
+
+    @Test
+    public void test_output_kept_open() {
+        // given
+        TennisGameOutputSink sink = new TennisGameStreamOutputSinkImpl(outContent, 1024,
+                TennisGameOutputFlushPolicy.byTime(Duration.ofMillis(10)), false);
+        sink.writeLine(line("last"));
+        // when
+        sink.close();
+        // then
+        assertEquals("last\n", output());
+        assertFalse(closed);
+    }
+
+    @Test
+    public void test_failed_time_based_flush_is_reported_and_written_again() throws InterruptedException {
+        // given: a stream failing its first write
+        ByteArrayOutputStream destination = new ByteArrayOutputStream();
+        AtomicInteger writesCount = new AtomicInteger();
+        OutputStream failingOnce = new OutputStream() {
+            @Override
+            public void write(int b) {
+                destination.write(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                if (writesCount.incrementAndGet() == 1) {
+                    throw new IOException("disk full");
+                }
+                destination.write(bytes, offset, length);
+            }
+        };
+        // long enough for the line to be buffered before the first flush is due
+        TennisGameOutputSink sink = new TennisGameStreamOutputSinkImpl(failingOnce,
+                TennisGameOutputFlushPolicy.byTime(Duration.ofMillis(200)));
+        // when: the timer flushes the idle sink
+        sink.writeLine(line("first"));
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (writesCount.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // then
+        UncheckedIOException failure = assertThrows(UncheckedIOException.class, () -> sink.writeLine(line("second")));
+        assertEquals("disk full", failure.getCause().getMessage());
+        sink.close();
+        assertEquals("first\n", destination.toString(StandardCharsets.US_ASCII));
+    }
+
+    private byte[] line(String line) {
+        return (line + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private String output() {
+        return outContent.toString(StandardCharsets.US_ASCII);
+    }
+}
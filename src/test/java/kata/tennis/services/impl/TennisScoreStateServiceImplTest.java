@@ -3,6 +3,8 @@ package kata.tennis.services.impl;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -10,6 +12,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import kata.tennis.domain.TennisScore;
 import kata.tennis.domain.state.TennisScoreState;
 import kata.tennis.services.TennisScoreStateService;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
 
 public class TennisScoreStateServiceImplTest {
 
@@ -32,6 +35,15 @@ public class TennisScoreStateServiceImplTest {
                 assertEquals(expected, newScoreState);
         }
 
+        @Test
+        void test_UnsupportedGameStatusException_after_win() {
+                // given
+                TennisScoreState currentScoreState = new TennisScoreState(TennisScore.WIN, TennisScore.LOSE);
+                // when / then
+                assertThrows(UnsupportedGameStatusException.class,
+                                () -> service.getNextScoreState(currentScoreState));
+        }
+
         static Stream<Arguments> provideScoreStates() {
                 return Stream.of(
                                 Arguments.of(new TennisScoreState(TennisScore.ZERO, TennisScore.ZERO),
@@ -0,0 +1,70 @@
+package kata.tennis.services.impl;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import kata.tennis.domain.TennisScore;
+import kata.tennis.domain.state.TennisScoreState;
+import kata.tennis.services.TennisScoreStateService;
+import kata.tennis.services.exceptions.UnsupportedGameStatusException;
+
+public class TennisScoreStateTableServiceImplTest {
+
+        TennisScoreStateService rules = new TennisScoreStateServiceImpl();
+        TennisScoreStateService service = new TennisScoreStateTableServiceImpl();
+
+        // the compiled table must agree with the map based rules over the whole
+        // (winner score, loser score) space, including the rejected pairs.
+        @ParameterizedTest
+        @MethodSource("provideAllScoreStates")
+        void test_table_is_equivalent_to_rules(
+                        // given
+                        TennisScore winnerScore,
+                        TennisScore loserScore) {
+                TennisScoreState currentScoreState = new TennisScoreState(winnerScore, loserScore);
+                TennisScoreState expected;
+                try {
+                        expected = rules.getNextScoreState(currentScoreState);
+                } catch (UnsupportedGameStatusException e) {
+                        // then
+                        assertThrows(UnsupportedGameStatusException.class,
+                                        () -> service.getNextScoreState(currentScoreState));
+                        return;
+                }
+                // when
+                TennisScoreState newScoreState = service.getNextScoreState(currentScoreState);
+                // then
+                assertEquals(expected, newScoreState);
+        }
+
+        @Test
+        void test_table_returns_canonical_instances() {
+                // when
+                TennisScoreState first = service.getNextScoreState(TennisScore.DEUCE, TennisScore.DEUCE);
+                TennisScoreState second = service
+                                .getNextScoreState(new TennisScoreState(TennisScore.DEUCE, TennisScore.DEUCE));
+                // then
+                assertSame(first, second);
+                assertEquals(new TennisScoreState(TennisScore.ADVANTAGE, TennisScore.FORTY), first);
+        }
+
+        @Test
+        void test_UnsupportedGameStatusException_after_win() {
+                assertThrows(UnsupportedGameStatusException.class,
+                                () -> service.getNextScoreState(TennisScore.WIN, TennisScore.LOSE));
+        }
+
+        static Stream<Arguments> provideAllScoreStates() {
+                return Arrays.stream(TennisScore.values())
+                                .flatMap(winnerScore -> Arrays.stream(TennisScore.values())
+                                                .map(loserScore -> Arguments.of(winnerScore, loserScore)));
+        }
+}